@@ -0,0 +1,230 @@
+package com.ctwms.bench;
+
+import com.ctwms.command.CommandProcessor;
+import com.ctwms.command.CommandServer;
+import com.ctwms.manager.PersonnelManager;
+import com.ctwms.manager.ServiceCatalog;
+import com.ctwms.manager.TaskManager;
+import com.ctwms.manager.UndoService;
+import com.ctwms.model.Personnel;
+import com.ctwms.model.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Load test for {@link CommandServer}: for each connection count, that many clients pipeline a mix
+ * of add-task, search-service, serve-task and peek-task commands for a fixed time, and the test
+ * reports commands per second and the latency of each command from the moment its batch was sent
+ * to the moment its answer arrived.
+ * <p>
+ * Without {@code target=} an in-process server is started on a free port over fresh managers
+ * holding 10,000 personnel and 1,000 services, with no journal.
+ * <p>
+ * Usage: {@code java -cp target/classes com.ctwms.bench.CommandServerLoadTest [connections=1,10,100,1000]
+ * [seconds=5] [pipeline=16] [target=host:port]}
+ */
+public final class CommandServerLoadTest {
+    private static final int WARMUP_MILLIS = 1_000;
+    private static final int SEED_PERSONNEL = 10_000;
+    private static final int SEED_SERVICES = 1_000;
+
+    private CommandServerLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int[] connectionCounts = {1, 10, 100, 1_000};
+        int seconds = 5;
+        int pipeline = 16;
+        String target = null;
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            String key = split > 0 ? arg.substring(0, split) : arg;
+            String value = split > 0 ? arg.substring(split + 1) : "";
+            switch (key) {
+                case "connections" -> connectionCounts = Arrays.stream(value.split(","))
+                        .mapToInt(count -> Integer.parseInt(count.trim())).toArray();
+                case "seconds" -> seconds = Integer.parseInt(value);
+                case "pipeline" -> pipeline = Math.max(1, Integer.parseInt(value));
+                case "target" -> target = value;
+                default -> {
+                    System.err.println("Unknown argument: " + arg);
+                    System.exit(2);
+                }
+            }
+        }
+
+        CommandServer server = null;
+        InetSocketAddress address;
+        if (target == null) {
+            server = new CommandServer(seededProcessor(), 0);
+            address = new InetSocketAddress("127.0.0.1", server.port());
+        } else {
+            int colon = target.lastIndexOf(':');
+            address = new InetSocketAddress(target.substring(0, colon), Integer.parseInt(target.substring(colon + 1)));
+        }
+        System.out.printf("target=%s pipeline=%d seconds=%d threads=%s%n", address, pipeline, seconds,
+                CommandServer.virtualThreadsAvailable() ? "virtual" : "platform");
+        System.out.printf("%11s %12s %10s %10s %10s %10s %8s%n",
+                "connections", "commands/s", "p50 us", "p99 us", "p99.9 us", "max us", "errors");
+        try {
+            for (int connections : connectionCounts) {
+                Result result = runLevel(address, connections, seconds, pipeline);
+                long[] latencies = result.latencies;
+                System.out.printf("%11d %12.0f %10d %10d %10d %10d %8d%n", connections,
+                        latencies.length / (seconds * 1.0), percentile(latencies, 0.50), percentile(latencies, 0.99),
+                        percentile(latencies, 0.999), latencies.length > 0 ? latencies[latencies.length - 1] : 0,
+                        result.errors);
+            }
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+
+    private static CommandProcessor seededProcessor() {
+        PersonnelManager personnel = new PersonnelManager();
+        List<Personnel> people = new ArrayList<>(SEED_PERSONNEL);
+        for (int i = 0; i < SEED_PERSONNEL; i++) {
+            people.add(new Personnel(String.format("P%06d", i), "Load Person " + i, "Staff", "Operations",
+                    "person" + i + "@campus.edu"));
+        }
+        personnel.appendAll(people);
+        ServiceCatalog catalog = new ServiceCatalog();
+        List<Service> services = new ArrayList<>(SEED_SERVICES);
+        for (int i = 0; i < SEED_SERVICES; i++) {
+            services.add(new Service(String.format("SV%04d Desk", i), "Walk-in help " + i, "Cat" + (i % 20), true));
+        }
+        catalog.addAll(services);
+        return new CommandProcessor(personnel, catalog, new TaskManager(), new UndoService(), null, 1, true);
+    }
+
+    private static Result runLevel(InetSocketAddress address, int connections, int seconds, int pipeline)
+            throws Exception {
+        List<Socket> sockets = new ArrayList<>(connections);
+        ExecutorService clients = CommandServer.newConnectionExecutor();
+        try {
+            for (int i = 0; i < connections; i++) {
+                Socket socket = new Socket();
+                socket.setTcpNoDelay(true);
+                socket.connect(address);
+                sockets.add(socket);
+            }
+            CountDownLatch start = new CountDownLatch(1);
+            long warmEnd = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(WARMUP_MILLIS);
+            long end = warmEnd + TimeUnit.SECONDS.toNanos(seconds);
+            List<Future<Result>> futures = new ArrayList<>(connections);
+            for (int i = 0; i < connections; i++) {
+                Socket socket = sockets.get(i);
+                int client = i;
+                futures.add(clients.submit(() -> drive(socket, client, pipeline, start, warmEnd, end)));
+            }
+            start.countDown();
+            List<long[]> samples = new ArrayList<>(connections);
+            long errors = 0;
+            int total = 0;
+            for (Future<Result> future : futures) {
+                Result result = future.get();
+                samples.add(result.latencies);
+                errors += result.errors;
+                total += result.latencies.length;
+            }
+            long[] latencies = new long[total];
+            int at = 0;
+            for (long[] sample : samples) {
+                System.arraycopy(sample, 0, latencies, at, sample.length);
+                at += sample.length;
+            }
+            Arrays.sort(latencies);
+            return new Result(latencies, errors);
+        } finally {
+            for (Socket socket : sockets) {
+                socket.close();
+            }
+            clients.shutdownNow();
+        }
+    }
+
+    /**
+     * Sends {@code pipeline} commands at a time and reads their answers until {@code end};
+     * answers received before {@code warmEnd} are not recorded.
+     */
+    private static Result drive(Socket socket, int client, int pipeline, CountDownLatch start,
+                                long warmEnd, long end) throws IOException, InterruptedException {
+        BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+        Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        long[] latencies = new long[1_024];
+        int recorded = 0;
+        long errors = 0;
+        long sequence = 0;
+        start.await();
+        while (true) {
+            long sent = System.nanoTime();
+            if (sent >= end) {
+                break;
+            }
+            for (int i = 0; i < pipeline; i++) {
+                out.write(command(client, sequence++));
+            }
+            out.flush();
+            for (int i = 0; i < pipeline; i++) {
+                String answer = in.readLine();
+                if (answer == null) {
+                    throw new IOException("Server closed the connection");
+                }
+                long received = System.nanoTime();
+                if (received < warmEnd) {
+                    continue;
+                }
+                if (!answer.startsWith("{\"ok\":true")) {
+                    errors++;
+                }
+                if (recorded == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, recorded * 2);
+                }
+                latencies[recorded++] = (received - sent) / 1_000;
+            }
+        }
+        return new Result(Arrays.copyOf(latencies, recorded), errors);
+    }
+
+    /**
+     * Every client adds a task before it serves one, so the queue never runs dry under any
+     * interleaving.
+     */
+    private static String command(int client, long sequence) {
+        return switch ((int) (sequence & 3)) {
+            case 0 -> ":add-task requestor=Client" + client + " description=\"Load " + sequence + "\" priority=low\n";
+            case 1 -> ":search-service query=\"sv" + String.format("%04d", ThreadLocalRandom.current().nextInt(SEED_SERVICES))
+                    + "\"\n";
+            case 2 -> ":serve-task\n";
+            default -> ":peek-task\n";
+        };
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
+
+    private record Result(long[] latencies, long errors) {
+    }
+}
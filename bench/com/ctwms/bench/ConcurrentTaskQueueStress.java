@@ -0,0 +1,126 @@
+package com.ctwms.bench;
+
+import com.ctwms.datastructures.ConcurrentTaskQueue;
+import com.ctwms.model.Task;
+import com.ctwms.model.TaskPriority;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Stress check for {@link ConcurrentTaskQueue}: producers, consumers and a canceller hammer the
+ * queue concurrently, then every task must have been served or cancelled exactly once and each
+ * consumer must have seen every producer's lane in FIFO order.
+ * <p>
+ * Usage: {@code java -cp target/classes com.ctwms.bench.ConcurrentTaskQueueStress [producers] [consumers] [tasksPerProducer]}
+ */
+public final class ConcurrentTaskQueueStress {
+    private ConcurrentTaskQueueStress() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int producers = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int consumers = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int perProducer = args.length > 2 ? Integer.parseInt(args[2]) : 200_000;
+        int total = producers * perProducer;
+
+        ConcurrentTaskQueue queue = new ConcurrentTaskQueue();
+        AtomicIntegerArray seen = new AtomicIntegerArray(total);
+        AtomicInteger handled = new AtomicInteger();
+        AtomicInteger orderViolations = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> threads = new ArrayList<>();
+
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            threads.add(new Thread(() -> {
+                await(start);
+                TaskPriority[] priorities = TaskPriority.values();
+                for (int i = 0; i < perProducer; i++) {
+                    int id = producer * perProducer + i;
+                    queue.enqueue(new Task(String.valueOf(id), "p" + producer, "stress",
+                            priorities[ThreadLocalRandom.current().nextInt(priorities.length)]));
+                }
+            }, "producer-" + p));
+        }
+        for (int c = 0; c < consumers; c++) {
+            threads.add(new Thread(() -> {
+                await(start);
+                int[][] lastSeen = new int[producers][TaskPriority.values().length];
+                for (int[] lanes : lastSeen) {
+                    Arrays.fill(lanes, -1);
+                }
+                try {
+                    while (handled.get() < total) {
+                        Task task = queue.take(10, TimeUnit.MILLISECONDS);
+                        if (task == null) {
+                            continue;
+                        }
+                        int id = Integer.parseInt(task.getTaskId());
+                        int producer = id / perProducer;
+                        int lane = task.getPriority().ordinal();
+                        if (id <= lastSeen[producer][lane]) {
+                            orderViolations.incrementAndGet();
+                        }
+                        lastSeen[producer][lane] = id;
+                        seen.incrementAndGet(id);
+                        handled.incrementAndGet();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }, "consumer-" + c));
+        }
+        threads.add(new Thread(() -> {
+            await(start);
+            while (handled.get() < total) {
+                int id = ThreadLocalRandom.current().nextInt(total);
+                Task cancelled = queue.removeById(String.valueOf(id));
+                if (cancelled != null) {
+                    seen.incrementAndGet(id);
+                    handled.incrementAndGet();
+                }
+            }
+        }, "canceller"));
+
+        long began = System.nanoTime();
+        threads.forEach(Thread::start);
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - began);
+
+        int lost = 0;
+        int duplicated = 0;
+        for (int i = 0; i < total; i++) {
+            int count = seen.get(i);
+            if (count == 0) {
+                lost++;
+            } else if (count > 1) {
+                duplicated++;
+            }
+        }
+        System.out.printf("tasks=%d producers=%d consumers=%d elapsed=%dms lost=%d duplicated=%d fifoViolations=%d remaining=%d%n",
+                total, producers, consumers, elapsedMillis, lost, duplicated, orderViolations.get(), queue.size());
+        if (lost > 0 || duplicated > 0 || orderViolations.get() > 0 || !queue.isEmpty()) {
+            System.out.println("FAIL");
+            System.exit(1);
+        }
+        System.out.println("PASS");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.ctwms.bench;
+
+import com.ctwms.manager.PersonnelManager;
+import com.ctwms.manager.ServiceCatalog;
+import com.ctwms.manager.TaskManager;
+import com.ctwms.model.Task;
+import com.ctwms.model.TaskPriority;
+import com.ctwms.persistence.JournalReplayer;
+import com.ctwms.persistence.SyncPolicy;
+import com.ctwms.persistence.WriteAheadLog;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes a journal of {@code records} task mutations (two adds for every serve) under the given
+ * sync policy, then times replaying it into fresh managers a few times.
+ * <p>
+ * Usage: {@code java -cp target/classes com.ctwms.bench.JournalReplayTiming [records] [syncEvery] [syncMillis]}
+ */
+public final class JournalReplayTiming {
+    private static final TaskPriority[] PRIORITIES = TaskPriority.values();
+
+    private JournalReplayTiming() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int records = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        SyncPolicy policy = new SyncPolicy(args.length > 1 ? Integer.parseInt(args[1]) : 0,
+                args.length > 2 ? Long.parseLong(args[2]) : 0);
+        Path directory = Files.createTempDirectory("ctwms-journal");
+        Path file = directory.resolve("journal.wal");
+        try {
+            TaskManager writer = new TaskManager();
+            long started = System.nanoTime();
+            try (WriteAheadLog journal = WriteAheadLog.open(file, 0, policy)) {
+                writer.setMutationListener(journal);
+                int written = 0;
+                for (int i = 0; written < records; i++) {
+                    writer.addTask(new Task("TASK-" + i, "Requestor " + (i % 100), "Benchmark task " + i,
+                            PRIORITIES[i % PRIORITIES.length]));
+                    written++;
+                    if (i % 2 == 1 && written < records) {
+                        writer.serveNextTask();
+                        written++;
+                    }
+                }
+                System.out.printf("wrote %d records (%d MiB, sync %s) in %d ms, %d syncs%n",
+                        journal.appendedRecords(), Files.size(file) >> 20, policy,
+                        (System.nanoTime() - started) / 1_000_000, journal.syncCount());
+            }
+            for (int run = 1; run <= 3; run++) {
+                TaskManager reader = new TaskManager();
+                started = System.nanoTime();
+                JournalReplayer.Result result = new JournalReplayer(new PersonnelManager(), new ServiceCatalog(), reader)
+                        .replay(file);
+                System.out.printf("replay %d: %d records in %d ms, %d tasks pending%n", run, result.records(),
+                        (System.nanoTime() - started) / 1_000_000, reader.count());
+            }
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(directory);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.ctwms.bench;
+
+import com.ctwms.datastructures.IndexedPersonnelTree;
+import com.ctwms.datastructures.PersonnelLinkedList;
+import com.ctwms.datastructures.PersonnelStore;
+import com.ctwms.model.Personnel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Regression benchmark for the bulk-load path behind {@code replaceAll} (undo of a sort).
+ * The score per record should stay flat from 1k to 1M entries.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class PersonnelBulkLoadBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+
+    @Param({"list", "tree"})
+    private String store;
+
+    private List<Personnel> records;
+    private PersonnelStore target;
+
+    @Setup(Level.Trial)
+    public void createRecords() {
+        records = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            records.add(new Personnel("PER-" + i, "Person " + i, "Staff", "Registrar", "p" + i + "@campus.edu"));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void createStore() {
+        target = store.equals("tree") ? new IndexedPersonnelTree() : new PersonnelLinkedList();
+    }
+
+    @Benchmark
+    public PersonnelStore replaceAll() {
+        target.replaceAll(records);
+        return target;
+    }
+}
@@ -0,0 +1,70 @@
+package com.ctwms.bench;
+
+import com.ctwms.datastructures.MappedPersonnelStore;
+import com.ctwms.datastructures.PersonnelLinkedList;
+import com.ctwms.datastructures.PersonnelStore;
+import com.ctwms.model.Personnel;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads {@code records} personnel into the chosen store and reports retained heap, mapped bytes and
+ * the cost of a few lookups.
+ * <p>
+ * Usage: {@code java -cp target/classes com.ctwms.bench.PersonnelFootprint [list|mapped] [records]}
+ */
+public final class PersonnelFootprint {
+    private static final int BATCH = 10_000;
+
+    private PersonnelFootprint() {
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String kind = args.length > 0 ? args[0] : "mapped";
+        int records = args.length > 1 ? Integer.parseInt(args[1]) : 2_000_000;
+        long baseline = usedHeap();
+        PersonnelStore store = kind.equalsIgnoreCase("list") ? new PersonnelLinkedList() : new MappedPersonnelStore();
+        long started = System.nanoTime();
+        List<Personnel> batch = new ArrayList<>(BATCH);
+        for (int i = 0; i < records; i++) {
+            batch.add(new Personnel("ID-" + i, "Person " + i, "Technician", "Operations", "person" + i + "@campus.example"));
+            if (batch.size() == BATCH) {
+                store.appendAll(batch);
+                batch.clear();
+            }
+        }
+        store.appendAll(batch);
+        batch.clear();
+        long loadMillis = (System.nanoTime() - started) / 1_000_000;
+        long retained = usedHeap() - baseline;
+        System.out.printf("%s: %d records loaded in %d ms, retained heap %d MiB%n", kind, store.size(), loadMillis,
+                retained >> 20);
+        if (store instanceof MappedPersonnelStore mapped) {
+            System.out.printf("mapped: %d MiB%n", mapped.mappedBytes() >> 20);
+        }
+
+        started = System.nanoTime();
+        int found = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (store.findByName("person " + (i * 7919L % records)) != null) {
+                found++;
+            }
+        }
+        System.out.printf("findByName: %d hits, %.2f us each%n", found, (System.nanoTime() - started) / 1000.0 / 100_000);
+        if (store instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,101 @@
+package com.ctwms.bench;
+
+import com.ctwms.datastructures.IndexedPersonnelTree;
+import com.ctwms.datastructures.MappedPersonnelStore;
+import com.ctwms.datastructures.PersonnelLinkedList;
+import com.ctwms.datastructures.PersonnelStore;
+import com.ctwms.model.Personnel;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Core operations of each {@code PersonnelStore} on a directory of {@code size} records. Every
+ * operation leaves the directory as it found it, so the size stays constant across invocations.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class PersonnelStoreBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+
+    @Param({"list", "tree", "mapped"})
+    private String store;
+
+    private PersonnelStore target;
+    private String[] names;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void fillStore() {
+        target = switch (store) {
+            case "tree" -> new IndexedPersonnelTree();
+            case "mapped" -> new MappedPersonnelStore();
+            default -> new PersonnelLinkedList();
+        };
+        names = new String[size];
+        List<Personnel> records = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            names[i] = "Person " + i;
+            records.add(new Personnel("PER-" + i, names[i], "Staff", "Registrar", "p" + i + "@campus.edu"));
+        }
+        // Stored out of name order so that sorting has real work to do.
+        Collections.shuffle(records, new Random(7));
+        target.appendAll(records);
+        random = new Random(42);
+    }
+
+    @TearDown(Level.Trial)
+    public void closeStore() throws IOException {
+        if (target instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    @Benchmark
+    public Personnel findByName() {
+        return target.findByName(names[random.nextInt(size)]);
+    }
+
+    @Benchmark
+    public Personnel insertAndRemoveMiddle() {
+        int middle = size / 2;
+        target.insertAtPosition(new Personnel("PER-NEW", "New Person", "Staff", "Registrar", "new@campus.edu"), middle);
+        return target.removeAt(middle);
+    }
+
+    @Benchmark
+    public PersonnelStore.RemovalResult removeByNameAndReinsert() {
+        PersonnelStore.RemovalResult removed = target.removeByName(names[random.nextInt(size)]);
+        target.reinsert(removed.getRemovedPersonnel(), removed.getIndex());
+        return removed;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public boolean sortAndRestore() {
+        return target.restoreOrder(target.sortByName());
+    }
+}
@@ -0,0 +1,146 @@
+package com.ctwms.bench;
+
+import com.ctwms.datastructures.AgingPolicy;
+import com.ctwms.datastructures.StrictPriorityPolicy;
+import com.ctwms.datastructures.TaskQueue;
+import com.ctwms.datastructures.TaskSchedulingPolicy;
+import com.ctwms.datastructures.WeightedRoundRobinPolicy;
+import com.ctwms.model.Task;
+import com.ctwms.model.TaskPriority;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.function.Function;
+
+/**
+ * Discrete-time simulation of {@link TaskQueue} near saturation under each scheduling policy.
+ * Every tick is one minute of virtual time: tasks arrive at random with the configured per-lane
+ * rates, then up to {@code capacity} tasks are served. Reports p50/p99/max wait per priority and
+ * how many tasks were still queued at the end.
+ * <p>
+ * Usage: {@code java -cp target/classes com.ctwms.bench.SchedulingPolicySimulation [ticks] [capacity] [highRate] [mediumRate] [lowRate]}
+ */
+public final class SchedulingPolicySimulation {
+    private static final LocalDateTime EPOCH = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private SchedulingPolicySimulation() {
+    }
+
+    public static void main(String[] args) {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int capacity = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        double[] rates = {
+                args.length > 2 ? Double.parseDouble(args[2]) : 7.0,
+                args.length > 3 ? Double.parseDouble(args[3]) : 2.0,
+                args.length > 4 ? Double.parseDouble(args[4]) : 0.9
+        };
+        System.out.printf("ticks=%d capacity=%d arrivals/tick HIGH=%.2f MEDIUM=%.2f LOW=%.2f%n",
+                ticks, capacity, rates[0], rates[1], rates[2]);
+
+        run("strict", ticks, capacity, rates, clock -> StrictPriorityPolicy.INSTANCE);
+        run("wrr 7:2:1", ticks, capacity, rates, clock -> new WeightedRoundRobinPolicy(7, 2, 1));
+        run("aging 30m", ticks, capacity, rates, clock -> new AgingPolicy(Duration.ofMinutes(30), clock));
+    }
+
+    private static void run(String label, int ticks, int capacity, double[] rates,
+                            Function<Clock, TaskSchedulingPolicy> policy) {
+        VirtualClock clock = new VirtualClock();
+        TaskQueue queue = new TaskQueue();
+        queue.setSchedulingPolicy(policy.apply(clock));
+        Random random = new Random(42);
+        TaskPriority[] priorities = TaskPriority.values();
+        long[][] waits = new long[priorities.length][];
+        int[] served = new int[priorities.length];
+        for (int lane = 0; lane < priorities.length; lane++) {
+            waits[lane] = new long[(int) (ticks * rates[lane] * 1.2) + 16];
+        }
+        int nextId = 0;
+        for (int tick = 0; tick < ticks; tick++) {
+            LocalDateTime now = EPOCH.plusMinutes(tick);
+            clock.set(now);
+            for (int lane = 0; lane < priorities.length; lane++) {
+                int arrivals = poisson(random, rates[lane]);
+                for (int i = 0; i < arrivals; i++) {
+                    queue.enqueue(new Task("T" + nextId++, "sim", "simulated", priorities[lane], now));
+                }
+            }
+            for (int i = 0; i < capacity; i++) {
+                Task task = queue.dequeue();
+                if (task == null) {
+                    break;
+                }
+                int lane = task.getPriority().ordinal();
+                if (served[lane] == waits[lane].length) {
+                    waits[lane] = Arrays.copyOf(waits[lane], served[lane] * 2);
+                }
+                waits[lane][served[lane]++] = Duration.between(task.getCreatedAt(), now).toMinutes();
+            }
+        }
+        int[] unserved = new int[priorities.length];
+        for (Task task : queue.toList()) {
+            unserved[task.getPriority().ordinal()]++;
+        }
+        System.out.println("-- " + label);
+        for (int lane = 0; lane < priorities.length; lane++) {
+            long[] sample = Arrays.copyOf(waits[lane], served[lane]);
+            Arrays.sort(sample);
+            System.out.printf("   %-6s served=%7d unserved=%6d wait(min) p50=%5d p99=%6d max=%6d%n",
+                    priorities[lane], served[lane], unserved[lane],
+                    percentile(sample, 0.50), percentile(sample, 0.99),
+                    sample.length > 0 ? sample[sample.length - 1] : 0);
+        }
+    }
+
+    private static long percentile(long[] sorted, double fraction) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[Math.min(sorted.length - 1, (int) Math.ceil(fraction * sorted.length) - 1)];
+    }
+
+    /**
+     * Knuth's multiplication method; fine for the small per-tick rates used here.
+     */
+    private static int poisson(Random random, double mean) {
+        double limit = Math.exp(-mean);
+        double product = random.nextDouble();
+        int count = 0;
+        while (product > limit) {
+            product *= random.nextDouble();
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Clock whose time only moves when the simulation advances it.
+     */
+    private static final class VirtualClock extends Clock {
+        private Instant instant = EPOCH.toInstant(ZoneOffset.UTC);
+
+        void set(LocalDateTime time) {
+            instant = time.toInstant(ZoneOffset.UTC);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
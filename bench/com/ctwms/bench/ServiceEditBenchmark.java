@@ -0,0 +1,70 @@
+package com.ctwms.bench;
+
+import com.ctwms.manager.ServiceCatalog;
+import com.ctwms.model.Service;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Edit-heavy workloads on a catalog of {@code size} services, each addressing a random service by
+ * name: look it up, replace it with an edited copy (the console edit and its undo), and remove it
+ * and insert it back at a random position (a delete followed by its undo).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class ServiceEditBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+
+    private ServiceCatalog catalog;
+    private String[] names;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void fillCatalog() {
+        catalog = new ServiceCatalog();
+        names = new String[size];
+        random = new Random(42);
+        for (int i = 0; i < size; i++) {
+            names[i] = "Service " + i;
+            catalog.addService(new Service(names[i], "Campus service " + i, "General", true));
+        }
+    }
+
+    @Benchmark
+    public Service findByName() {
+        return catalog.findByName(names[random.nextInt(size)]);
+    }
+
+    @Benchmark
+    public Service editByName() {
+        String name = names[random.nextInt(size)];
+        Service edited = catalog.findByName(name).clone();
+        edited.setActive(!edited.isActive());
+        return catalog.replaceService(name, edited);
+    }
+
+    @Benchmark
+    public Service removeAndReinsert() {
+        Service removed = catalog.removeService(names[random.nextInt(size)]);
+        catalog.insertService(removed, random.nextInt(catalog.count() + 1));
+        return removed;
+    }
+}
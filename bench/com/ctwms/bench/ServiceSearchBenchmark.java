@@ -0,0 +1,75 @@
+package com.ctwms.bench;
+
+import com.ctwms.manager.ServiceCatalog;
+import com.ctwms.model.Service;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keyword search over a catalog of {@code size} services: one unique code, a code plus a common
+ * word, and a code prefix shared by ten services plus a word. Each touches a fixed number of
+ * candidates, so the cost should not grow with the catalog.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class ServiceSearchBenchmark {
+    private static final String[] CATEGORIES = {"IT", "Library", "Facilities", "Dining", "Housing", "Transport"};
+    private static final String[] WORDS = {"wifi", "printing", "repair", "booking", "laptop", "parking", "meal",
+            "locker", "scanner", "tutoring", "shuttle", "access"};
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private ServiceCatalog catalog;
+    private Random random;
+
+    @Setup(Level.Trial)
+    public void fillCatalog() {
+        catalog = new ServiceCatalog();
+        random = new Random(42);
+        for (int i = 0; i < size; i++) {
+            String word = WORDS[i % WORDS.length];
+            catalog.addService(new Service("Service " + code(i), "Campus " + word + " desk",
+                    CATEGORIES[i % CATEGORIES.length], true));
+        }
+    }
+
+    @Benchmark
+    public List<Service> singleWord() {
+        return catalog.search(code(random.nextInt(size)));
+    }
+
+    @Benchmark
+    public List<Service> twoWords() {
+        return catalog.search("desk " + code(random.nextInt(size)));
+    }
+
+    @Benchmark
+    public List<Service> prefix() {
+        String code = code(random.nextInt(size));
+        return catalog.search("wifi " + code.substring(0, code.length() - 1));
+    }
+
+    private static String code(int index) {
+        return String.format(Locale.ROOT, "SV%07d", index);
+    }
+}
@@ -0,0 +1,81 @@
+package com.ctwms.bench;
+
+import com.ctwms.manager.PersonnelManager;
+import com.ctwms.manager.ServiceCatalog;
+import com.ctwms.manager.TaskManager;
+import com.ctwms.model.Personnel;
+import com.ctwms.model.Task;
+import com.ctwms.model.TaskPriority;
+import com.ctwms.persistence.JournalStore;
+import com.ctwms.persistence.SyncPolicy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Compares startup time of a data directory holding {@code records} journal records, first by full
+ * replay and then after a snapshot has compacted the journal to an empty tail.
+ * <p>
+ * Usage: {@code java -cp target/classes com.ctwms.bench.SnapshotLoadTiming [records]}
+ */
+public final class SnapshotLoadTiming {
+    private static final TaskPriority[] PRIORITIES = TaskPriority.values();
+    private static final SyncPolicy NO_SYNC = new SyncPolicy(0, 0);
+
+    private SnapshotLoadTiming() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int records = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Path directory = Files.createTempDirectory("ctwms-snapshot");
+        try {
+            PersonnelManager personnel = new PersonnelManager();
+            TaskManager tasks = new TaskManager();
+            try (JournalStore store = JournalStore.open(directory, NO_SYNC, 0, personnel, new ServiceCatalog(), tasks)) {
+                for (int i = 0; i < records; i++) {
+                    if (i % 4 == 0) {
+                        personnel.addPersonnel(new Personnel("Person " + i, "Technician", "Operations",
+                                "person" + i + "@ctwms.example", "555-0100"), personnel.count());
+                    } else if (i % 4 == 3) {
+                        tasks.serveNextTask();
+                    } else {
+                        tasks.addTask(new Task("TASK-" + i, "Requestor " + (i % 100), "Benchmark task " + i,
+                                PRIORITIES[i % PRIORITIES.length]));
+                    }
+                }
+            }
+            time(directory, "full replay");
+            try (JournalStore store = open(directory)) {
+                long started = System.nanoTime();
+                store.snapshot();
+                long copied = System.nanoTime();
+                store.awaitSnapshot();
+                System.out.printf("snapshot: copy + rotate %d ms, background write %d ms, %d MiB%n",
+                        (copied - started) / 1_000_000, store.lastSnapshotMillis(), store.lastSnapshotBytes() >> 20);
+            }
+            time(directory, "snapshot load");
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private static void time(Path directory, String label) throws IOException {
+        for (int run = 1; run <= 3; run++) {
+            try (JournalStore store = open(directory)) {
+                System.out.printf("%s %d: %d from snapshot + %d replayed in %d ms%n", label, run,
+                        store.snapshotRecords(), store.replayedRecords(), store.loadMillis());
+            }
+        }
+    }
+
+    private static JournalStore open(Path directory) throws IOException {
+        return JournalStore.open(directory, NO_SYNC, 0, new PersonnelManager(), new ServiceCatalog(), new TaskManager());
+    }
+}
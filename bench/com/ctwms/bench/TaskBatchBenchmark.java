@@ -0,0 +1,80 @@
+package com.ctwms.bench;
+
+import com.ctwms.datastructures.ConcurrentTaskQueue;
+import com.ctwms.datastructures.PriorityTaskQueue;
+import com.ctwms.datastructures.TaskQueue;
+import com.ctwms.model.Task;
+import com.ctwms.model.TaskPriority;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk intake followed by batch serving: {@code batch} tasks are enqueued and then drained, either
+ * one call per task or with {@code addAll}/{@code drainTo}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class TaskBatchBenchmark {
+    private static final TaskPriority[] PRIORITIES = TaskPriority.values();
+
+    @Param({"100", "1000", "10000"})
+    private int batch;
+
+    @Param({"lanes", "concurrent"})
+    private String queueKind;
+
+    private List<Task> tasks;
+    private PriorityTaskQueue queue;
+
+    @Setup(Level.Trial)
+    public void createTasks() {
+        tasks = new ArrayList<>(batch);
+        for (int i = 0; i < batch; i++) {
+            tasks.add(new Task("TASK-" + i, "Requestor", "Benchmark task", PRIORITIES[i % PRIORITIES.length]));
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void createQueue() {
+        queue = queueKind.equals("concurrent") ? new ConcurrentTaskQueue() : new TaskQueue();
+    }
+
+    @Benchmark
+    public List<Task> oneByOne() {
+        for (Task task : tasks) {
+            queue.enqueue(task);
+        }
+        List<Task> served = new ArrayList<>(batch);
+        Task task;
+        while ((task = queue.dequeue()) != null) {
+            served.add(task);
+        }
+        return served;
+    }
+
+    @Benchmark
+    public List<Task> batched() {
+        queue.addAll(tasks);
+        List<Task> served = new ArrayList<>(batch);
+        queue.drainTo(served, batch);
+        return served;
+    }
+}
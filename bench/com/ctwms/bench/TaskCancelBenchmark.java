@@ -0,0 +1,66 @@
+package com.ctwms.bench;
+
+import com.ctwms.datastructures.TaskQueue;
+import com.ctwms.model.Task;
+import com.ctwms.model.TaskPriority;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cancel-heavy workload: a backlog of {@code size} tasks where each operation cancels a random
+ * queued task by id and enqueues a replacement, keeping the backlog size constant.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class TaskCancelBenchmark {
+    private static final TaskPriority[] PRIORITIES = TaskPriority.values();
+
+    @Param({"1000", "10000", "100000"})
+    private int size;
+
+    private TaskQueue queue;
+    private String[] liveIds;
+    private Random random;
+    private int sequence;
+
+    @Setup(Level.Trial)
+    public void fillBacklog() {
+        queue = new TaskQueue();
+        liveIds = new String[size];
+        random = new Random(42);
+        for (int i = 0; i < size; i++) {
+            liveIds[i] = enqueueNext();
+        }
+    }
+
+    @Benchmark
+    public Task cancelAndReplace() {
+        int slot = random.nextInt(size);
+        Task cancelled = queue.removeById(liveIds[slot]);
+        liveIds[slot] = enqueueNext();
+        return cancelled;
+    }
+
+    private String enqueueNext() {
+        String id = "TASK-" + sequence++;
+        queue.enqueue(new Task(id, "Requestor", "Benchmark task", PRIORITIES[sequence % PRIORITIES.length]));
+        return id;
+    }
+}
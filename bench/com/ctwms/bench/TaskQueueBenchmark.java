@@ -0,0 +1,70 @@
+package com.ctwms.bench;
+
+import com.ctwms.datastructures.TaskQueue;
+import com.ctwms.model.Task;
+import com.ctwms.model.TaskPriority;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Steady-state intake and service on a backlog of {@code size} tasks spread over the three lanes,
+ * plus a peek and a full pending-list copy for comparison.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class TaskQueueBenchmark {
+    private static final TaskPriority[] PRIORITIES = TaskPriority.values();
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+
+    private TaskQueue queue;
+    private int sequence;
+
+    @Setup(Level.Trial)
+    public void fillBacklog() {
+        queue = new TaskQueue();
+        for (int i = 0; i < size; i++) {
+            queue.enqueue(nextTask());
+        }
+    }
+
+    @Benchmark
+    public Task enqueueAndServe() {
+        queue.enqueue(nextTask());
+        return queue.dequeue();
+    }
+
+    @Benchmark
+    public Task peek() {
+        return queue.peek();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Task> listPending() {
+        return queue.toList();
+    }
+
+    private Task nextTask() {
+        int id = sequence++;
+        return new Task("TASK-" + id, "Requestor", "Benchmark task", PRIORITIES[id % PRIORITIES.length]);
+    }
+}
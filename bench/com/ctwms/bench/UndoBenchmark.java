@@ -0,0 +1,134 @@
+package com.ctwms.bench;
+
+import com.ctwms.datastructures.ActionStack;
+import com.ctwms.manager.PersonnelManager;
+import com.ctwms.manager.ServiceCatalog;
+import com.ctwms.manager.TaskManager;
+import com.ctwms.manager.UndoService;
+import com.ctwms.model.Action;
+import com.ctwms.model.ActionType;
+import com.ctwms.model.Personnel;
+import com.ctwms.model.Service;
+import com.ctwms.model.Task;
+import com.ctwms.model.TaskPriority;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Undo history at scale: {@code size} records in each manager and a full history of {@code size}
+ * actions. Measures raw stack push/pop, undo followed by redo for each kind of action, and a copy
+ * of the history as the console's undo screen takes it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Thread)
+public class UndoBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    private int size;
+
+    private ActionStack stack;
+    private Action filler;
+    private PersonnelManager personnelManager;
+    private ServiceCatalog serviceCatalog;
+    private TaskManager taskManager;
+    private UndoService undoService;
+    private Action addPersonnel;
+    private Action editService;
+    private Action serveTask;
+
+    @Setup(Level.Trial)
+    public void fillHistory() {
+        filler = Action.personnelAction(ActionType.ADD_PERSONNEL,
+                new Personnel("PER-0", "Person 0", "Staff", "Registrar", "p0@campus.edu"), -1, "filler");
+        stack = new ActionStack(size, Long.MAX_VALUE);
+        for (int i = 0; i < size - 1; i++) {
+            stack.push(filler);
+        }
+
+        personnelManager = new PersonnelManager();
+        serviceCatalog = new ServiceCatalog();
+        taskManager = new TaskManager();
+        List<Personnel> personnel = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            personnel.add(new Personnel("PER-" + i, "Person " + i, "Staff", "Registrar", "p" + i + "@campus.edu"));
+            serviceCatalog.addService(new Service("Service " + i, "Campus service " + i, "General", true));
+            taskManager.addTask(new Task("TASK-" + i, "Requestor", "Backlog task", TaskPriority.LOW));
+        }
+        personnelManager.appendAll(personnel);
+
+        Personnel added = new Personnel("PER-NEW", "New Person", "Staff", "Registrar", "new@campus.edu");
+        int middle = size / 2;
+        personnelManager.addPersonnel(added, middle);
+        addPersonnel = Action.personnelAction(ActionType.ADD_PERSONNEL, added, middle, "Added New Person");
+
+        Service before = serviceCatalog.findByName("Service " + middle);
+        Service after = before.clone();
+        after.setActive(false);
+        serviceCatalog.replaceService(before.getName(), after);
+        editService = Action.serviceAction(ActionType.EDIT_SERVICE, before, after, -1, "Edited service");
+
+        Task urgent = new Task("TASK-URGENT", "Requestor", "Urgent task", TaskPriority.HIGH);
+        taskManager.addTask(urgent);
+        taskManager.serveNextTask();
+        serveTask = Action.taskAction(ActionType.SERVE_TASK, urgent, "Served task");
+
+        undoService = new UndoService(size, Long.MAX_VALUE);
+        for (int i = 0; i < size - 1; i++) {
+            undoService.record(filler);
+        }
+    }
+
+    @Benchmark
+    public Action stackPushPop() {
+        stack.push(filler);
+        return stack.pop();
+    }
+
+    @Benchmark
+    public boolean undoRedoAddPersonnel() {
+        return undoRedo(addPersonnel);
+    }
+
+    @Benchmark
+    public boolean undoRedoEditService() {
+        return undoRedo(editService);
+    }
+
+    @Benchmark
+    public boolean undoRedoServeTask() {
+        return undoRedo(serveTask);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Action> history() {
+        return stack.asList();
+    }
+
+    /**
+     * Records {@code action} on top of a full history (evicting the oldest entry), undoes it and
+     * redoes it, which leaves the managers as they were.
+     */
+    private boolean undoRedo(Action action) {
+        undoService.record(action);
+        boolean undone = undoService.undoLast(personnelManager, taskManager, serviceCatalog);
+        return undone && undoService.redoLast(personnelManager, taskManager, serviceCatalog);
+    }
+}
@@ -1,5 +1,20 @@
 package com.ctwms;
 
+import com.ctwms.command.CommandProcessor;
+import com.ctwms.command.CommandServer;
+import com.ctwms.datastructures.AgingPolicy;
+import com.ctwms.datastructures.ConcurrentTaskQueue;
+import com.ctwms.datastructures.Cursor;
+import com.ctwms.datastructures.DelayedTaskQueue;
+import com.ctwms.datastructures.IndexedPersonnelTree;
+import com.ctwms.datastructures.MappedPersonnelStore;
+import com.ctwms.datastructures.PersonnelLinkedList;
+import com.ctwms.datastructures.PersonnelStore;
+import com.ctwms.datastructures.PriorityTaskQueue;
+import com.ctwms.datastructures.StrictPriorityPolicy;
+import com.ctwms.datastructures.TaskQueue;
+import com.ctwms.datastructures.TaskSchedulingPolicy;
+import com.ctwms.datastructures.WeightedRoundRobinPolicy;
 import com.ctwms.manager.PersonnelManager;
 import com.ctwms.manager.ServiceCatalog;
 import com.ctwms.manager.TaskManager;
@@ -7,33 +22,63 @@ import com.ctwms.manager.UndoService;
 import com.ctwms.model.Action;
 import com.ctwms.model.ActionType;
 import com.ctwms.model.Personnel;
+import com.ctwms.model.PersonnelSortKey;
 import com.ctwms.model.Service;
 import com.ctwms.model.Task;
 import com.ctwms.model.TaskPriority;
-
+import com.ctwms.persistence.CsvTransfer;
+import com.ctwms.persistence.JournalStore;
+import com.ctwms.persistence.SyncPolicy;
+import com.ctwms.persistence.WriteAheadLog;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Formatter;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Locale;
 import java.util.Scanner;
-import java.util.UUID;
 
 /**
  * Console entry point for the Campus Task Workflow Management System.
  */
 public class CTWMSApplication {
     private final Scanner scanner = new Scanner(System.in);
-    private final PersonnelManager personnelManager = new PersonnelManager();
+    private final PersonnelStore personnelStore = createPersonnelStore();
+    private final PersonnelManager personnelManager = new PersonnelManager(personnelStore,
+            !(personnelStore instanceof MappedPersonnelStore));
     private final ServiceCatalog serviceCatalog = new ServiceCatalog();
-    private final TaskManager taskManager = new TaskManager();
-    private final UndoService undoService = new UndoService();
+    private final TaskManager taskManager = new TaskManager(createTaskQueue());
+    private final UndoService undoService = new UndoService(
+            Integer.getInteger("ctwms.undo.maxEntries", DEFAULT_UNDO_ENTRIES),
+            Long.getLong("ctwms.undo.maxBytes", DEFAULT_UNDO_BYTES));
     private final List<Shortcut> shortcuts = new ArrayList<>();
 
+    private static final int DEFAULT_UNDO_ENTRIES = 1_000;
+    private static final long DEFAULT_UNDO_BYTES = 64L * 1024 * 1024;
+
     private static final int CONSOLE_WIDTH = 70;
     private static final String PRIMARY_DIVIDER = "=".repeat(CONSOLE_WIDTH);
     private static final String SECONDARY_DIVIDER = "-".repeat(CONSOLE_WIDTH);
     private static final DateTimeFormatter TASK_TIME_FORMATTER = DateTimeFormatter.ofPattern("MM-dd HH:mm");
     private static final int SHORTCUT_TRIGGERED = Integer.MIN_VALUE;
+    private static final int PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 500;
+    private static final int SCRIPT_BUFFER_CHARS = 64 * 1024;
 
     private static final String RESET = "\033[0m";
     private static final String BOLD = "\033[1m";
@@ -47,12 +92,47 @@ public class CTWMSApplication {
     private static final String FG_WHITE = "\033[97m";
 
     private int taskSequence = 1;
+    private int pageSize = Math.max(1, Math.min(MAX_PAGE_SIZE, Integer.getInteger("ctwms.page.size", PAGE_SIZE)));
+    private final StringBuilder screen = new StringBuilder(8 * 1024);
+    private final Formatter screenFormatter = new Formatter(screen);
+    private JournalStore journalStore;
+    private volatile CommandServer server;
+    private boolean shutdownHookRegistered;
 
     public CTWMSApplication() {
         registerShortcuts();
+        openJournal();
     }
 
+    /**
+     * Starts the interactive console, or with {@code --script <file>} (or {@code --script -} for
+     * standard input) runs the commands in the file headlessly and writes one JSON result per
+     * command to standard output, or to the file given with {@code --out <file>}. With
+     * {@code --serve <port>} the same commands are served to local TCP clients instead.
+     */
     public static void main(String[] args) {
+        String script = null;
+        String output = null;
+        Integer port = null;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--script") && i + 1 < args.length) {
+                script = args[++i];
+            } else if (args[i].equals("--out") && i + 1 < args.length) {
+                output = args[++i];
+            } else if (args[i].equals("--serve") && i + 1 < args.length && args[i + 1].matches("\\d{1,5}")) {
+                port = Integer.parseInt(args[++i]);
+            } else {
+                System.err.println("Unknown argument: " + args[i]);
+                System.err.println("Usage: CTWMSApplication [--script <file>|-] [--out <file>] | [--serve <port>]");
+                System.exit(2);
+            }
+        }
+        if (port != null) {
+            System.exit(new CTWMSApplication().runServer(port));
+        }
+        if (script != null) {
+            System.exit(new CTWMSApplication().runScript(script, output));
+        }
         new CTWMSApplication().run();
     }
 
@@ -84,10 +164,225 @@ public class CTWMSApplication {
                 default -> printWarning("Invalid option. Please try again.");
             }
         }
+        closeJournal();
         printBanner("Session Closed");
         printInfo("Thank you for using CTWMS. Goodbye!");
     }
 
+    /**
+     * Executes a command script without menus, prompts or styling. Returns the process exit code:
+     * 0 if every command succeeded, 1 if any failed, 2 if the script or output could not be used.
+     */
+    private int runScript(String script, String output) {
+        long started = System.nanoTime();
+        CommandProcessor processor = new CommandProcessor(personnelManager, serviceCatalog, taskManager,
+                undoService, journalStore, taskSequence);
+        try (BufferedReader in = new BufferedReader(script.equals("-")
+                ? new InputStreamReader(System.in, StandardCharsets.UTF_8)
+                : Files.newBufferedReader(Paths.get(script), StandardCharsets.UTF_8), SCRIPT_BUFFER_CHARS);
+             Writer out = new BufferedWriter(output == null
+                     ? new OutputStreamWriter(System.out, StandardCharsets.UTF_8)
+                     : Files.newBufferedWriter(Paths.get(output), StandardCharsets.UTF_8), SCRIPT_BUFFER_CHARS)) {
+            processor.run(in, out);
+        } catch (IOException e) {
+            System.err.println("Script failed: " + e.getMessage());
+            closeJournal();
+            return 2;
+        } finally {
+            taskSequence = processor.taskSequence();
+        }
+        closeJournal();
+        long millis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        System.err.printf("%d command(s), %d failed, in %d ms (%d/s)%n", processor.executedCount(),
+                processor.failedCount(), millis, processor.executedCount() * 1000 / millis);
+        return processor.failedCount() == 0 ? 0 : 1;
+    }
+
+    /**
+     * Serves the command protocol on the loopback interface until the process is stopped, then
+     * closes the server and the journal, in that order. Returns 2 if the port cannot be bound.
+     */
+    private int runServer(int port) {
+        CommandProcessor processor = new CommandProcessor(personnelManager, serviceCatalog, taskManager,
+                undoService, journalStore, taskSequence, true);
+        CommandServer server;
+        try {
+            server = new CommandServer(processor, port);
+        } catch (IOException e) {
+            System.err.println("Cannot listen on port " + port + ": " + e.getMessage());
+            closeJournal();
+            return 2;
+        }
+        this.server = server;
+        registerShutdownHook();
+        System.err.printf("Listening on 127.0.0.1:%d (%s threads); stop with Ctrl+C.%n", server.port(),
+                CommandServer.virtualThreadsAvailable() ? "virtual" : "platform");
+        try {
+            server.awaitClose();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return 0;
+    }
+
+    /**
+     * When the {@code ctwms.data.dir} system property is set, rebuilds state from the newest
+     * snapshot and journal tail in that directory and then records every further change to it.
+     * A snapshot is taken every {@code ctwms.snapshot.everyRecords} journal records (default
+     * 100000, {@code 0} for manual snapshots only). Without a data directory nothing is persisted.
+     */
+    private void openJournal() {
+        String dataDir = System.getProperty("ctwms.data.dir");
+        if (dataDir == null || dataDir.isBlank()) {
+            return;
+        }
+        try {
+            journalStore = JournalStore.open(Paths.get(dataDir), SyncPolicy.fromSystemProperties(),
+                    Long.getLong("ctwms.snapshot.everyRecords", 100_000L),
+                    personnelManager, serviceCatalog, taskManager);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to open the journal in " + dataDir, e);
+        }
+        taskSequence = journalStore.nextTaskNumber();
+        registerShutdownHook();
+    }
+
+    /**
+     * The JVM runs shutdown hooks concurrently, so everything that must happen in order on the
+     * way out goes in this one hook.
+     */
+    private void registerShutdownHook() {
+        if (shutdownHookRegistered) {
+            return;
+        }
+        shutdownHookRegistered = true;
+        Runtime.getRuntime().addShutdownHook(new Thread(this::shutDown, "ctwms-shutdown"));
+    }
+
+    /**
+     * Stops the server, if one is running, and waits for its connections to finish so that every
+     * change already acknowledged to a client reaches the journal before it is closed.
+     */
+    private void shutDown() {
+        CommandServer running = server;
+        if (running != null) {
+            try {
+                running.close();
+            } catch (IOException e) {
+                System.err.println("Server shutdown failed: " + e.getMessage());
+            }
+            System.err.printf("Served %d command(s) over %d connection(s).%n",
+                    running.commandCount(), running.connectionCount());
+        }
+        closeJournal();
+    }
+
+    private void closeJournal() {
+        if (journalStore == null) {
+            return;
+        }
+        try {
+            journalStore.close();
+        } catch (IOException e) {
+            System.err.println("Failed to close the journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Runs between commands, on the console thread, so the snapshot copy never sees a half-applied
+     * change.
+     */
+    private void snapshotIfDue() {
+        if (journalStore == null) {
+            return;
+        }
+        try {
+            journalStore.snapshotIfDue();
+        } catch (IOException e) {
+            printWarning("Snapshot failed: " + e.getMessage());
+        }
+    }
+
+    private void takeSnapshot() {
+        printBanner("Snapshot");
+        if (journalStore == null) {
+            printWarning("Persistence is off (set -Dctwms.data.dir to enable it).");
+            return;
+        }
+        try {
+            if (!journalStore.snapshot()) {
+                printWarning("A snapshot is already being written. Try again shortly.");
+                return;
+            }
+        } catch (IOException e) {
+            printWarning("Snapshot failed: " + e.getMessage());
+            return;
+        }
+        journalStore.awaitSnapshot();
+        if (journalStore.lastSnapshotError() != null) {
+            printWarning("Snapshot failed: " + journalStore.lastSnapshotError());
+        } else {
+            printSuccess(String.format("Snapshot written (%d KiB in %d ms); older journal segments removed.",
+                    journalStore.lastSnapshotBytes() / 1024, journalStore.lastSnapshotMillis()));
+        }
+    }
+
+    /**
+     * Picks the personnel backing store from the {@code ctwms.personnel.store} system property
+     * ({@code list} by default, {@code tree} for the order-statistic treap, or {@code mapped} for
+     * the off-heap store, whose scratch files go to {@code ctwms.personnel.mapDir} or a temporary
+     * directory).
+     */
+    private static PersonnelStore createPersonnelStore() {
+        String kind = System.getProperty("ctwms.personnel.store", "list");
+        if (kind.equalsIgnoreCase("tree")) {
+            return new IndexedPersonnelTree();
+        }
+        if (kind.equalsIgnoreCase("mapped")) {
+            String mapDir = System.getProperty("ctwms.personnel.mapDir");
+            return mapDir == null || mapDir.isBlank() ? new MappedPersonnelStore() : new MappedPersonnelStore(Paths.get(mapDir));
+        }
+        return new PersonnelLinkedList();
+    }
+
+    /**
+     * Picks the task queue from the {@code ctwms.tasks.queue} system property ({@code lanes} by
+     * default, or {@code concurrent} for the thread-safe striped-lock queue), behind the delayed
+     * stage that holds scheduled tasks until they are due.
+     */
+    private static PriorityTaskQueue createTaskQueue() {
+        String kind = System.getProperty("ctwms.tasks.queue", "lanes");
+        PriorityTaskQueue queue = kind.equalsIgnoreCase("concurrent") ? new ConcurrentTaskQueue() : new TaskQueue();
+        queue.setSchedulingPolicy(createSchedulingPolicy());
+        return new DelayedTaskQueue(queue);
+    }
+
+    /**
+     * Picks the lane scheduling policy from the {@code ctwms.tasks.policy} system property:
+     * {@code strict} (default), {@code wrr} for weighted round-robin over
+     * {@code ctwms.tasks.weights} (default {@code 4,2,1}), or {@code aging} which promotes a task
+     * one level per {@code ctwms.tasks.agingMinutes} minutes waited (default 30).
+     */
+    private static TaskSchedulingPolicy createSchedulingPolicy() {
+        String kind = System.getProperty("ctwms.tasks.policy", "strict");
+        if (kind.equalsIgnoreCase("wrr")) {
+            String[] parts = System.getProperty("ctwms.tasks.weights", "4,2,1").split(",");
+            int[] weights = {4, 2, 1};
+            for (int i = 0; i < Math.min(parts.length, weights.length); i++) {
+                try {
+                    weights[i] = Integer.parseInt(parts[i].trim());
+                } catch (NumberFormatException ignored) {
+                    // keep the default weight for this lane
+                }
+            }
+            return new WeightedRoundRobinPolicy(weights[0], weights[1], weights[2]);
+        }
+        if (kind.equalsIgnoreCase("aging")) {
+            return new AgingPolicy(Duration.ofMinutes(Long.getLong("ctwms.tasks.agingMinutes", 30L)));
+        }
+        return StrictPriorityPolicy.INSTANCE;
+    }
+
     private void printMainMenu() {
         printMenu("Campus Task Workflow Management System",
                 "1) Manage Campus Personnel (Linked List)",
@@ -113,8 +408,10 @@ public class CTWMSApplication {
                     "4) Sort Personnel Alphabetically",
                     "5) Display All Personnel",
                     "6) Show Total Personnel Count",
+                    "7) Import Personnel from CSV",
+                    "8) Export Personnel to CSV",
                     "0) Back to Main Menu");
-            int choice = readMenuChoice("Choose an option: ", 0, 6);
+            int choice = readMenuChoice("Choose an option: ", 0, 8);
             if (choice == SHORTCUT_TRIGGERED) {
                 continue;
             }
@@ -133,6 +430,8 @@ public class CTWMSApplication {
                 }
                 case 5 -> displayPersonnel();
                 case 6 -> printInfo(String.format("Total registered personnel: %d", personnelManager.count()));
+                case 7 -> importPersonnel();
+                case 8 -> exportPersonnel();
                 case 0 -> back = true;
                 default -> printWarning("Invalid choice. Try again.");
             }
@@ -143,7 +442,7 @@ public class CTWMSApplication {
         printSubHeading("Personnel Details");
         String id = readLine("ID (leave blank to auto-generate): ");
         if (id.isBlank()) {
-            id = "PER-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+            id = Personnel.generateId();
         }
         String name = readRequiredLine("Full Name (required): ");
         String role = readRequiredLine("Role/Position (required): ");
@@ -158,6 +457,46 @@ public class CTWMSApplication {
         printSuccess("Personnel added successfully.");
     }
 
+    /**
+     * Bulk-loads a CSV file (header: id,name,role,department,email) and records the whole import
+     * as one undoable action.
+     */
+    private void importPersonnel() {
+        printSubHeading("Import Personnel");
+        Path file = Paths.get(readRequiredLine("CSV file to import: "));
+        int start = personnelManager.count();
+        CsvTransfer.ImportResult<Personnel> result;
+        try {
+            result = CsvTransfer.importPersonnel(file, personnelManager);
+        } catch (IOException e) {
+            printWarning("Import failed: " + e.getMessage());
+            return;
+        }
+        if (!result.imported().isEmpty()) {
+            undoService.record(Action.personnelImportAction(result.imported(), start,
+                    String.format("Imported %d personnel from %s", result.imported().size(), file.getFileName())));
+        }
+        reportImport(result.imported().size(), result.rejected(), result.errors());
+    }
+
+    private void exportPersonnel() {
+        printSubHeading("Export Personnel");
+        Path file = Paths.get(readRequiredLine("CSV file to write: "));
+        try {
+            long written = CsvTransfer.exportPersonnel(personnelManager, file);
+            printSuccess(String.format("Exported %d personnel to %s.", written, file));
+        } catch (IOException e) {
+            printWarning("Export failed: " + e.getMessage());
+        }
+    }
+
+    private void reportImport(int imported, long rejected, List<String> errors) {
+        printSuccess(String.format("Imported %d record(s); %d row(s) skipped.", imported, rejected));
+        for (String error : errors) {
+            printWarning(error);
+        }
+    }
+
     private void removePersonnel() {
         if (personnelManager.count() == 0) {
             printWarning("No personnel to remove.");
@@ -190,34 +529,93 @@ public class CTWMSApplication {
             printWarning("Need at least two personnel records to sort.");
             return false;
         }
-        List<Personnel> beforeOrder = personnelManager.listAll();
-        personnelManager.sortByName();
-        undoService.record(Action.personnelOrderAction(beforeOrder, "Sorted personnel alphabetically."));
+        int[] originalPositions = personnelManager.sortByName();
+        undoService.record(Action.personnelOrderAction(originalPositions, "Sorted personnel alphabetically."));
         return true;
     }
 
     private void displayPersonnel() {
-        List<Personnel> personnel = personnelManager.listAll();
-        if (personnel.isEmpty()) {
+        int total = personnelManager.count();
+        if (total == 0) {
             printWarning("No personnel registered yet.");
             return;
         }
-        printSubHeading(String.format("Personnel Directory (%d)", personnel.size()));
-        System.out.println(style(BOLD + FG_WHITE,
-                String.format("%-4s %-22s %-18s %-16s %-25s",
-                        "#", "Name", "Role", "Department", "Email")));
-        System.out.println(style(FG_BLUE, SECONDARY_DIVIDER));
-        for (int i = 0; i < personnel.size(); i++) {
-            Personnel person = personnel.get(i);
-            System.out.printf("%-4d %-22s %-18s %-16s %-25s%n",
-                    i + 1,
-                    truncate(person.getName(), 22),
-                    truncate(person.getRole(), 18),
-                    truncate(person.getDepartment(), 16),
-                    truncate(person.getEmail(), 25));
+        PersonnelSortKey sortKey = PersonnelSortKey.fromInput(
+                readLine("Order by name, department, role or email (blank for directory order): "));
+        String orderLabel = sortKey != null ? "by " + sortKey.name().toLowerCase(Locale.ROOT) : "directory order";
+        pageThrough(String.format("Personnel Directory (%d) · %s", total, orderLabel), total,
+                String.format("%-4s %-22s %-18s %-16s %-25s", "#", "Name", "Role", "Department", "Email"),
+                (offset, limit) -> sortKey != null
+                        ? personnelManager.listPage(sortKey, offset, limit).iterator()
+                        : personnelManager.cursor().skip(offset).limit(limit),
+                (number, person) -> screenFormatter.format("%-4d %-22s %-18s %-16s %-25s%n",
+                        number,
+                        truncate(person.getName(), 22),
+                        truncate(person.getRole(), 18),
+                        truncate(person.getDepartment(), 16),
+                        truncate(person.getEmail(), 25)));
+    }
+
+    /**
+     * Shows {@code total} rows a page at a time. Each screen is composed in {@link #screen} and
+     * written with a single flush, and only the rows on the current page are fetched, so the first
+     * screen costs the same for ten records as for a million.
+     */
+    private <T> void pageThrough(String title, int total, String columns, PageSource<T> source, RowFormat<T> row) {
+        int page = 0;
+        while (true) {
+            int pages = Math.max(1, (total + pageSize - 1) / pageSize);
+            page = Math.min(page, pages - 1);
+            int offset = page * pageSize;
+            screen.setLength(0);
+            screen.append('\n').append(heading(String.format("%s · page %d/%d", title, page + 1, pages))).append('\n')
+                    .append(style(FG_BLUE, SECONDARY_DIVIDER)).append('\n')
+                    .append(style(BOLD + FG_WHITE, columns)).append('\n')
+                    .append(style(FG_BLUE, SECONDARY_DIVIDER)).append('\n');
+            int number = offset;
+            for (Iterator<T> items = source.page(offset, pageSize); items.hasNext(); ) {
+                row.append(++number, items.next());
+            }
+            screen.append(style(FG_BLUE, SECONDARY_DIVIDER)).append('\n');
+            System.out.print(screen);
+            System.out.flush();
+            if (pages == 1) {
+                waitForEnter();
+                return;
+            }
+            String navigation = readLine("[n]ext, [p]revious, page number, 's <rows>' for page size, or Enter to return: ");
+            if (navigation.equalsIgnoreCase("n")) {
+                page = Math.min(page + 1, pages - 1);
+            } else if (navigation.equalsIgnoreCase("p")) {
+                page = Math.max(page - 1, 0);
+            } else if (navigation.toLowerCase(Locale.ROOT).startsWith("s ")) {
+                Integer rows = parseCount(navigation.substring(2));
+                if (rows == null) {
+                    printWarning(String.format("Page size must be between 1 and %d.", MAX_PAGE_SIZE));
+                } else {
+                    pageSize = Math.min(rows, MAX_PAGE_SIZE);
+                    page = offset / pageSize;
+                }
+            } else if (!navigation.isEmpty() && Character.isDigit(navigation.charAt(0))) {
+                Integer target = parseCount(navigation);
+                if (target == null || target > pages) {
+                    printWarning(String.format("Choose a page between 1 and %d.", pages));
+                } else {
+                    page = target - 1;
+                }
+            } else {
+                return;
+            }
+        }
+    }
+
+    private Integer parseCount(String input) {
+        try {
+            int value = Integer.parseInt(input.trim());
+            return value > 0 ? value : null;
+        } catch (NumberFormatException e) {
+            return null;
         }
-        System.out.println(style(FG_BLUE, SECONDARY_DIVIDER));
-        waitForEnter();
     }
 
     private void manageServicesMenu() {
@@ -231,8 +629,11 @@ public class CTWMSApplication {
                     "4) Search Service",
                     "5) Sort Services Alphabetically",
                     "6) Display All Services",
+                    "7) Import Services from CSV",
+                    "8) Export Services to CSV",
+                    "9) Browse Services by Category",
                     "0) Back to Main Menu");
-            int choice = readMenuChoice("Choose an option: ", 0, 6);
+            int choice = readMenuChoice("Choose an option: ", 0, 9);
             switch (choice) {
                 case 1 -> addService();
                 case 2 -> editService();
@@ -242,7 +643,11 @@ public class CTWMSApplication {
                     serviceCatalog.sortAlphabetically();
                     printInfo("Services sorted alphabetically.");
                 }
-                case 6 -> displayServices(serviceCatalog.listAll());
+                case 6 -> displayServices("Service Catalog", serviceCatalog.count(),
+                        (offset, limit) -> serviceCatalog.cursor().skip(offset).limit(limit));
+                case 7 -> importServices();
+                case 8 -> exportServices();
+                case 9 -> browseServices();
                 case 0 -> back = true;
                 default -> printWarning("Invalid option. Try again.");
             }
@@ -262,6 +667,38 @@ public class CTWMSApplication {
         printSuccess("Service added to catalog.");
     }
 
+    /**
+     * Bulk-loads a CSV file (header: name,description,category[,active]) and records the whole
+     * import as one undoable action.
+     */
+    private void importServices() {
+        printSubHeading("Import Services");
+        Path file = Paths.get(readRequiredLine("CSV file to import: "));
+        CsvTransfer.ImportResult<Service> result;
+        try {
+            result = CsvTransfer.importServices(file, serviceCatalog);
+        } catch (IOException e) {
+            printWarning("Import failed: " + e.getMessage());
+            return;
+        }
+        if (!result.imported().isEmpty()) {
+            undoService.record(Action.serviceImportAction(result.imported(),
+                    String.format("Imported %d services from %s", result.imported().size(), file.getFileName())));
+        }
+        reportImport(result.imported().size(), result.rejected(), result.errors());
+    }
+
+    private void exportServices() {
+        printSubHeading("Export Services");
+        Path file = Paths.get(readRequiredLine("CSV file to write: "));
+        try {
+            long written = CsvTransfer.exportServices(serviceCatalog, file);
+            printSuccess(String.format("Exported %d services to %s.", written, file));
+        } catch (IOException e) {
+            printWarning("Export failed: " + e.getMessage());
+        }
+    }
+
     private void editService() {
         if (serviceCatalog.count() == 0) {
             printWarning("No services available to edit.");
@@ -274,25 +711,25 @@ public class CTWMSApplication {
             return;
         }
         Service before = existing.clone();
+        Service after = existing.clone();
         String newName = readLine("New name (blank to keep): ");
         if (!newName.isBlank()) {
-            existing.setName(newName);
+            after.setName(newName);
         }
         String newDesc = readLine("New description (blank to keep): ");
         if (!newDesc.isBlank()) {
-            existing.setDescription(newDesc);
+            after.setDescription(newDesc);
         }
         String newCategory = readLine("New category (blank to keep): ");
         if (!newCategory.isBlank()) {
-            existing.setCategory(newCategory);
+            after.setCategory(newCategory);
         }
         String statusInput = readLine("Toggle status? Enter 'active', 'inactive', or blank to keep: ");
         if (!statusInput.isBlank()) {
             boolean active = statusInput.equalsIgnoreCase("active");
-            existing.setActive(active);
+            after.setActive(active);
         }
-        Service after = existing.clone();
-        serviceCatalog.replaceService(after.getName(), after);
+        serviceCatalog.replaceService(before.getName(), after);
         undoService.record(Action.serviceAction(ActionType.EDIT_SERVICE, before, after, -1,
                 "Edited service " + before.getName()));
         printSuccess("Service updated.");
@@ -326,27 +763,56 @@ public class CTWMSApplication {
         }
     }
 
-    private void displayServices(List<Service> services) {
-        if (services.isEmpty()) {
+    /**
+     * Shows per-category counts, then lists one category (or all) filtered by status straight from
+     * the catalog's facet index.
+     */
+    private void browseServices() {
+        if (serviceCatalog.count() == 0) {
             printWarning("Service catalog is empty.");
             return;
         }
-        printSubHeading(String.format("Service Catalog (%d)", services.size()));
-        System.out.println(style(BOLD + FG_WHITE,
-                String.format("%-4s %-22s %-16s %-10s %-30s",
-                        "#", "Name", "Category", "Status", "Description")));
+        printSubHeading("Services by Category");
+        System.out.println(style(BOLD + FG_WHITE, String.format("%-22s %8s %8s", "Category", "Active", "Total")));
         System.out.println(style(FG_BLUE, SECONDARY_DIVIDER));
-        for (int i = 0; i < services.size(); i++) {
-            Service service = services.get(i);
-            System.out.printf("%-4d %-22s %-16s %-10s %-30s%n",
-                    i + 1,
-                    truncate(service.getName(), 22),
-                    truncate(service.getCategory(), 16),
-                    service.getStatusLabel(),
-                    truncate(service.getDescription(), 30));
+        for (Map.Entry<String, Integer> entry : serviceCatalog.categoryCounts().entrySet()) {
+            System.out.printf("%-22s %8d %8d%n", truncate(entry.getKey(), 22),
+                    serviceCatalog.count(entry.getKey(), true), entry.getValue());
         }
         System.out.println(style(FG_BLUE, SECONDARY_DIVIDER));
-        waitForEnter();
+        String category = readLine("Category to list (blank for all): ").trim();
+        String status = readLine("Status: 'active', 'inactive', or blank for both: ");
+        Boolean active = status.isBlank() ? null : status.trim().equalsIgnoreCase("active");
+        String filter = category.isEmpty() ? null : category;
+        int total = serviceCatalog.count(filter, active);
+        if (total == 0) {
+            printWarning("No services match those filters.");
+            waitForEnter();
+        } else {
+            displayServices("Matching Services", total,
+                    (offset, limit) -> serviceCatalog.cursor(filter, active).skip(offset).limit(limit));
+        }
+    }
+
+    private void displayServices(List<Service> services) {
+        displayServices("Matching Services", services.size(),
+                (offset, limit) -> Cursor.over(services).skip(offset).limit(limit));
+    }
+
+    private void displayServices(String title, int total, PageSource<Service> source) {
+        if (total == 0) {
+            printWarning("Service catalog is empty.");
+            return;
+        }
+        pageThrough(String.format("%s (%d)", title, total), total,
+                String.format("%-4s %-22s %-16s %-10s %-30s", "#", "Name", "Category", "Status", "Description"),
+                source,
+                (number, service) -> screenFormatter.format("%-4d %-22s %-16s %-10s %-30s%n",
+                        number,
+                        truncate(service.getName(), 22),
+                        truncate(service.getCategory(), 16),
+                        service.getStatusLabel(),
+                        truncate(service.getDescription(), 30)));
     }
 
     private void manageTasksMenu() {
@@ -358,8 +824,9 @@ public class CTWMSApplication {
                     "2) View Next Task",
                     "3) Serve Next Task",
                     "4) Display Pending Tasks",
+                    "5) Serve Batch of Tasks",
                     "0) Back to Main Menu");
-            int choice = readMenuChoice("Choose an option: ", 0, 4);
+            int choice = readMenuChoice("Choose an option: ", 0, 5);
             if (choice == SHORTCUT_TRIGGERED) {
                 continue;
             }
@@ -368,6 +835,7 @@ public class CTWMSApplication {
                 case 2 -> peekTask();
                 case 3 -> serveTask();
                 case 4 -> displayTasks();
+                case 5 -> serveTaskBatch();
                 case 0 -> back = true;
                 default -> printWarning("Invalid menu option.");
             }
@@ -379,11 +847,18 @@ public class CTWMSApplication {
         String requestor = readRequiredLine("Requestor Name (required): ");
         String description = readRequiredLine("Task Description (required): ");
         TaskPriority priority = readPriority("Priority (HIGH/MEDIUM/LOW): ");
-        String taskId = "TASK-" + taskSequence++;
-        Task task = new Task(taskId, requestor, description, priority);
+        int delayMinutes = readOptionalInt("Start after how many minutes? (blank = now): ", 0);
+        String taskId = Task.GENERATED_ID_PREFIX + taskSequence++;
+        LocalDateTime now = LocalDateTime.now();
+        Task task = new Task(taskId, requestor, description, priority, now,
+                delayMinutes > 0 ? now.plusMinutes(delayMinutes) : null);
         taskManager.addTask(task);
         undoService.record(Action.taskAction(ActionType.ADD_TASK, task, "Added task " + taskId));
-        printSuccess("Task enqueued with ID " + taskId);
+        if (task.getNotBefore() != null) {
+            printSuccess("Task scheduled with ID " + taskId + " for " + task.getNotBefore().format(TASK_TIME_FORMATTER));
+        } else {
+            printSuccess("Task enqueued with ID " + taskId);
+        }
     }
 
     private void peekTask() {
@@ -405,27 +880,43 @@ public class CTWMSApplication {
         }
     }
 
+    private void serveTaskBatch() {
+        if (taskManager.isEmpty()) {
+            printWarning("No tasks to serve.");
+            return;
+        }
+        int requested = readOptionalInt("How many tasks to serve? (blank = 10): ", 10);
+        List<Task> served = new ArrayList<>(Math.min(requested, taskManager.count()));
+        int count = taskManager.drainTo(served, requested);
+        if (count == 0) {
+            printWarning("No tasks served.");
+            return;
+        }
+        for (Task task : served) {
+            printInfo("Serving task: " + task);
+        }
+        undoService.record(Action.taskBatchAction(ActionType.BATCH_SERVE_TASKS, served,
+                "Served " + count + " tasks"));
+        printSuccess("Served " + count + " task(s).");
+    }
+
     private void displayTasks() {
-        List<Task> tasks = taskManager.listPendingTasks();
-        if (tasks.isEmpty()) {
+        int total = taskManager.count();
+        if (total == 0) {
             printWarning("Task queue is empty.");
             return;
         }
-        printSubHeading(String.format("Pending Tasks (%d)", tasks.size()));
-        System.out.println(style(BOLD + FG_WHITE,
-                String.format("%-8s %-15s %-30s %-8s %-16s",
-                        "ID", "Requestor", "Description", "Priority", "Created")));
-        System.out.println(style(FG_BLUE, SECONDARY_DIVIDER));
-        for (Task task : tasks) {
-            System.out.printf("%-8s %-15s %-30s %-8s %-16s%n",
-                    task.getTaskId(),
-                    truncate(task.getRequestor(), 15),
-                    truncate(task.getDescription(), 30),
-                    task.getPriority(),
-                    task.getCreatedAt().format(TASK_TIME_FORMATTER));
-        }
-        System.out.println(style(FG_BLUE, SECONDARY_DIVIDER));
-        waitForEnter();
+        pageThrough(String.format("Pending Tasks (%d)", total), total,
+                String.format("%-8s %-15s %-30s %-8s %-12s %-12s",
+                        "ID", "Requestor", "Description", "Priority", "Created", "Not Before"),
+                (offset, limit) -> taskManager.pendingCursor().skip(offset).limit(limit),
+                (number, task) -> screenFormatter.format("%-8s %-15s %-30s %-8s %-12s %-12s%n",
+                        task.getTaskId(),
+                        truncate(task.getRequestor(), 15),
+                        truncate(task.getDescription(), 30),
+                        task.getPriority(),
+                        task.getCreatedAt().format(TASK_TIME_FORMATTER),
+                        task.getNotBefore() != null ? task.getNotBefore().format(TASK_TIME_FORMATTER) : "-"));
     }
 
     private void undoMenu() {
@@ -434,19 +925,21 @@ public class CTWMSApplication {
             clearScreen();
             printMenu("Undo System",
                     "1) Undo Last Action",
-                    "2) Show Undo History",
-                    "3) Clear Undo History",
+                    "2) Redo Last Undone Action",
+                    "3) Show Undo History",
+                    "4) Clear Undo History",
                     "0) Back to Main Menu");
-            int choice = readMenuChoice("Choose an option: ", 0, 3);
+            int choice = readMenuChoice("Choose an option: ", 0, 4);
             if (choice == SHORTCUT_TRIGGERED) {
                 continue;
             }
             switch (choice) {
                 case 1 -> undoLastAction();
-                case 2 -> showUndoHistory();
-                case 3 -> {
+                case 2 -> redoLastAction();
+                case 3 -> showUndoHistory();
+                case 4 -> {
                     undoService.clear();
-                    printInfo("Undo history cleared.");
+                    printInfo("Undo and redo history cleared.");
                 }
                 case 0 -> back = true;
                 default -> printWarning("Invalid choice.");
@@ -463,33 +956,63 @@ public class CTWMSApplication {
         }
     }
 
+    private void redoLastAction() {
+        boolean success = undoService.redoLast(personnelManager, taskManager, serviceCatalog);
+        if (success) {
+            printSuccess("Last undone action reapplied.");
+        } else {
+            printWarning("No actions available to redo.");
+        }
+    }
+
     private void showUndoHistory() {
-        List<Action> history = undoService.history();
-        if (history.isEmpty()) {
+        int depth = undoService.size();
+        if (depth == 0) {
             printWarning("Undo stack is empty.");
             return;
         }
-        printSubHeading(String.format("Undo History (most recent first) [%d]", history.size()));
-        for (int i = 0; i < history.size(); i++) {
-            System.out.printf(" %s %s%n", highlightNumber((i + 1) + "."), history.get(i));
-        }
-        waitForEnter();
+        pageThrough(String.format("Undo History (most recent first) [%d]", depth), depth, "#   Action",
+                (offset, limit) -> undoService.historyCursor().skip(offset).limit(limit),
+                (number, action) -> screenFormatter.format(" %s %s%n", highlightNumber(number + "."), action));
     }
 
     private void showSummary() {
         printBanner("System Summary");
         printMetric("Personnel count", String.valueOf(personnelManager.count()));
-        printMetric("Service catalog size", String.valueOf(serviceCatalog.count()));
+        printMetric("Service catalog size", String.format("%d (%d active, %d categories)", serviceCatalog.count(),
+                serviceCatalog.count(null, Boolean.TRUE), serviceCatalog.categoryCount()));
         printMetric("Pending tasks", String.valueOf(taskManager.count()));
+        printMetric("Scheduled for later", String.valueOf(taskManager.scheduledCount()));
         Task nextTask = taskManager.peekNextTask();
         if (nextTask != null) {
             printInfo("Next task in queue: " + nextTask);
         } else {
             printWarning("No pending tasks at the moment.");
         }
-        List<Action> history = undoService.history();
-        if (!history.isEmpty()) {
-            printInfo("Last undoable action: " + history.get(0));
+        printMetric("Undo depth", String.format("%d / %d", undoService.size(), undoService.maxEntries()));
+        printMetric("Redo depth", String.valueOf(undoService.redoSize()));
+        printMetric("Undo history size", String.format("%d KiB / %d KiB",
+                undoService.estimatedBytes() / 1024, undoService.maxBytes() / 1024));
+        printMetric("Undo entries evicted", String.valueOf(undoService.evictionCount()));
+        if (journalStore != null) {
+            WriteAheadLog journal = journalStore.journal();
+            printMetric("Data directory", journalStore.directory().toString());
+            printMetric("Startup load", String.format("%d from snapshot + %d replayed in %d ms",
+                    journalStore.snapshotRecords(), journalStore.replayedRecords(), journalStore.loadMillis()));
+            printMetric("Journal records", String.format("%d written, %d syncs (%s)",
+                    journal.appendedRecords(), journal.syncCount(), journal.policy()));
+            printMetric("Snapshots", String.format("%d written, last %d KiB in %d ms, %d records since",
+                    journalStore.snapshotsWritten(), journalStore.lastSnapshotBytes() / 1024,
+                    journalStore.lastSnapshotMillis(), journalStore.recordsSinceSnapshot()));
+            if (journalStore.lastSnapshotError() != null) {
+                printWarning("Last snapshot failed: " + journalStore.lastSnapshotError());
+            }
+        } else {
+            printMetric("Journal", "off (set -Dctwms.data.dir to persist)");
+        }
+        Action lastAction = undoService.historyCursor().nextOrNull();
+        if (lastAction != null) {
+            printInfo("Last undoable action: " + lastAction);
         } else {
             printWarning("Undo stack is currently empty.");
         }
@@ -528,6 +1051,7 @@ public class CTWMSApplication {
     }
 
     private String readMenuInput(String prompt) {
+        snapshotIfDue();
         System.out.print(style(FG_WHITE, prompt));
         String input = scanner.nextLine().trim();
         if (input.isEmpty()) {
@@ -558,7 +1082,7 @@ public class CTWMSApplication {
     private String readRequiredEmail(String prompt) {
         while (true) {
             String email = readRequiredLine(prompt);
-            if (!email.contains("@") || email.startsWith("@") || email.endsWith("@")) {
+            if (!Personnel.isValidEmail(email)) {
                 printWarning("Please provide a valid email address.");
                 continue;
             }
@@ -672,18 +1196,26 @@ public class CTWMSApplication {
 
     private void registerShortcuts() {
         shortcuts.add(new Shortcut(":undo", "Undo last action", this::undoLastAction, true, true));
+        shortcuts.add(new Shortcut(":redo", "Redo last undone action", this::redoLastAction, true, true));
         shortcuts.add(new Shortcut(":add-personnel", "Add personnel", this::addPersonnel, true, true));
         shortcuts.add(new Shortcut(":remove-personnel", "Remove personnel by name", this::removePersonnel, true, true));
         shortcuts.add(new Shortcut(":search-personnel", "Search personnel", this::searchPersonnel, true, false));
         shortcuts.add(new Shortcut(":list-personnel", "Display personnel directory", this::displayPersonnel, true, false));
+        shortcuts.add(new Shortcut(":import-personnel", "Import personnel from CSV", this::importPersonnel, true, true));
+        shortcuts.add(new Shortcut(":export-personnel", "Export personnel to CSV", this::exportPersonnel, true, true));
         shortcuts.add(new Shortcut(":add-service", "Add service", this::addService, true, true));
         shortcuts.add(new Shortcut(":remove-service", "Remove service", this::removeService, true, true));
         shortcuts.add(new Shortcut(":search-service", "Search services", this::searchService, true, false));
+        shortcuts.add(new Shortcut(":browse-services", "Browse services by category and status", this::browseServices, true, false));
+        shortcuts.add(new Shortcut(":import-services", "Import services from CSV", this::importServices, true, true));
+        shortcuts.add(new Shortcut(":export-services", "Export services to CSV", this::exportServices, true, true));
         shortcuts.add(new Shortcut(":add-task", "Add task request", this::addTask, true, true));
         shortcuts.add(new Shortcut(":serve-task", "Serve next task", this::serveTask, true, true));
+        shortcuts.add(new Shortcut(":serve-batch", "Serve a batch of tasks", this::serveTaskBatch, true, true));
         shortcuts.add(new Shortcut(":list-tasks", "Display pending tasks", this::displayTasks, true, false));
         shortcuts.add(new Shortcut(":undo-history", "Show undo history", this::showUndoHistory, true, false));
         shortcuts.add(new Shortcut(":summary", "View system summary", this::showSummary, true, false));
+        shortcuts.add(new Shortcut(":snapshot", "Write a snapshot and compact the journal", this::takeSnapshot, true, true));
         shortcuts.add(new Shortcut(":shortcuts", "Keyboard shortcuts reference", this::showShortcutReference, false, false));
     }
 
@@ -792,6 +1324,20 @@ public class CTWMSApplication {
         return left + text + right;
     }
 
+    /**
+     * Reads only the rows of one page.
+     */
+    private interface PageSource<T> {
+        Iterator<T> page(int offset, int limit);
+    }
+
+    /**
+     * Appends one row, numbered from 1, to {@link #screen}.
+     */
+    private interface RowFormat<T> {
+        void append(int number, T item);
+    }
+
     private record Shortcut(String command, String description, Runnable action, boolean clearBefore, boolean pauseAfter) {
     }
 }
@@ -0,0 +1,160 @@
+package com.ctwms.command;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * One parsed script line: a command name and its {@code key=value} arguments.
+ * <p>
+ * The leading {@code :} of the console shortcuts is optional. Values containing spaces are written
+ * in double quotes, where {@code \"} and {@code \\} escape a quote and a backslash:
+ * {@code :add-service name="Wi-Fi Help" description="Eduroam setup" category=IT}.
+ */
+final class CommandLine {
+    private final String name;
+    private final Map<String, String> arguments;
+
+    private CommandLine(String name, Map<String, String> arguments) {
+        this.name = name;
+        this.arguments = arguments;
+    }
+
+    /**
+     * Parses {@code line}; returns {@code null} for a blank line or a {@code #} comment.
+     *
+     * @throws IllegalArgumentException if an argument is not {@code key=value} or a quote is left open
+     */
+    static CommandLine parse(String line) {
+        int length = line.length();
+        int position = skipSpaces(line, 0);
+        if (position == length || line.charAt(position) == '#') {
+            return null;
+        }
+        String name = nameOf(line, position);
+        position = skipName(line, position);
+        Map<String, String> arguments = new HashMap<>();
+        StringBuilder value = new StringBuilder();
+        while ((position = skipSpaces(line, position)) < length) {
+            int keyStart = position;
+            while (position < length && line.charAt(position) != '=' && !Character.isWhitespace(line.charAt(position))) {
+                position++;
+            }
+            if (position == length || line.charAt(position) != '=') {
+                throw new IllegalArgumentException("expected key=value but found '"
+                        + line.substring(keyStart, position) + "'");
+            }
+            String key = line.substring(keyStart, position).toLowerCase(Locale.ROOT);
+            position++;
+            value.setLength(0);
+            if (position < length && line.charAt(position) == '"') {
+                position++;
+                boolean closed = false;
+                while (position < length) {
+                    char c = line.charAt(position++);
+                    if (c == '"') {
+                        closed = true;
+                        break;
+                    }
+                    if (c == '\\' && position < length) {
+                        c = line.charAt(position++);
+                    }
+                    value.append(c);
+                }
+                if (!closed) {
+                    throw new IllegalArgumentException("unterminated quote in value of '" + key + "'");
+                }
+            } else {
+                int valueStart = position;
+                while (position < length && !Character.isWhitespace(line.charAt(position))) {
+                    position++;
+                }
+                value.append(line, valueStart, position);
+            }
+            arguments.put(key, value.toString());
+        }
+        return new CommandLine(name, arguments);
+    }
+
+    /**
+     * Returns the command name of a non-blank line without parsing its arguments, for reporting
+     * lines that fail to parse.
+     */
+    static String nameOf(String line) {
+        int position = skipSpaces(line, 0);
+        return position < line.length() ? nameOf(line, position) : null;
+    }
+
+    String name() {
+        return name;
+    }
+
+    /**
+     * Returns the trimmed value of {@code key}, or {@code null} if it was not given or is blank.
+     */
+    String optional(String key) {
+        String value = arguments.get(key);
+        if (value == null) {
+            return null;
+        }
+        value = value.trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    String required(String key) {
+        String value = optional(key);
+        if (value == null) {
+            throw new IllegalArgumentException("missing argument '" + key + "'");
+        }
+        return value;
+    }
+
+    int integer(String key, int defaultValue) {
+        String value = optional(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("'" + key + "' must be a whole number");
+        }
+    }
+
+    /**
+     * Reads yes/no, true/false, y/n, 1/0 or active/inactive; returns {@code null} when absent.
+     */
+    Boolean flag(String key) {
+        String value = optional(key);
+        if (value == null) {
+            return null;
+        }
+        switch (value.toLowerCase(Locale.ROOT)) {
+            case "true", "yes", "y", "1", "active":
+                return Boolean.TRUE;
+            case "false", "no", "n", "0", "inactive":
+                return Boolean.FALSE;
+            default:
+                throw new IllegalArgumentException("'" + key + "' must be yes or no");
+        }
+    }
+
+    private static String nameOf(String line, int position) {
+        int start = line.charAt(position) == ':' ? position + 1 : position;
+        return line.substring(start, skipName(line, position)).toLowerCase(Locale.ROOT);
+    }
+
+    private static int skipName(String line, int position) {
+        while (position < line.length() && !Character.isWhitespace(line.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+
+    private static int skipSpaces(String line, int position) {
+        while (position < line.length() && Character.isWhitespace(line.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+}
@@ -0,0 +1,546 @@
+package com.ctwms.command;
+
+import com.ctwms.datastructures.Cursor;
+import com.ctwms.manager.PersonnelManager;
+import com.ctwms.manager.ServiceCatalog;
+import com.ctwms.manager.TaskManager;
+import com.ctwms.manager.UndoService;
+import com.ctwms.model.Action;
+import com.ctwms.model.ActionType;
+import com.ctwms.model.Personnel;
+import com.ctwms.model.PersonnelSortKey;
+import com.ctwms.model.Service;
+import com.ctwms.model.Task;
+import com.ctwms.model.TaskPriority;
+import com.ctwms.persistence.CsvTransfer;
+import com.ctwms.persistence.JournalStore;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Runs the console's {@code :command} shortcuts without prompts, taking every input as a
+ * {@code key=value} argument (see {@link CommandLine}) and answering each command with exactly one
+ * line of JSON: {@code {"ok":true,"command":"add-task","id":"TASK-7"}} or
+ * {@code {"ok":false,"command":"add-task","error":"missing argument 'requestor'"}}.
+ * <p>
+ * Changes are recorded for undo exactly as the console records them, so a script can be undone
+ * step by step afterwards. Not thread-safe; callers serialize access.
+ * <p>
+ * A processor built for remote clients refuses the commands that touch the server's file system
+ * or administer it as a whole (the CSV imports and exports, {@code :clear-undo} and
+ * {@code :snapshot}), since anyone who can reach the port could otherwise read or overwrite any
+ * file the server can.
+ */
+public final class CommandProcessor {
+    private static final int DEFAULT_LIST_LIMIT = 100;
+    private static final int FLUSH_CHARS = 64 * 1024;
+    private static final String[] COMMANDS = {
+            ":add-personnel name= role= department= email= [id=] [position=]",
+            ":remove-personnel name=",
+            ":search-personnel name=",
+            ":list-personnel [by=name|department|role|email] [offset=] [limit=]",
+            ":sort-personnel",
+            ":import-personnel file=",
+            ":export-personnel file=",
+            ":add-service name= description= category= [active=yes|no]",
+            ":edit-service name= [new-name=] [description=] [category=] [active=]",
+            ":remove-service name=",
+            ":search-service query=",
+            ":browse-services [category=] [active=] [offset=] [limit=]",
+            ":service-categories",
+            ":import-services file=",
+            ":export-services file=",
+            ":add-task requestor= description= [priority=HIGH|MEDIUM|LOW] [delay=<minutes>]",
+            ":peek-task",
+            ":serve-task",
+            ":serve-batch [count=]",
+            ":list-tasks [offset=] [limit=]",
+            ":undo",
+            ":redo",
+            ":undo-history [limit=]",
+            ":clear-undo",
+            ":summary",
+            ":snapshot",
+            ":help"
+    };
+    private static final Set<String> LOCAL_ONLY_COMMANDS = Set.of("import-personnel", "export-personnel",
+            "import-services", "export-services", "clear-undo", "snapshot");
+
+    private final PersonnelManager personnelManager;
+    private final ServiceCatalog serviceCatalog;
+    private final TaskManager taskManager;
+    private final UndoService undoService;
+    private final JournalStore journalStore;
+    private final boolean remote;
+    private int taskSequence;
+    private long executed;
+    private long failed;
+
+    /**
+     * @param journalStore   store to snapshot when due and on {@code :snapshot}, or {@code null}
+     * @param nextTaskNumber number for the next generated {@code TASK-n} id
+     */
+    public CommandProcessor(PersonnelManager personnelManager, ServiceCatalog serviceCatalog,
+                            TaskManager taskManager, UndoService undoService, JournalStore journalStore,
+                            int nextTaskNumber) {
+        this(personnelManager, serviceCatalog, taskManager, undoService, journalStore, nextTaskNumber, false);
+    }
+
+    /**
+     * @param remote {@code true} to refuse the file and administration commands
+     */
+    public CommandProcessor(PersonnelManager personnelManager, ServiceCatalog serviceCatalog,
+                            TaskManager taskManager, UndoService undoService, JournalStore journalStore,
+                            int nextTaskNumber, boolean remote) {
+        this.personnelManager = personnelManager;
+        this.serviceCatalog = serviceCatalog;
+        this.taskManager = taskManager;
+        this.undoService = undoService;
+        this.journalStore = journalStore;
+        this.taskSequence = nextTaskNumber;
+        this.remote = remote;
+    }
+
+    /**
+     * Executes one line and appends its JSON result and a newline to {@code out}. Blank lines and
+     * {@code #} comments produce no output and return {@code false}.
+     */
+    public boolean execute(String line, StringBuilder out) {
+        int mark = out.length();
+        String name = null;
+        try {
+            CommandLine command = CommandLine.parse(line);
+            if (command == null) {
+                return false;
+            }
+            name = command.name();
+            JsonLine json = new JsonLine(out).beginObject().field("ok", true).field("command", name);
+            dispatch(command, json);
+            String snapshotError = snapshotIfDue();
+            if (snapshotError != null) {
+                json.field("snapshotError", snapshotError);
+            }
+            json.endObject();
+        } catch (IOException | RuntimeException e) {
+            out.setLength(mark);
+            failed++;
+            new JsonLine(out).beginObject()
+                    .field("ok", false)
+                    .field("command", name != null ? name : CommandLine.nameOf(line))
+                    .field("error", e.getMessage() != null ? e.getMessage() : e.toString())
+                    .endObject();
+        }
+        out.append('\n');
+        executed++;
+        return true;
+    }
+
+    /**
+     * Executes every line of {@code in} until it ends, writing the results to {@code out}. Results
+     * are handed to the writer in large blocks and flushed whenever no further input is already
+     * waiting, so piped scripts run at full speed while a caller that sends one command at a time
+     * still gets each answer straight away. Returns the number of commands executed.
+     */
+    public long run(BufferedReader in, Writer out) throws IOException {
+        StringBuilder pending = new StringBuilder(FLUSH_CHARS * 2);
+        char[] chunk = new char[FLUSH_CHARS * 2];
+        long before = executed;
+        String line;
+        while ((line = in.readLine()) != null) {
+            execute(line, pending);
+            boolean idle = !in.ready();
+            if (idle || pending.length() >= FLUSH_CHARS) {
+                chunk = drain(pending, out, chunk);
+                if (idle) {
+                    out.flush();
+                }
+            }
+        }
+        drain(pending, out, chunk);
+        out.flush();
+        return executed - before;
+    }
+
+    /**
+     * Whether the file and administration commands are refused.
+     */
+    public boolean isRemote() {
+        return remote;
+    }
+
+    public long executedCount() {
+        return executed;
+    }
+
+    public long failedCount() {
+        return failed;
+    }
+
+    /**
+     * Number the next generated task id will use.
+     */
+    public int taskSequence() {
+        return taskSequence;
+    }
+
+    private void dispatch(CommandLine command, JsonLine json) throws IOException {
+        if (remote && LOCAL_ONLY_COMMANDS.contains(command.name())) {
+            throw new IllegalStateException("'" + command.name() + "' is not available to remote clients");
+        }
+        switch (command.name()) {
+            case "add-personnel" -> addPersonnel(command, json);
+            case "remove-personnel" -> removePersonnel(command);
+            case "search-personnel" -> searchPersonnel(command, json);
+            case "list-personnel" -> listPersonnel(command, json);
+            case "sort-personnel" -> sortPersonnel();
+            case "import-personnel" -> importPersonnel(command, json);
+            case "export-personnel" -> json.field("exported",
+                    CsvTransfer.exportPersonnel(personnelManager, file(command)));
+            case "add-service" -> addService(command);
+            case "edit-service" -> editService(command);
+            case "remove-service" -> removeService(command);
+            case "search-service" -> services(json, serviceCatalog.search(command.required("query")));
+            case "browse-services" -> browseServices(command, json);
+            case "service-categories" -> serviceCategories(json);
+            case "import-services" -> importServices(command, json);
+            case "export-services" -> json.field("exported",
+                    CsvTransfer.exportServices(serviceCatalog, file(command)));
+            case "add-task" -> addTask(command, json);
+            case "peek-task" -> task(json, taskManager.peekNextTask());
+            case "serve-task" -> serveTask(json);
+            case "serve-batch" -> serveBatch(command, json);
+            case "list-tasks" -> listTasks(command, json);
+            case "undo" -> require(undoService.undoLast(personnelManager, taskManager, serviceCatalog),
+                    "no actions available to undo");
+            case "redo" -> require(undoService.redoLast(personnelManager, taskManager, serviceCatalog),
+                    "no actions available to redo");
+            case "undo-history" -> undoHistory(command, json);
+            case "clear-undo" -> undoService.clear();
+            case "summary" -> summary(json);
+            case "snapshot" -> snapshot(json);
+            case "help", "shortcuts" -> help(json);
+            default -> throw new IllegalArgumentException("unknown command '" + command.name() + "' (try :help)");
+        }
+    }
+
+    private void addPersonnel(CommandLine command, JsonLine json) {
+        String id = command.optional("id");
+        if (id == null) {
+            id = Personnel.generateId();
+        }
+        String name = command.required("name");
+        String role = command.required("role");
+        String department = command.required("department");
+        String email = command.required("email");
+        if (!Personnel.isValidEmail(email)) {
+            throw new IllegalArgumentException("invalid email '" + email + "'");
+        }
+        int position = command.integer("position", personnelManager.count());
+        Personnel personnel = new Personnel(id, name, role, department, email);
+        personnelManager.addPersonnel(personnel, position);
+        undoService.record(Action.personnelAction(ActionType.ADD_PERSONNEL, personnel,
+                position, "Added personnel " + name));
+        json.field("id", id);
+    }
+
+    private void removePersonnel(CommandLine command) {
+        String name = command.required("name");
+        var result = personnelManager.removeByName(name);
+        require(result.isRemoved(), "personnel not found: " + name);
+        undoService.record(Action.personnelAction(ActionType.REMOVE_PERSONNEL,
+                result.getRemovedPersonnel(), result.getIndex(), "Removed personnel " + name));
+    }
+
+    private void searchPersonnel(CommandLine command, JsonLine json) {
+        Personnel found = personnelManager.findByName(command.required("name"));
+        json.beginArray("results");
+        if (found != null) {
+            json.personnel(found);
+        }
+        json.endArray();
+    }
+
+    private void listPersonnel(CommandLine command, JsonLine json) {
+        String by = command.optional("by");
+        PersonnelSortKey key = by != null ? PersonnelSortKey.fromInput(by) : null;
+        if (by != null && key == null) {
+            throw new IllegalArgumentException("'by' must be name, department, role or email");
+        }
+        List<Personnel> page = personnelManager.listPage(key, offset(command), limit(command));
+        json.field("total", personnelManager.count()).beginArray("results");
+        for (Personnel personnel : page) {
+            json.personnel(personnel);
+        }
+        json.endArray();
+    }
+
+    private void sortPersonnel() {
+        require(personnelManager.count() >= 2, "need at least two personnel records to sort");
+        int[] originalPositions = personnelManager.sortByName();
+        undoService.record(Action.personnelOrderAction(originalPositions, "Sorted personnel alphabetically."));
+    }
+
+    private void importPersonnel(CommandLine command, JsonLine json) throws IOException {
+        Path file = file(command);
+        int start = personnelManager.count();
+        CsvTransfer.ImportResult<Personnel> result = CsvTransfer.importPersonnel(file, personnelManager);
+        if (!result.imported().isEmpty()) {
+            undoService.record(Action.personnelImportAction(result.imported(), start,
+                    String.format("Imported %d personnel from %s", result.imported().size(), file.getFileName())));
+        }
+        importResult(json, result);
+    }
+
+    private void addService(CommandLine command) {
+        String name = command.required("name");
+        String description = command.required("description");
+        String category = command.required("category");
+        Boolean active = command.flag("active");
+        Service service = new Service(name, description, category, active == null || active);
+        serviceCatalog.addService(service);
+        undoService.record(Action.serviceAction(ActionType.ADD_SERVICE, null, service,
+                serviceCatalog.count() - 1, "Added service " + name));
+    }
+
+    private void editService(CommandLine command) {
+        String name = command.required("name");
+        Service existing = serviceCatalog.findByName(name);
+        require(existing != null, "service not found: " + name);
+        Service before = existing.clone();
+        Service after = existing.clone();
+        String newName = command.optional("new-name");
+        if (newName != null) {
+            after.setName(newName);
+        }
+        String description = command.optional("description");
+        if (description != null) {
+            after.setDescription(description);
+        }
+        String category = command.optional("category");
+        if (category != null) {
+            after.setCategory(category);
+        }
+        Boolean active = command.flag("active");
+        if (active != null) {
+            after.setActive(active);
+        }
+        serviceCatalog.replaceService(before.getName(), after);
+        undoService.record(Action.serviceAction(ActionType.EDIT_SERVICE, before, after, -1,
+                "Edited service " + before.getName()));
+    }
+
+    private void removeService(CommandLine command) {
+        String name = command.required("name");
+        int index = serviceCatalog.indexOf(name);
+        Service removed = serviceCatalog.removeService(name);
+        require(removed != null, "service not found: " + name);
+        undoService.record(Action.serviceAction(ActionType.REMOVE_SERVICE, removed, null,
+                index, "Removed service " + name));
+    }
+
+    private void browseServices(CommandLine command, JsonLine json) {
+        String category = command.optional("category");
+        Boolean active = command.flag("active");
+        json.field("total", serviceCatalog.count(category, active)).beginArray("results");
+        serviceCatalog.cursor(category, active).skip(offset(command)).limit(limit(command))
+                .forEachRemaining(json::service);
+        json.endArray();
+    }
+
+    private void serviceCategories(JsonLine json) {
+        json.beginArray("results");
+        for (Map.Entry<String, Integer> entry : serviceCatalog.categoryCounts().entrySet()) {
+            json.beginObject()
+                    .field("category", entry.getKey())
+                    .field("total", entry.getValue())
+                    .field("active", serviceCatalog.count(entry.getKey(), Boolean.TRUE))
+                    .endObject();
+        }
+        json.endArray();
+    }
+
+    private void importServices(CommandLine command, JsonLine json) throws IOException {
+        Path file = file(command);
+        CsvTransfer.ImportResult<Service> result = CsvTransfer.importServices(file, serviceCatalog);
+        if (!result.imported().isEmpty()) {
+            undoService.record(Action.serviceImportAction(result.imported(),
+                    String.format("Imported %d services from %s", result.imported().size(), file.getFileName())));
+        }
+        importResult(json, result);
+    }
+
+    private void addTask(CommandLine command, JsonLine json) {
+        String requestor = command.required("requestor");
+        String description = command.required("description");
+        TaskPriority priority = priority(command.optional("priority"));
+        int delayMinutes = command.integer("delay", 0);
+        String taskId = Task.GENERATED_ID_PREFIX + taskSequence++;
+        LocalDateTime now = LocalDateTime.now();
+        Task task = new Task(taskId, requestor, description, priority, now,
+                delayMinutes > 0 ? now.plusMinutes(delayMinutes) : null);
+        taskManager.addTask(task);
+        undoService.record(Action.taskAction(ActionType.ADD_TASK, task, "Added task " + taskId));
+        json.field("id", taskId);
+        if (task.getNotBefore() != null) {
+            json.field("notBefore", task.getNotBefore().toString());
+        }
+    }
+
+    private void serveTask(JsonLine json) {
+        Task served = taskManager.serveNextTask();
+        require(served != null, "no tasks to serve");
+        undoService.record(Action.taskAction(ActionType.SERVE_TASK, served, "Served task " + served.getTaskId()));
+        task(json, served);
+    }
+
+    private void serveBatch(CommandLine command, JsonLine json) {
+        int requested = command.integer("count", 10);
+        List<Task> served = new ArrayList<>(Math.max(0, Math.min(requested, taskManager.count())));
+        int count = taskManager.drainTo(served, requested);
+        require(count > 0, "no tasks to serve");
+        undoService.record(Action.taskBatchAction(ActionType.BATCH_SERVE_TASKS, served,
+                "Served " + count + " tasks"));
+        json.beginArray("results");
+        for (Task task : served) {
+            json.task(task);
+        }
+        json.endArray();
+    }
+
+    private void listTasks(CommandLine command, JsonLine json) {
+        json.field("total", taskManager.count()).beginArray("results");
+        for (Task task : taskManager.listPendingPage(offset(command), limit(command))) {
+            json.task(task);
+        }
+        json.endArray();
+    }
+
+    private void undoHistory(CommandLine command, JsonLine json) {
+        json.field("depth", undoService.size()).beginArray("results");
+        Cursor<Action> history = undoService.historyCursor().limit(command.integer("limit", 20));
+        while (history.hasNext()) {
+            json.action(history.next());
+        }
+        json.endArray();
+    }
+
+    private void summary(JsonLine json) {
+        json.field("personnel", personnelManager.count())
+                .field("services", serviceCatalog.count())
+                .field("activeServices", serviceCatalog.count(null, Boolean.TRUE))
+                .field("categories", serviceCatalog.categoryCount())
+                .field("pendingTasks", taskManager.count())
+                .field("scheduledTasks", taskManager.scheduledCount())
+                .field("undoDepth", undoService.size())
+                .field("redoDepth", undoService.redoSize());
+        if (journalStore != null) {
+            json.field("journalRecords", journalStore.journal().appendedRecords())
+                    .field("recordsSinceSnapshot", journalStore.recordsSinceSnapshot());
+        }
+    }
+
+    private void snapshot(JsonLine json) throws IOException {
+        require(journalStore != null, "persistence is off (set -Dctwms.data.dir to enable it)");
+        require(journalStore.snapshot(), "a snapshot is already being written");
+        journalStore.awaitSnapshot();
+        require(journalStore.lastSnapshotError() == null, "snapshot failed: " + journalStore.lastSnapshotError());
+        json.field("bytes", journalStore.lastSnapshotBytes()).field("millis", journalStore.lastSnapshotMillis());
+    }
+
+    private void help(JsonLine json) {
+        json.beginArray("commands");
+        for (String usage : COMMANDS) {
+            if (!remote || !LOCAL_ONLY_COMMANDS.contains(CommandLine.nameOf(usage))) {
+                json.value(usage);
+            }
+        }
+        json.endArray();
+    }
+
+    private String snapshotIfDue() {
+        if (journalStore == null) {
+            return null;
+        }
+        try {
+            journalStore.snapshotIfDue();
+            return null;
+        } catch (IOException e) {
+            return e.getMessage();
+        }
+    }
+
+    private static void services(JsonLine json, List<Service> services) {
+        json.beginArray("results");
+        for (Service service : services) {
+            json.service(service);
+        }
+        json.endArray();
+    }
+
+    private static void task(JsonLine json, Task task) {
+        json.key("task");
+        if (task != null) {
+            json.task(task);
+        } else {
+            json.nullValue();
+        }
+    }
+
+    private static void importResult(JsonLine json, CsvTransfer.ImportResult<?> result) {
+        json.field("imported", result.imported().size()).field("rejected", result.rejected()).beginArray("errors");
+        for (String error : result.errors()) {
+            json.value(error);
+        }
+        json.endArray();
+    }
+
+    private static TaskPriority priority(String input) {
+        if (input == null) {
+            return TaskPriority.LOW;
+        }
+        for (TaskPriority priority : TaskPriority.values()) {
+            if (priority.name().equalsIgnoreCase(input)) {
+                return priority;
+            }
+        }
+        throw new IllegalArgumentException("'priority' must be HIGH, MEDIUM or LOW");
+    }
+
+    private static Path file(CommandLine command) {
+        return Paths.get(command.required("file"));
+    }
+
+    private static int offset(CommandLine command) {
+        return Math.max(0, command.integer("offset", 0));
+    }
+
+    private static int limit(CommandLine command) {
+        return Math.max(0, command.integer("limit", DEFAULT_LIST_LIMIT));
+    }
+
+    private static void require(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    private static char[] drain(StringBuilder pending, Writer out, char[] chunk) throws IOException {
+        int length = pending.length();
+        if (length > chunk.length) {
+            chunk = new char[length];
+        }
+        pending.getChars(0, length, chunk, 0);
+        out.write(chunk, 0, length);
+        pending.setLength(0);
+        return chunk;
+    }
+}
@@ -0,0 +1,410 @@
+package com.ctwms.command;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serves the {@link CommandProcessor} line protocol to clients on the loopback interface: a client
+ * sends command lines ({@code :add-task requestor=Ada description="Projector bulb"}) and receives
+ * one JSON line per command, in the order sent. {@code quit} closes the connection. The file and
+ * administration commands are refused (see {@link CommandProcessor}).
+ * <p>
+ * Every connection runs on its own virtual thread where the runtime has them (Java 21+), otherwise
+ * on a pooled platform thread. Clients may pipeline: all complete lines already received are run as
+ * one batch under a single acquisition of the processor lock, and their results go back in one
+ * write, flushed once the client has nothing more in flight. The lock is a {@link ReentrantLock}
+ * rather than a monitor so that virtual threads waiting for it do not pin their carrier.
+ */
+public final class CommandServer implements Closeable {
+    private static final int BUFFER_CHARS = 16 * 1024;
+    private static final int MAX_BATCH = 256;
+    private static final int MAX_LINE_CHARS = 64 * 1024;
+    private static final int BACKLOG = 1_024;
+    private static final long MIN_ACCEPT_BACKOFF_MILLIS = 10;
+    private static final long MAX_ACCEPT_BACKOFF_MILLIS = 1_000;
+
+    private final CommandProcessor processor;
+    private final ReentrantLock processorLock = new ReentrantLock(true);
+    private final ServerSocket serverSocket;
+    private final ExecutorService connections = newConnectionExecutor();
+    private final Set<Socket> openSockets = ConcurrentHashMap.newKeySet();
+    private final Thread acceptor;
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private volatile boolean closed;
+    private boolean stopped;
+
+    /**
+     * Binds to {@code port} on the loopback address ({@code 0} picks a free port) and starts
+     * accepting connections. The processor must be one built for remote clients, so that no client
+     * can reach the server's files.
+     */
+    public CommandServer(CommandProcessor processor, int port) throws IOException {
+        if (!processor.isRemote()) {
+            throw new IllegalArgumentException("The server needs a processor built for remote clients");
+        }
+        this.processor = processor;
+        this.serverSocket = new ServerSocket();
+        serverSocket.setReuseAddress(true);
+        serverSocket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        this.acceptor = new Thread(this::acceptLoop, "ctwms-accept");
+        acceptor.start();
+    }
+
+    /**
+     * Returns an executor that starts one virtual thread per task when the runtime supports them,
+     * otherwise a cached pool of daemon platform threads. The factory is looked up reflectively so
+     * the code still builds for Java 17.
+     */
+    public static ExecutorService newConnectionExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger created = new AtomicInteger();
+            return Executors.newCachedThreadPool(task -> {
+                Thread thread = new Thread(task, "ctwms-connection-" + created.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    public static boolean virtualThreadsAvailable() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    public long connectionCount() {
+        return accepted.get();
+    }
+
+    public int openConnections() {
+        return openSockets.size();
+    }
+
+    /**
+     * Number of lock acquisitions; with pipelining clients this is well below the command count.
+     */
+    public long batchCount() {
+        return batches.get();
+    }
+
+    public long commandCount() {
+        processorLock.lock();
+        try {
+            return processor.executedCount();
+        } finally {
+            processorLock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until the server has been closed.
+     */
+    public void awaitClose() throws InterruptedException {
+        acceptor.join();
+    }
+
+    /**
+     * Stops accepting, disconnects every client and waits for the batches in progress. Once this
+     * returns no further command runs, so the processor's journal can be closed safely.
+     */
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        for (Socket socket : openSockets) {
+            closeQuietly(socket);
+        }
+        connections.shutdown();
+        try {
+            connections.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        processorLock.lock();
+        try {
+            stopped = true;
+        } finally {
+            processorLock.unlock();
+        }
+    }
+
+    /**
+     * Accepts until closed. A failing accept (typically out of file descriptors) is retried after
+     * a pause that doubles up to {@link #MAX_ACCEPT_BACKOFF_MILLIS}, and reported once per run of
+     * failures, so the loop neither spins nor floods the log.
+     */
+    private void acceptLoop() {
+        long backoffMillis = 0;
+        while (!closed) {
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                if (closed) {
+                    break;
+                }
+                if (backoffMillis == 0) {
+                    System.err.println("Accept failed: " + e.getMessage() + "; retrying with back-off");
+                }
+                backoffMillis = Math.min(MAX_ACCEPT_BACKOFF_MILLIS, Math.max(MIN_ACCEPT_BACKOFF_MILLIS, backoffMillis * 2));
+                try {
+                    Thread.sleep(backoffMillis);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                continue;
+            }
+            backoffMillis = 0;
+            accepted.incrementAndGet();
+            openSockets.add(socket);
+            try {
+                connections.execute(() -> serve(socket));
+            } catch (RuntimeException e) {
+                openSockets.remove(socket);
+                closeQuietly(socket);
+            }
+        }
+    }
+
+    /**
+     * Reads whatever the client has sent, runs the complete lines among it as one batch and answers
+     * them in one write. Only a read with nothing buffered blocks, so a line the client has only
+     * partly sent never holds back the answers to the lines before it. A line longer than
+     * {@link #MAX_LINE_CHARS} is answered with an error and the connection is closed, so no client
+     * can grow the server's buffers without bound.
+     */
+    private void serve(Socket socket) {
+        try (socket;
+             Reader in = new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8);
+             Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(),
+                     StandardCharsets.UTF_8), BUFFER_CHARS)) {
+            socket.setTcpNoDelay(true);
+            LineBuffer lines = new LineBuffer(BUFFER_CHARS, MAX_LINE_CHARS);
+            List<String> batch = new ArrayList<>();
+            StringBuilder results = new StringBuilder(BUFFER_CHARS);
+            char[] chunk = new char[BUFFER_CHARS];
+            boolean quit = false;
+            boolean ended = false;
+            while (!quit && !ended) {
+                String line = lines.next();
+                if (line == null) {
+                    if (lines.isFull()) {
+                        rejectLongLine(lines.rest(), results);
+                        chunk = write(results, out, chunk);
+                        out.flush();
+                        break;
+                    }
+                    if (!lines.fill(in)) {
+                        line = lines.rest();
+                        ended = true;
+                        if (line == null) {
+                            break;
+                        }
+                    } else {
+                        continue;
+                    }
+                }
+                while (true) {
+                    if (isQuit(line)) {
+                        quit = true;
+                        break;
+                    }
+                    batch.add(line);
+                    if (ended || batch.size() == MAX_BATCH) {
+                        break;
+                    }
+                    line = lines.next();
+                    if (line == null && !lines.isFull() && in.ready() && lines.fill(in)) {
+                        line = lines.next();
+                    }
+                    if (line == null) {
+                        break;
+                    }
+                }
+                if (!execute(batch, results)) {
+                    break;
+                }
+                chunk = write(results, out, chunk);
+                if (quit || ended || (!lines.hasLine() && !in.ready())) {
+                    out.flush();
+                }
+            }
+        } catch (IOException e) {
+            // the client went away; nothing is owed to it
+        } finally {
+            openSockets.remove(socket);
+        }
+    }
+
+    /**
+     * Runs the batch and returns {@code false}, running nothing, once the server has stopped.
+     */
+    private boolean execute(List<String> batch, StringBuilder results) {
+        if (batch.isEmpty()) {
+            return true;
+        }
+        processorLock.lock();
+        try {
+            if (stopped) {
+                return false;
+            }
+            for (String line : batch) {
+                processor.execute(line, results);
+            }
+        } finally {
+            processorLock.unlock();
+        }
+        batches.incrementAndGet();
+        batch.clear();
+        return true;
+    }
+
+    private static void rejectLongLine(String prefix, StringBuilder results) {
+        new JsonLine(results).beginObject()
+                .field("ok", false)
+                .field("command", CommandLine.nameOf(prefix))
+                .field("error", "line longer than " + MAX_LINE_CHARS + " characters; closing the connection")
+                .endObject();
+        results.append('\n');
+    }
+
+    private static char[] write(StringBuilder results, Writer out, char[] chunk) throws IOException {
+        int length = results.length();
+        if (length > chunk.length) {
+            chunk = new char[length];
+        }
+        results.getChars(0, length, chunk, 0);
+        out.write(chunk, 0, length);
+        results.setLength(0);
+        return chunk;
+    }
+
+    private static boolean isQuit(String line) {
+        String trimmed = line.trim();
+        return trimmed.equalsIgnoreCase("quit") || trimmed.equalsIgnoreCase(":quit");
+    }
+
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+            // already closed
+        }
+    }
+
+    /**
+     * Characters received but not yet consumed, split into lines without blocking. A line may end
+     * in {@code \n} or {@code \r\n}; the buffer doubles to hold a longer line, up to a fixed limit.
+     */
+    private static final class LineBuffer {
+        private final int maxChars;
+        private char[] chars;
+        private int start;
+        private int end;
+        private int scanned;
+
+        LineBuffer(int capacity, int maxChars) {
+            this.maxChars = maxChars;
+            chars = new char[Math.min(capacity, maxChars)];
+        }
+
+        /**
+         * Returns the next complete line, or {@code null} if only part of one has arrived.
+         */
+        String next() {
+            for (int i = scanned; i < end; i++) {
+                if (chars[i] == '\n') {
+                    int lineEnd = i > start && chars[i - 1] == '\r' ? i - 1 : i;
+                    String line = new String(chars, start, lineEnd - start);
+                    start = i + 1;
+                    scanned = start;
+                    return line;
+                }
+            }
+            scanned = end;
+            return null;
+        }
+
+        boolean hasLine() {
+            for (int i = scanned; i < end; i++) {
+                if (chars[i] == '\n') {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * True once an unterminated line fills the buffer at its limit; nothing more can be read.
+         */
+        boolean isFull() {
+            return end - start >= maxChars;
+        }
+
+        /**
+         * Reads more input, blocking until some arrives. Returns {@code false} at end of stream.
+         * Must not be called once {@link #isFull()} holds.
+         */
+        boolean fill(Reader in) throws IOException {
+            if (start > 0) {
+                System.arraycopy(chars, start, chars, 0, end - start);
+                end -= start;
+                scanned -= start;
+                start = 0;
+            }
+            if (end == chars.length) {
+                chars = Arrays.copyOf(chars, Math.min(chars.length * 2, maxChars));
+            }
+            int read = in.read(chars, end, chars.length - end);
+            if (read < 0) {
+                return false;
+            }
+            end += read;
+            return true;
+        }
+
+        /**
+         * Returns the unterminated text left at end of stream, or {@code null} if there is none.
+         */
+        String rest() {
+            if (start == end) {
+                return null;
+            }
+            String line = new String(chars, start, end - start);
+            start = end;
+            scanned = end;
+            return line;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.ctwms.command;
+
+import com.ctwms.model.Action;
+import com.ctwms.model.Personnel;
+import com.ctwms.model.Service;
+import com.ctwms.model.Task;
+
+/**
+ * Appends one JSON object to a shared builder without building any intermediate tree. Commas are
+ * inserted automatically; callers only open and close objects and arrays in order.
+ */
+final class JsonLine {
+    private final StringBuilder out;
+    private boolean needsComma;
+
+    JsonLine(StringBuilder out) {
+        this.out = out;
+    }
+
+    JsonLine beginObject() {
+        separate();
+        out.append('{');
+        needsComma = false;
+        return this;
+    }
+
+    JsonLine endObject() {
+        out.append('}');
+        needsComma = true;
+        return this;
+    }
+
+    JsonLine beginArray(String name) {
+        name(name);
+        out.append('[');
+        needsComma = false;
+        return this;
+    }
+
+    JsonLine endArray() {
+        out.append(']');
+        needsComma = true;
+        return this;
+    }
+
+    /**
+     * Writes a member name; the next call writes its value.
+     */
+    JsonLine key(String name) {
+        name(name);
+        return this;
+    }
+
+    JsonLine nullValue() {
+        out.append("null");
+        needsComma = true;
+        return this;
+    }
+
+    JsonLine value(String value) {
+        separate();
+        string(value);
+        needsComma = true;
+        return this;
+    }
+
+    JsonLine field(String name, String value) {
+        name(name);
+        string(value);
+        needsComma = true;
+        return this;
+    }
+
+    JsonLine field(String name, long value) {
+        name(name);
+        out.append(value);
+        needsComma = true;
+        return this;
+    }
+
+    JsonLine field(String name, boolean value) {
+        name(name);
+        out.append(value);
+        needsComma = true;
+        return this;
+    }
+
+    JsonLine personnel(Personnel personnel) {
+        return beginObject()
+                .field("id", personnel.getId())
+                .field("name", personnel.getName())
+                .field("role", personnel.getRole())
+                .field("department", personnel.getDepartment())
+                .field("email", personnel.getEmail())
+                .endObject();
+    }
+
+    JsonLine service(Service service) {
+        return beginObject()
+                .field("name", service.getName())
+                .field("description", service.getDescription())
+                .field("category", service.getCategory())
+                .field("active", service.isActive())
+                .endObject();
+    }
+
+    JsonLine task(Task task) {
+        return beginObject()
+                .field("id", task.getTaskId())
+                .field("requestor", task.getRequestor())
+                .field("description", task.getDescription())
+                .field("priority", task.getPriority() != null ? task.getPriority().name() : null)
+                .field("createdAt", task.getCreatedAt() != null ? task.getCreatedAt().toString() : null)
+                .field("notBefore", task.getNotBefore() != null ? task.getNotBefore().toString() : null)
+                .endObject();
+    }
+
+    JsonLine action(Action action) {
+        return beginObject()
+                .field("type", action.getType().name())
+                .field("description", action.getDescription())
+                .field("timestamp", action.getTimestamp())
+                .endObject();
+    }
+
+    private void separate() {
+        if (needsComma) {
+            out.append(',');
+        }
+    }
+
+    private void name(String name) {
+        separate();
+        out.append('"').append(name).append("\":");
+        needsComma = false;
+    }
+
+    private void string(String value) {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        int from = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c != '"' && c != '\\') {
+                continue;
+            }
+            out.append(value, from, i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                default -> out.append(String.format("\\u%04x", (int) c));
+            }
+            from = i + 1;
+        }
+        out.append(value, from, value.length()).append('"');
+    }
+}
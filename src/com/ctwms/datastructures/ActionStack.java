@@ -6,65 +6,183 @@ import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Simple LIFO stack to track undoable actions.
+ * LIFO stack to track undoable actions, backed by a ring buffer of slots.
+ * <p>
+ * The ring starts small and doubles as entries arrive, up to the capacity, so a generous capacity
+ * costs nothing until the history actually grows that deep. Once the capacity is reached, or the
+ * estimated bytes exceed the budget, the oldest entries are overwritten from the bottom in
+ * {@code O(1)}. The most recent entry is always kept.
  */
 public class ActionStack {
-    private static class Node {
-        private final Action data;
-        private Node next;
+    public static final int DEFAULT_CAPACITY = 1_024;
+    private static final int INITIAL_SLOTS = 16;
 
-        Node(Action data) {
-            this.data = data;
-        }
+    private Action[] slots;
+    private long[] slotBytes;
+    private final int capacity;
+    private final long maxBytes;
+    private int bottom;
+    private int size;
+    private long estimatedBytes;
+    private long evictionCount;
+    private int modCount;
+
+    public ActionStack() {
+        this(DEFAULT_CAPACITY, Long.MAX_VALUE);
     }
 
-    private Node top;
-    private int size;
+    public ActionStack(int capacity, long maxBytes) {
+        this.capacity = Math.max(1, capacity);
+        int initialSlots = Math.min(this.capacity, INITIAL_SLOTS);
+        this.slots = new Action[initialSlots];
+        this.slotBytes = new long[initialSlots];
+        this.maxBytes = Math.max(1, maxBytes);
+    }
 
     public void push(Action action) {
         if (action == null) {
             return;
         }
-        Node node = new Node(action);
-        node.next = top;
-        top = node;
+        if (size == capacity) {
+            evictOldest();
+        } else if (size == slots.length) {
+            grow();
+        }
+        int index = slotIndex(size);
+        long bytes = action.estimatedBytes();
+        slots[index] = action;
+        slotBytes[index] = bytes;
         size++;
+        modCount++;
+        estimatedBytes += bytes;
+        while (size > 1 && estimatedBytes > maxBytes) {
+            evictOldest();
+        }
     }
 
     public Action pop() {
-        if (top == null) {
+        if (size == 0) {
             return null;
         }
-        Action data = top.data;
-        top = top.next;
+        int index = slotIndex(size - 1);
+        Action action = slots[index];
+        slots[index] = null;
+        estimatedBytes -= slotBytes[index];
         size--;
-        return data;
+        modCount++;
+        return action;
     }
 
     public Action peek() {
-        return top != null ? top.data : null;
+        return size > 0 ? slots[slotIndex(size - 1)] : null;
     }
 
     public boolean isEmpty() {
-        return top == null;
+        return size == 0;
     }
 
     public int size() {
         return size;
     }
 
+    public long estimatedBytes() {
+        return estimatedBytes;
+    }
+
+    public long evictionCount() {
+        return evictionCount;
+    }
+
+    public int maxEntries() {
+        return capacity;
+    }
+
+    public long maxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Empties the stack and gives a grown ring back.
+     */
     public void clear() {
-        top = null;
+        int initialSlots = Math.min(capacity, INITIAL_SLOTS);
+        slots = new Action[initialSlots];
+        slotBytes = new long[initialSlots];
+        bottom = 0;
         size = 0;
+        estimatedBytes = 0;
+        modCount++;
     }
 
+    /**
+     * Returns the actions from the top of the stack down to the oldest.
+     */
     public List<Action> asList() {
-        List<Action> actions = new ArrayList<>();
-        Node current = top;
-        while (current != null) {
-            actions.add(current.data);
-            current = current.next;
+        List<Action> actions = new ArrayList<>(size);
+        for (int i = size - 1; i >= 0; i--) {
+            actions.add(slots[slotIndex(i)]);
         }
         return actions;
     }
+
+    /**
+     * Reads the stack in place from the top down to the oldest entry; skipping is an index move.
+     */
+    public Cursor<Action> cursor() {
+        return new Cursor<>(modCount) {
+            private int depth = size - 1;
+
+            protected int modCount() {
+                return ActionStack.this.modCount;
+            }
+
+            protected boolean hasMore() {
+                return depth >= 0;
+            }
+
+            protected Action advance() {
+                return slots[slotIndex(depth--)];
+            }
+
+            protected int jump(int count) {
+                int skipped = Math.min(count, depth + 1);
+                depth -= skipped;
+                return skipped;
+            }
+        };
+    }
+
+    private void evictOldest() {
+        slots[bottom] = null;
+        estimatedBytes -= slotBytes[bottom];
+        bottom = bottom + 1 == slots.length ? 0 : bottom + 1;
+        size--;
+        evictionCount++;
+        modCount++;
+    }
+
+    /**
+     * Doubles the ring (up to the capacity), unrolling it so the bottom entry lands in slot 0.
+     */
+    private void grow() {
+        int length = (int) Math.min(capacity, slots.length * 2L);
+        Action[] grown = new Action[length];
+        long[] grownBytes = new long[length];
+        int firstRun = Math.min(size, slots.length - bottom);
+        System.arraycopy(slots, bottom, grown, 0, firstRun);
+        System.arraycopy(slots, 0, grown, firstRun, size - firstRun);
+        System.arraycopy(slotBytes, bottom, grownBytes, 0, firstRun);
+        System.arraycopy(slotBytes, 0, grownBytes, firstRun, size - firstRun);
+        slots = grown;
+        slotBytes = grownBytes;
+        bottom = 0;
+    }
+
+    /**
+     * Maps a depth counted from the bottom of the stack to its slot in the ring.
+     */
+    private int slotIndex(int depth) {
+        int index = bottom + depth;
+        return index >= slots.length ? index - slots.length : index;
+    }
 }
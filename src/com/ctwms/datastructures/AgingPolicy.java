@@ -0,0 +1,54 @@
+package com.ctwms.datastructures;
+
+import com.ctwms.model.Task;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Promotes waiting tasks by one priority level for every {@code step} they have been queued,
+ * measured from {@link Task#getEligibleAt()} so scheduled tasks do not age before they are due.
+ * The lane whose head has the best effective priority is served; ties go to the older head.
+ * Starvation is impossible because any LOW task reaches HIGH after two steps and then wins
+ * against newer HIGH tasks.
+ */
+public class AgingPolicy implements TaskSchedulingPolicy {
+    private static final int LANES = 3;
+
+    private final long stepNanos;
+    private final Clock clock;
+
+    public AgingPolicy(Duration step) {
+        this(step, Clock.systemDefaultZone());
+    }
+
+    public AgingPolicy(Duration step, Clock clock) {
+        this.stepNanos = Math.max(1, step.toNanos());
+        this.clock = clock;
+    }
+
+    @Override
+    public int nextLane(LaneHeads heads) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        int bestLane = -1;
+        long bestPriority = Long.MAX_VALUE;
+        LocalDateTime bestEligibleAt = null;
+        for (int lane = 0; lane < LANES; lane++) {
+            Task head = heads.head(lane);
+            if (head == null) {
+                continue;
+            }
+            LocalDateTime eligibleAt = head.getEligibleAt();
+            long promotions = Math.max(0, Duration.between(eligibleAt, now).toNanos() / stepNanos);
+            long effective = Math.max(0, lane - promotions);
+            if (effective < bestPriority
+                    || (effective == bestPriority && eligibleAt.isBefore(bestEligibleAt))) {
+                bestPriority = effective;
+                bestEligibleAt = eligibleAt;
+                bestLane = lane;
+            }
+        }
+        return bestLane;
+    }
+}
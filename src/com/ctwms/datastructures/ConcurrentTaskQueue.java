@@ -0,0 +1,535 @@
+package com.ctwms.datastructures;
+
+import com.ctwms.model.Task;
+import com.ctwms.model.TaskPriority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Thread-safe priority-lane queue using one lock per lane (striped locking).
+ * <p>
+ * Producers and consumers of different lanes never contend. Under the default strict policy
+ * {@link #dequeue()} checks lanes in HIGH, MEDIUM, LOW order and takes the head of the first
+ * non-empty one, so strict priority and FIFO within a lane hold for every task enqueued before the
+ * call began. Other scheduling policies need a consistent view of all lane heads, so with them
+ * peek and dequeue lock every lane. Operations that need several lanes always lock them in the
+ * same HIGH to LOW order.
+ */
+public class ConcurrentTaskQueue implements PriorityTaskQueue {
+    private static class Node {
+        private final Task data;
+        private final String idKey;
+        private final int lane;
+        private Node next;
+        private Node prev;
+        private boolean linked;
+
+        Node(Task data, int lane) {
+            this.data = data;
+            this.idKey = fold(data.getTaskId());
+            this.lane = lane;
+        }
+    }
+
+    private static final TaskPriority[] ORDER = {TaskPriority.HIGH, TaskPriority.MEDIUM, TaskPriority.LOW};
+
+    private final ReentrantLock[] laneLocks = new ReentrantLock[TaskPriority.values().length];
+    private final Node[] heads = new Node[TaskPriority.values().length];
+    private final Node[] tails = new Node[TaskPriority.values().length];
+    private final ConcurrentHashMap<String, Node> idIndex = new ConcurrentHashMap<>();
+    private final AtomicInteger size = new AtomicInteger();
+    private final ReentrantLock waitLock = new ReentrantLock();
+    private final Condition notEmpty = waitLock.newCondition();
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final TaskSchedulingPolicy.LaneHeads laneHeads = lane -> heads[lane] != null ? heads[lane].data : null;
+    private volatile TaskSchedulingPolicy policy = StrictPriorityPolicy.INSTANCE;
+
+    public ConcurrentTaskQueue() {
+        for (int i = 0; i < laneLocks.length; i++) {
+            laneLocks[i] = new ReentrantLock();
+        }
+    }
+
+    public void enqueue(Task task) {
+        if (task == null) {
+            return;
+        }
+        int lane = task.getPriority().ordinal();
+        Node node = new Node(task, lane);
+        ReentrantLock lock = laneLocks[lane];
+        lock.lock();
+        try {
+            linkLast(node);
+        } finally {
+            lock.unlock();
+        }
+        signalWaiters();
+    }
+
+    public void requeueAtFront(Task task) {
+        if (task == null) {
+            return;
+        }
+        int lane = task.getPriority().ordinal();
+        Node node = new Node(task, lane);
+        ReentrantLock lock = laneLocks[lane];
+        lock.lock();
+        try {
+            node.next = heads[lane];
+            if (heads[lane] != null) {
+                heads[lane].prev = node;
+            } else {
+                tails[lane] = node;
+            }
+            heads[lane] = node;
+            register(node);
+        } finally {
+            lock.unlock();
+        }
+        signalWaiters();
+    }
+
+    /**
+     * Each lane's new tasks are linked into a private chain before any lock is taken, so a lane
+     * lock is held once per batch and waiting consumers are signalled once.
+     */
+    public void addAll(Collection<Task> tasks) {
+        if (tasks == null || tasks.isEmpty()) {
+            return;
+        }
+        Node[] segmentHeads = new Node[heads.length];
+        Node[] segmentTails = new Node[heads.length];
+        int[] counts = new int[heads.length];
+        for (Task task : tasks) {
+            if (task == null) {
+                continue;
+            }
+            Node node = new Node(task, task.getPriority().ordinal());
+            appendToSegment(node, segmentHeads, segmentTails);
+            counts[node.lane]++;
+        }
+        boolean added = false;
+        for (int lane = 0; lane < heads.length; lane++) {
+            if (segmentHeads[lane] == null) {
+                continue;
+            }
+            ReentrantLock lock = laneLocks[lane];
+            lock.lock();
+            try {
+                if (tails[lane] == null) {
+                    heads[lane] = segmentHeads[lane];
+                } else {
+                    tails[lane].next = segmentHeads[lane];
+                    segmentHeads[lane].prev = tails[lane];
+                }
+                tails[lane] = segmentTails[lane];
+                registerSegment(segmentHeads[lane], counts[lane]);
+            } finally {
+                lock.unlock();
+            }
+            added = true;
+        }
+        if (added) {
+            signalWaiters();
+        }
+    }
+
+    /**
+     * Under strict priority each lane lock is taken once and the lane's served prefix is cut off in
+     * one splice; other policies hold every lane lock for the whole batch.
+     */
+    public int drainTo(Collection<? super Task> sink, int maxTasks) {
+        if (sink == null || maxTasks <= 0) {
+            return 0;
+        }
+        int drained = 0;
+        TaskSchedulingPolicy current = policy;
+        if (!current.isStrict()) {
+            lockAllLanes();
+            try {
+                while (drained < maxTasks) {
+                    int lane = current.nextLane(laneHeads);
+                    if (lane < 0) {
+                        break;
+                    }
+                    Node head = heads[lane];
+                    unlink(head);
+                    current.served(lane);
+                    sink.add(head.data);
+                    drained++;
+                }
+            } finally {
+                unlockAllLanes();
+            }
+            return drained;
+        }
+        for (TaskPriority priority : ORDER) {
+            if (drained == maxTasks) {
+                break;
+            }
+            ReentrantLock lock = laneLocks[priority.ordinal()];
+            lock.lock();
+            try {
+                drained += cutPrefix(priority.ordinal(), maxTasks - drained, sink);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return drained;
+    }
+
+    public void requeueAllAtFront(List<Task> tasks) {
+        if (tasks == null || tasks.isEmpty()) {
+            return;
+        }
+        Node[] segmentHeads = new Node[heads.length];
+        Node[] segmentTails = new Node[heads.length];
+        int[] counts = new int[heads.length];
+        for (Task task : tasks) {
+            if (task == null) {
+                continue;
+            }
+            Node node = new Node(task, task.getPriority().ordinal());
+            appendToSegment(node, segmentHeads, segmentTails);
+            counts[node.lane]++;
+        }
+        boolean added = false;
+        for (int lane = 0; lane < heads.length; lane++) {
+            if (segmentHeads[lane] == null) {
+                continue;
+            }
+            ReentrantLock lock = laneLocks[lane];
+            lock.lock();
+            try {
+                if (heads[lane] == null) {
+                    tails[lane] = segmentTails[lane];
+                } else {
+                    heads[lane].prev = segmentTails[lane];
+                    segmentTails[lane].next = heads[lane];
+                }
+                heads[lane] = segmentHeads[lane];
+                registerSegment(segmentHeads[lane], counts[lane]);
+            } finally {
+                lock.unlock();
+            }
+            added = true;
+        }
+        if (added) {
+            signalWaiters();
+        }
+    }
+
+    public Task peek() {
+        TaskSchedulingPolicy current = policy;
+        if (!current.isStrict()) {
+            lockAllLanes();
+            try {
+                int lane = current.nextLane(laneHeads);
+                return lane >= 0 ? heads[lane].data : null;
+            } finally {
+                unlockAllLanes();
+            }
+        }
+        for (TaskPriority priority : ORDER) {
+            ReentrantLock lock = laneLocks[priority.ordinal()];
+            lock.lock();
+            try {
+                Node head = heads[priority.ordinal()];
+                if (head != null) {
+                    return head.data;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return null;
+    }
+
+    public Task dequeue() {
+        if (size.get() == 0) {
+            return null;
+        }
+        TaskSchedulingPolicy current = policy;
+        if (!current.isStrict()) {
+            lockAllLanes();
+            try {
+                int lane = current.nextLane(laneHeads);
+                if (lane < 0) {
+                    return null;
+                }
+                Node head = heads[lane];
+                unlink(head);
+                current.served(lane);
+                return head.data;
+            } finally {
+                unlockAllLanes();
+            }
+        }
+        for (TaskPriority priority : ORDER) {
+            int lane = priority.ordinal();
+            ReentrantLock lock = laneLocks[lane];
+            lock.lock();
+            try {
+                Node head = heads[lane];
+                if (head != null) {
+                    unlink(head);
+                    return head.data;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return null;
+    }
+
+    public Task take(long timeout, TimeUnit unit) throws InterruptedException {
+        long remaining = unit.toNanos(timeout);
+        while (true) {
+            Task task = dequeue();
+            if (task != null || remaining <= 0) {
+                return task;
+            }
+            waitLock.lockInterruptibly();
+            waiting.incrementAndGet();
+            try {
+                while (size.get() == 0 && remaining > 0) {
+                    remaining = notEmpty.awaitNanos(remaining);
+                }
+            } finally {
+                waiting.decrementAndGet();
+                waitLock.unlock();
+            }
+        }
+    }
+
+    public Task removeById(String taskId) {
+        if (taskId == null) {
+            return null;
+        }
+        Node node = idIndex.get(fold(taskId));
+        if (node == null) {
+            return null;
+        }
+        ReentrantLock lock = laneLocks[node.lane];
+        lock.lock();
+        try {
+            if (!node.linked) {
+                return null;
+            }
+            unlink(node);
+            return node.data;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the whole batch under one acquisition of every lane lock.
+     */
+    public List<Task> removeAllById(Collection<String> taskIds) {
+        List<Task> removed = new ArrayList<>(taskIds.size());
+        lockAllLanes();
+        try {
+            for (String taskId : taskIds) {
+                Node node = taskId != null ? idIndex.get(fold(taskId)) : null;
+                if (node != null && node.linked) {
+                    unlink(node);
+                    removed.add(node.data);
+                }
+            }
+        } finally {
+            unlockAllLanes();
+        }
+        return removed;
+    }
+
+    public void setSchedulingPolicy(TaskSchedulingPolicy policy) {
+        lockAllLanes();
+        try {
+            this.policy = policy != null ? policy : StrictPriorityPolicy.INSTANCE;
+        } finally {
+            unlockAllLanes();
+        }
+    }
+
+    public boolean isEmpty() {
+        return size.get() == 0;
+    }
+
+    public int size() {
+        return size.get();
+    }
+
+    /**
+     * Returns a consistent snapshot taken while holding every lane lock.
+     */
+    public List<Task> toList() {
+        lockAllLanes();
+        try {
+            List<Task> tasks = new ArrayList<>(size.get());
+            for (TaskPriority priority : ORDER) {
+                for (Node current = heads[priority.ordinal()]; current != null; current = current.next) {
+                    tasks.add(current.data);
+                }
+            }
+            return tasks;
+        } finally {
+            unlockAllLanes();
+        }
+    }
+
+    /**
+     * Returns one page of the snapshot order, walking the lanes under every lane lock.
+     */
+    public List<Task> page(int offset, int limit) {
+        lockAllLanes();
+        try {
+            List<Task> page = new ArrayList<>(Math.max(0, Math.min(limit, size.get() - Math.max(offset, 0))));
+            int skip = Math.max(offset, 0);
+            for (TaskPriority priority : ORDER) {
+                for (Node current = heads[priority.ordinal()]; current != null; current = current.next) {
+                    if (page.size() >= limit) {
+                        return page;
+                    }
+                    if (skip > 0) {
+                        skip--;
+                    } else {
+                        page.add(current.data);
+                    }
+                }
+            }
+            return page;
+        } finally {
+            unlockAllLanes();
+        }
+    }
+
+    private void lockAllLanes() {
+        for (ReentrantLock lock : laneLocks) {
+            lock.lock();
+        }
+    }
+
+    private void unlockAllLanes() {
+        for (int i = laneLocks.length - 1; i >= 0; i--) {
+            laneLocks[i].unlock();
+        }
+    }
+
+    private void linkLast(Node node) {
+        int lane = node.lane;
+        if (tails[lane] == null) {
+            heads[lane] = node;
+        } else {
+            node.prev = tails[lane];
+            tails[lane].next = node;
+        }
+        tails[lane] = node;
+        register(node);
+    }
+
+    private void register(Node node) {
+        node.linked = true;
+        idIndex.put(node.idKey, node);
+        size.incrementAndGet();
+    }
+
+    /**
+     * Registers {@code count} freshly spliced nodes starting at {@code first}; the caller must hold
+     * their lane's lock.
+     */
+    private void registerSegment(Node first, int count) {
+        Node current = first;
+        for (int i = 0; i < count; i++) {
+            current.linked = true;
+            idIndex.put(current.idKey, current);
+            current = current.next;
+        }
+        size.addAndGet(count);
+    }
+
+    /**
+     * Detaches up to {@code limit} nodes from the front of a lane in one splice; the caller must
+     * hold that lane's lock.
+     */
+    private int cutPrefix(int lane, int limit, Collection<? super Task> sink) {
+        Node last = null;
+        int count = 0;
+        for (Node current = heads[lane]; current != null && count < limit; current = current.next) {
+            sink.add(current.data);
+            current.linked = false;
+            idIndex.remove(current.idKey, current);
+            last = current;
+            count++;
+        }
+        if (last == null) {
+            return 0;
+        }
+        heads[lane] = last.next;
+        if (last.next == null) {
+            tails[lane] = null;
+        } else {
+            last.next.prev = null;
+            last.next = null;
+        }
+        size.addAndGet(-count);
+        return count;
+    }
+
+    private static void appendToSegment(Node node, Node[] segmentHeads, Node[] segmentTails) {
+        int lane = node.lane;
+        if (segmentTails[lane] == null) {
+            segmentHeads[lane] = node;
+        } else {
+            node.prev = segmentTails[lane];
+            segmentTails[lane].next = node;
+        }
+        segmentTails[lane] = node;
+    }
+
+    /**
+     * Unlinks a node from its lane; the caller must hold that lane's lock.
+     */
+    private void unlink(Node node) {
+        int lane = node.lane;
+        if (node.prev == null) {
+            heads[lane] = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            tails[lane] = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+        node.next = null;
+        node.prev = null;
+        node.linked = false;
+        idIndex.remove(node.idKey, node);
+        size.decrementAndGet();
+    }
+
+    private void signalWaiters() {
+        if (waiting.get() == 0) {
+            return;
+        }
+        waitLock.lock();
+        try {
+            notEmpty.signalAll();
+        } finally {
+            waitLock.unlock();
+        }
+    }
+
+    private static String fold(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : "";
+    }
+}
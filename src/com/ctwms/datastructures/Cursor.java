@@ -0,0 +1,134 @@
+package com.ctwms.datastructures;
+
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Read-only, fail-fast iterator over one of the CTWMS data structures, read in place without
+ * copying it.
+ * <p>
+ * {@link #skip(int)} lets each structure jump ahead in its own way (by index, by subtree size or
+ * from the nearer end of a list) instead of stepping element by element, and {@link #limit(int)}
+ * caps how many more elements are returned. Any change to the underlying structure after the
+ * cursor was opened makes the next call throw {@link ConcurrentModificationException}.
+ */
+public abstract class Cursor<T> implements Iterator<T> {
+    private final int expectedModCount;
+    private int remaining = Integer.MAX_VALUE;
+
+    protected Cursor(int expectedModCount) {
+        this.expectedModCount = expectedModCount;
+    }
+
+    /**
+     * Returns a cursor over a list the caller owns, such as a snapshot; it never reports
+     * concurrent modification.
+     */
+    public static <T> Cursor<T> over(List<T> list) {
+        return new Cursor<>(0) {
+            private int index;
+
+            protected int modCount() {
+                return 0;
+            }
+
+            protected boolean hasMore() {
+                return index < list.size();
+            }
+
+            protected T advance() {
+                return list.get(index++);
+            }
+
+            protected int jump(int count) {
+                int skipped = Math.min(count, list.size() - index);
+                index += skipped;
+                return skipped;
+            }
+        };
+    }
+
+    /**
+     * The structure's modification count, compared with the one captured when the cursor opened.
+     */
+    protected abstract int modCount();
+
+    protected abstract boolean hasMore();
+
+    /**
+     * Returns the current element and moves past it; only called when {@link #hasMore()} holds.
+     */
+    protected abstract T advance();
+
+    /**
+     * Moves past up to {@code count} elements and returns how many were skipped. Structures with
+     * faster positioning than stepping override this.
+     */
+    protected int jump(int count) {
+        int skipped = 0;
+        while (skipped < count && hasMore()) {
+            advance();
+            skipped++;
+        }
+        return skipped;
+    }
+
+    /**
+     * Moves past the next {@code count} elements; skipped elements count against the limit.
+     */
+    public Cursor<T> skip(int count) {
+        checkForComodification();
+        if (count > 0 && remaining > 0) {
+            remaining -= jump(Math.min(count, remaining));
+        }
+        return this;
+    }
+
+    /**
+     * Returns at most {@code count} more elements.
+     */
+    public Cursor<T> limit(int count) {
+        remaining = Math.min(remaining, Math.max(count, 0));
+        return this;
+    }
+
+    public boolean hasNext() {
+        checkForComodification();
+        return remaining > 0 && hasMore();
+    }
+
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        remaining--;
+        return advance();
+    }
+
+    /**
+     * Returns the next element, or {@code null} when there is none.
+     */
+    public T nextOrNull() {
+        return hasNext() ? next() : null;
+    }
+
+    /**
+     * Streams the remaining elements; the stream is as fail-fast as the cursor.
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    private void checkForComodification() {
+        if (modCount() != expectedModCount) {
+            throw new ConcurrentModificationException("Structure changed while a cursor was open");
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package com.ctwms.datastructures;
+
+import com.ctwms.model.Task;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Staging area in front of a {@link PriorityTaskQueue} for tasks with a future
+ * {@link Task#getNotBefore()}.
+ * <p>
+ * Such tasks wait in a {@link TimingWheel} and are spliced into their priority lane of the wrapped
+ * queue once their tick has passed, so peek and dequeue never look at future tasks. Promotion
+ * happens lazily on the next read after a tick boundary; no timer thread is involved. The wheel is
+ * guarded by its own lock, which is always taken before any lock of the wrapped queue, so this
+ * stage is as thread-safe as the queue it wraps. Every change made through the stage, to the wheel
+ * or to the wrapped queue, is counted, so its cursors fail fast whichever side moved.
+ */
+public class DelayedTaskQueue implements PriorityTaskQueue {
+    public static final Duration DEFAULT_TICK = Duration.ofSeconds(1);
+
+    private final PriorityTaskQueue ready;
+    private final Clock clock;
+    private final long tickMillis;
+    private final TimingWheel wheel;
+    private final ReentrantLock wheelLock = new ReentrantLock();
+    private volatile long promotedTick;
+    private volatile int scheduled;
+    private final AtomicInteger modCount = new AtomicInteger();
+
+    public DelayedTaskQueue(PriorityTaskQueue ready) {
+        this(ready, DEFAULT_TICK, Clock.systemDefaultZone());
+    }
+
+    public DelayedTaskQueue(PriorityTaskQueue ready, Duration tick, Clock clock) {
+        this.ready = ready;
+        this.clock = clock;
+        this.tickMillis = Math.max(1, tick.toMillis());
+        this.promotedTick = Math.floorDiv(clock.millis(), tickMillis);
+        this.wheel = new TimingWheel(promotedTick);
+    }
+
+    public void enqueue(Task task) {
+        if (task == null) {
+            return;
+        }
+        if (!scheduleIfFuture(task)) {
+            ready.enqueue(task);
+        }
+        modCount.incrementAndGet();
+    }
+
+    /**
+     * Due tasks are spliced into the wrapped queue in one batch; future ones go to the wheel under a
+     * single lock acquisition.
+     */
+    public void addAll(Collection<Task> tasks) {
+        if (tasks == null || tasks.isEmpty()) {
+            return;
+        }
+        List<Task> due = new ArrayList<>(tasks.size());
+        List<Task> future = new ArrayList<>();
+        for (Task task : tasks) {
+            if (task == null) {
+                continue;
+            }
+            if (dueTick(task) > promotedTick) {
+                future.add(task);
+            } else {
+                due.add(task);
+            }
+        }
+        ready.addAll(due);
+        if (!due.isEmpty() || !future.isEmpty()) {
+            modCount.incrementAndGet();
+        }
+        if (future.isEmpty()) {
+            return;
+        }
+        wheelLock.lock();
+        try {
+            List<Task> nowDue = new ArrayList<>();
+            advance(nowDue);
+            for (Task task : future) {
+                if (!wheel.schedule(task, dueTick(task))) {
+                    nowDue.add(task);
+                }
+            }
+            scheduled = wheel.size();
+            ready.addAll(nowDue);
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    public Task peek() {
+        promoteDue();
+        return ready.peek();
+    }
+
+    public Task dequeue() {
+        promoteDue();
+        return changed(ready.dequeue());
+    }
+
+    public int drainTo(Collection<? super Task> sink, int maxTasks) {
+        promoteDue();
+        int drained = ready.drainTo(sink, maxTasks);
+        if (drained > 0) {
+            modCount.incrementAndGet();
+        }
+        return drained;
+    }
+
+    /**
+     * Waits for a ready task, re-checking the wheel at every tick boundary. The wait is capped at
+     * the boundary even when nothing is scheduled yet, so a task another thread schedules while
+     * this one waits is promoted and served within a tick of falling due.
+     */
+    public Task take(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (true) {
+            Task task = dequeue();
+            long remaining = deadline - System.nanoTime();
+            if (task != null || remaining <= 0) {
+                return task;
+            }
+            long millisToTick = tickMillis - Math.floorMod(clock.millis(), tickMillis);
+            long wait = Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(millisToTick));
+            long started = System.nanoTime();
+            task = ready.take(wait, TimeUnit.NANOSECONDS);
+            if (task != null) {
+                return changed(task);
+            }
+            long waited = System.nanoTime() - started;
+            if (waited < wait) {
+                TimeUnit.NANOSECONDS.sleep(wait - waited);
+            }
+        }
+    }
+
+    public Task removeById(String taskId) {
+        if (scheduled > 0) {
+            wheelLock.lock();
+            try {
+                Task removed = wheel.removeById(taskId);
+                if (removed != null) {
+                    scheduled = wheel.size();
+                    return changed(removed);
+                }
+            } finally {
+                wheelLock.unlock();
+            }
+        }
+        return changed(ready.removeById(taskId));
+    }
+
+    /**
+     * Takes the scheduled tasks out of the wheel under one lock acquisition and hands the other
+     * ids to the wrapped queue as one batch.
+     */
+    public List<Task> removeAllById(Collection<String> taskIds) {
+        if (scheduled == 0) {
+            return changed(ready.removeAllById(taskIds));
+        }
+        List<Task> removed = new ArrayList<>(taskIds.size());
+        List<String> notScheduled = new ArrayList<>(taskIds.size());
+        wheelLock.lock();
+        try {
+            for (String taskId : taskIds) {
+                Task task = wheel.removeById(taskId);
+                if (task != null) {
+                    removed.add(task);
+                } else {
+                    notScheduled.add(taskId);
+                }
+            }
+            scheduled = wheel.size();
+        } finally {
+            wheelLock.unlock();
+        }
+        removed.addAll(ready.removeAllById(notScheduled));
+        return changed(removed);
+    }
+
+    public void requeueAtFront(Task task) {
+        ready.requeueAtFront(task);
+        modCount.incrementAndGet();
+    }
+
+    public void requeueAllAtFront(List<Task> tasks) {
+        ready.requeueAllAtFront(tasks);
+        modCount.incrementAndGet();
+    }
+
+    public void setSchedulingPolicy(TaskSchedulingPolicy policy) {
+        ready.setSchedulingPolicy(policy);
+        modCount.incrementAndGet();
+    }
+
+    public boolean isEmpty() {
+        return scheduled == 0 && ready.isEmpty();
+    }
+
+    public int size() {
+        return ready.size() + scheduled;
+    }
+
+    public int scheduledCount() {
+        return scheduled;
+    }
+
+    /**
+     * Returns the ready tasks in serving order followed by the scheduled ones by due time.
+     */
+    public List<Task> toList() {
+        promoteDue();
+        List<Task> tasks = new ArrayList<>(ready.toList());
+        tasks.addAll(scheduledTasks());
+        return tasks;
+    }
+
+    /**
+     * Reads the ready tasks through the wrapped queue's cursor, then the scheduled ones by due time.
+     * The scheduled tasks are copied and sorted only once the cursor gets past the ready ones; any
+     * change through this stage after the cursor opened, promotions included, fails it.
+     */
+    public Cursor<Task> cursor() {
+        promoteDue();
+        Cursor<Task> readyTasks = ready.cursor();
+        return new Cursor<>(modCount.get()) {
+            private List<Task> waiting;
+            private int index;
+
+            protected int modCount() {
+                return modCount.get();
+            }
+
+            protected boolean hasMore() {
+                return readyTasks.hasNext() || index < waiting().size();
+            }
+
+            protected Task advance() {
+                return readyTasks.hasNext() ? readyTasks.next() : waiting().get(index++);
+            }
+
+            protected int jump(int count) {
+                int skipped = readyTasks.jump(count);
+                if (skipped < count) {
+                    int more = Math.min(count - skipped, waiting().size() - index);
+                    index += more;
+                    skipped += more;
+                }
+                return skipped;
+            }
+
+            private List<Task> waiting() {
+                if (waiting == null) {
+                    waiting = scheduledTasks();
+                }
+                return waiting;
+            }
+        };
+    }
+
+    private List<Task> scheduledTasks() {
+        if (scheduled == 0) {
+            return List.of();
+        }
+        wheelLock.lock();
+        try {
+            return wheel.toList();
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    /**
+     * Moves every task whose tick has passed into the wrapped queue. Between tick boundaries, or
+     * with nothing scheduled, this is a couple of volatile reads.
+     */
+    private void promoteDue() {
+        if (scheduled == 0 || currentTick() <= promotedTick) {
+            return;
+        }
+        wheelLock.lock();
+        try {
+            List<Task> due = new ArrayList<>();
+            advance(due);
+            scheduled = wheel.size();
+            ready.addAll(due);
+            if (!due.isEmpty()) {
+                modCount.incrementAndGet();
+            }
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    /**
+     * Counts a change when the operation returned something, and passes the result through.
+     */
+    private <T> T changed(T result) {
+        if (result != null && !(result instanceof Collection<?> collection && collection.isEmpty())) {
+            modCount.incrementAndGet();
+        }
+        return result;
+    }
+
+    private boolean scheduleIfFuture(Task task) {
+        long due = dueTick(task);
+        if (due <= promotedTick || due <= currentTick()) {
+            return false;
+        }
+        wheelLock.lock();
+        try {
+            List<Task> nowDue = new ArrayList<>();
+            advance(nowDue);
+            boolean stored = wheel.schedule(task, due);
+            scheduled = wheel.size();
+            ready.addAll(nowDue);
+            return stored;
+        } finally {
+            wheelLock.unlock();
+        }
+    }
+
+    /**
+     * Advances the wheel to the current tick; the caller must hold the wheel lock.
+     */
+    private void advance(List<Task> due) {
+        long now = currentTick();
+        wheel.advanceTo(now, due::add);
+        promotedTick = wheel.currentTick();
+    }
+
+    private long currentTick() {
+        return Math.floorDiv(clock.millis(), tickMillis);
+    }
+
+    /**
+     * First tick at or after the task's not-before time, so a task is never released early.
+     */
+    private long dueTick(Task task) {
+        LocalDateTime notBefore = task.getNotBefore();
+        if (notBefore == null) {
+            return Long.MIN_VALUE;
+        }
+        long millis = notBefore.atZone(clock.getZone()).toInstant().toEpochMilli();
+        return Math.floorDiv(millis + tickMillis - 1, tickMillis);
+    }
+}
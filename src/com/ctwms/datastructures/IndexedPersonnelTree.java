@@ -0,0 +1,481 @@
+package com.ctwms.datastructures;
+
+import com.ctwms.model.Personnel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Order-statistic treap storing {@link Personnel} records by position.
+ * <p>
+ * Each node keeps the size of its subtree, so insert, remove, get-by-index and append are
+ * {@code O(log n)} expected while preserving the same positional semantics as
+ * {@link PersonnelLinkedList}. Parent links let a node found through the name/id index report
+ * its position without a scan.
+ */
+public class IndexedPersonnelTree implements PersonnelStore {
+    private static class Node extends PersonnelKeyIndex.Entry {
+        private final int priority;
+        private Node left;
+        private Node right;
+        private Node parent;
+        private int size = 1;
+
+        Node(Personnel data, int priority) {
+            super(data);
+            this.priority = priority;
+        }
+    }
+
+    private static final Comparator<Node> NAME_ORDER = (a, b) -> a.nameKey.compareTo(b.nameKey);
+
+    private Node root;
+    private int modCount;
+    private final PersonnelKeyIndex keyIndex = new PersonnelKeyIndex();
+    private int seed = 0x2545F491;
+
+    // Results of the last split, kept in fields to avoid allocating a pair per call.
+    private Node splitLeft;
+    private Node splitRight;
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    public void insertAtPosition(Personnel personnel, int position) {
+        if (personnel == null) {
+            return;
+        }
+        Node node = new Node(personnel, nextPriority());
+        int target = Math.max(0, Math.min(position, size()));
+        split(root, target);
+        Node right = splitRight;
+        root = merge(merge(splitLeft, node), right);
+        root.parent = null;
+        keyIndex.add(node);
+        modCount++;
+    }
+
+    /**
+     * Builds a treap over the new records in linear time and merges it after the existing root.
+     */
+    public void appendAll(List<Personnel> personnel) {
+        if (personnel == null || personnel.isEmpty()) {
+            return;
+        }
+        Node appended = build(newNodes(personnel));
+        root = merge(root, appended);
+        if (root != null) {
+            root.parent = null;
+        }
+        modCount++;
+    }
+
+    public Personnel get(int index) {
+        Node node = nodeAt(index);
+        return node != null ? node.data : null;
+    }
+
+    public Personnel removeAt(int index) {
+        Node node = nodeAt(index);
+        if (node == null) {
+            return null;
+        }
+        unlink(node);
+        return node.data;
+    }
+
+    /**
+     * Splits the run out of the treap and merges the two sides back together, so only the
+     * removed records are visited: {@code O(log n + (to - from))} expected.
+     */
+    public void removeRange(int from, int to) {
+        int start = Math.max(from, 0);
+        int end = Math.min(to, size());
+        if (start >= end) {
+            return;
+        }
+        split(root, end);
+        Node right = splitRight;
+        split(splitLeft, start);
+        Node left = splitLeft;
+        Node removed = splitRight;
+        root = merge(left, right);
+        if (root != null) {
+            root.parent = null;
+        }
+        removed.parent = null;
+        for (Node current = first(removed); current != null; current = successor(current)) {
+            keyIndex.remove(current);
+        }
+        modCount++;
+    }
+
+    public RemovalResult removeByName(String name) {
+        Node node = firstByName(name);
+        if (node == null) {
+            return RemovalResult.notFound();
+        }
+        int index = rankOf(node);
+        unlink(node);
+        return new RemovalResult(true, node.data, index);
+    }
+
+    public Personnel removeById(String id) {
+        Node node = firstById(id);
+        if (node == null) {
+            return null;
+        }
+        unlink(node);
+        return node.data;
+    }
+
+    public Personnel findByName(String name) {
+        Node node = firstByName(name);
+        return node != null ? node.data : null;
+    }
+
+    public int indexOf(String name) {
+        Node node = firstByName(name);
+        return node != null ? rankOf(node) : -1;
+    }
+
+    /**
+     * Stable sort by personnel name (case-insensitive); the nodes are relinked into a fresh
+     * treap in linear time after sorting.
+     */
+    public int[] sortByName() {
+        Node[] nodes = collectNodes();
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i].ordinal = i;
+        }
+        if (nodes.length > 1) {
+            Arrays.sort(nodes, NAME_ORDER);
+            root = build(nodes);
+            modCount++;
+        }
+        int[] originalPositions = new int[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            originalPositions[i] = nodes[i].ordinal;
+        }
+        return originalPositions;
+    }
+
+    public boolean restoreOrder(int[] originalPositions) {
+        if (!PersonnelKeyIndex.isPermutation(originalPositions, size())) {
+            return false;
+        }
+        Node[] current = collectNodes();
+        Node[] restored = new Node[current.length];
+        for (int i = 0; i < current.length; i++) {
+            restored[originalPositions[i]] = current[i];
+        }
+        root = build(restored);
+        modCount++;
+        return true;
+    }
+
+    public void forEach(Consumer<? super Personnel> action) {
+        for (Node current = first(root); current != null; current = successor(current)) {
+            action.accept(current.data);
+        }
+    }
+
+    /**
+     * Reads the treap in order; {@link Cursor#skip(int)} descends by subtree size in
+     * {@code O(log n)}.
+     */
+    public Cursor<Personnel> cursor() {
+        return new Cursor<>(modCount) {
+            private Node node = first(root);
+            private int index;
+
+            protected int modCount() {
+                return IndexedPersonnelTree.this.modCount;
+            }
+
+            protected boolean hasMore() {
+                return node != null;
+            }
+
+            protected Personnel advance() {
+                Personnel personnel = node.data;
+                node = successor(node);
+                index++;
+                return personnel;
+            }
+
+            protected int jump(int count) {
+                int skipped = Math.min(count, size() - index);
+                index += skipped;
+                node = nodeAt(index);
+                return skipped;
+            }
+        };
+    }
+
+    public List<Personnel> toList() {
+        List<Personnel> list = new ArrayList<>(size());
+        Node current = first(root);
+        while (current != null) {
+            list.add(current.data);
+            current = successor(current);
+        }
+        return list;
+    }
+
+    public void replaceAll(List<Personnel> orderedPersonnel) {
+        root = null;
+        modCount++;
+        keyIndex.clear();
+        appendAll(orderedPersonnel);
+    }
+
+    private Node[] newNodes(List<Personnel> personnel) {
+        Node[] nodes = new Node[personnel.size()];
+        int count = 0;
+        for (Personnel record : personnel) {
+            if (record == null) {
+                continue;
+            }
+            Node node = new Node(record, nextPriority());
+            keyIndex.add(node);
+            nodes[count++] = node;
+        }
+        return count == nodes.length ? nodes : Arrays.copyOf(nodes, count);
+    }
+
+    private Node firstByName(String name) {
+        if (name == null) {
+            return null;
+        }
+        Node node = (Node) keyIndex.anyByName(PersonnelKeyIndex.fold(name));
+        if (node == null || node.nextSameName() == null) {
+            return node;
+        }
+        Node best = node;
+        int bestRank = rankOf(node);
+        for (Node other = (Node) node.nextSameName(); other != null; other = (Node) other.nextSameName()) {
+            int rank = rankOf(other);
+            if (rank < bestRank) {
+                best = other;
+                bestRank = rank;
+            }
+        }
+        return best;
+    }
+
+    private Node firstById(String id) {
+        if (id == null) {
+            return null;
+        }
+        Node node = (Node) keyIndex.anyById(PersonnelKeyIndex.fold(id));
+        if (node == null || node.nextSameId() == null) {
+            return node;
+        }
+        Node best = node;
+        int bestRank = rankOf(node);
+        for (Node other = (Node) node.nextSameId(); other != null; other = (Node) other.nextSameId()) {
+            int rank = rankOf(other);
+            if (rank < bestRank) {
+                best = other;
+                bestRank = rank;
+            }
+        }
+        return best;
+    }
+
+    private Node nodeAt(int index) {
+        if (index < 0 || index >= size()) {
+            return null;
+        }
+        Node current = root;
+        while (current != null) {
+            int leftSize = size(current.left);
+            if (index < leftSize) {
+                current = current.left;
+            } else if (index == leftSize) {
+                return current;
+            } else {
+                index -= leftSize + 1;
+                current = current.right;
+            }
+        }
+        return null;
+    }
+
+    private int rankOf(Node node) {
+        int rank = size(node.left);
+        Node current = node;
+        while (current.parent != null) {
+            if (current.parent.right == current) {
+                rank += size(current.parent.left) + 1;
+            }
+            current = current.parent;
+        }
+        return rank;
+    }
+
+    /**
+     * Removes the node by merging its children into its place and shrinking the ancestors.
+     */
+    private void unlink(Node node) {
+        Node replacement = merge(node.left, node.right);
+        Node parent = node.parent;
+        if (replacement != null) {
+            replacement.parent = parent;
+        }
+        if (parent == null) {
+            root = replacement;
+        } else if (parent.left == node) {
+            parent.left = replacement;
+        } else {
+            parent.right = replacement;
+        }
+        for (Node ancestor = parent; ancestor != null; ancestor = ancestor.parent) {
+            ancestor.size--;
+        }
+        node.left = null;
+        node.right = null;
+        node.parent = null;
+        keyIndex.remove(node);
+        modCount++;
+    }
+
+    /**
+     * Splits the subtree so that its first {@code count} nodes land in {@link #splitLeft}.
+     */
+    private void split(Node node, int count) {
+        if (node == null) {
+            splitLeft = null;
+            splitRight = null;
+            return;
+        }
+        if (size(node.left) >= count) {
+            split(node.left, count);
+            node.left = splitRight;
+            update(node);
+            splitRight = node;
+        } else {
+            split(node.right, count - size(node.left) - 1);
+            node.right = splitLeft;
+            update(node);
+            splitLeft = node;
+        }
+    }
+
+    private Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            update(left);
+            return left;
+        }
+        right.left = merge(left, right.left);
+        update(right);
+        return right;
+    }
+
+    /**
+     * Builds a treap over nodes already in positional order using the stack-based Cartesian
+     * tree construction, which runs in linear time.
+     */
+    private Node build(Node[] nodes) {
+        Node[] stack = new Node[nodes.length];
+        int top = -1;
+        for (Node node : nodes) {
+            node.left = null;
+            node.right = null;
+            node.parent = null;
+            Node last = null;
+            while (top >= 0 && stack[top].priority < node.priority) {
+                last = stack[top--];
+            }
+            node.left = last;
+            if (last != null) {
+                last.parent = node;
+            }
+            if (top >= 0) {
+                stack[top].right = node;
+                node.parent = stack[top];
+            }
+            stack[++top] = node;
+        }
+        Node built = top >= 0 ? stack[0] : null;
+        recomputeSizes(built);
+        return built;
+    }
+
+    private int recomputeSizes(Node node) {
+        if (node == null) {
+            return 0;
+        }
+        node.size = 1 + recomputeSizes(node.left) + recomputeSizes(node.right);
+        return node.size;
+    }
+
+    private Node[] collectNodes() {
+        Node[] nodes = new Node[size()];
+        int index = 0;
+        Node current = first(root);
+        while (current != null) {
+            nodes[index++] = current;
+            current = successor(current);
+        }
+        return nodes;
+    }
+
+    private Node first(Node node) {
+        if (node == null) {
+            return null;
+        }
+        while (node.left != null) {
+            node = node.left;
+        }
+        return node;
+    }
+
+    private Node successor(Node node) {
+        if (node.right != null) {
+            return first(node.right);
+        }
+        Node current = node;
+        while (current.parent != null && current.parent.right == current) {
+            current = current.parent;
+        }
+        return current.parent;
+    }
+
+    private void update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+        if (node.left != null) {
+            node.left.parent = node;
+        }
+        if (node.right != null) {
+            node.right.parent = node;
+        }
+    }
+
+    private static int size(Node node) {
+        return node != null ? node.size : 0;
+    }
+
+    private int nextPriority() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+}
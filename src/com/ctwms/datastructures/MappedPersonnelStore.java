@@ -0,0 +1,704 @@
+package com.ctwms.datastructures;
+
+import com.ctwms.model.Personnel;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Consumer;
+
+/**
+ * Personnel store that keeps every record off the Java heap in memory-mapped scratch files.
+ * <p>
+ * Each record is a fixed 48-byte row pointing at its five strings in a UTF-8 arena. A position
+ * array maps list order to rows, and two bucket tables chain rows through the rows themselves by
+ * case-folded name and id hash, so {@link #findByName}, {@link #indexOf} and the removals by name or id cost
+ * one hash probe plus the rows sharing that hash. Appends are {@code O(1)}; inserting or removing
+ * elsewhere shifts the position array, {@code O(n)} int moves. {@link Personnel} objects are only
+ * materialized when a caller reads a record, and {@link #toList()} is a live view that decodes on
+ * {@code get}; it fails fast once the store changes, so copy it before mutating. Heap use does not
+ * grow with the directory, apart from the transient key array built by {@link #sortByName()}.
+ * <p>
+ * The files are scratch space rebuilt from the journal on every start, not a persistent format.
+ * Each region is limited to 2 GiB. Not thread-safe.
+ */
+public class MappedPersonnelStore implements PersonnelStore, Closeable {
+    private static final int ROW_BYTES = 48;
+    private static final int ROW_ARENA = 0;
+    private static final int ROW_LENGTHS = 4;
+    private static final int ROW_NAME_HASH = 24;
+    private static final int ROW_NAME_NEXT = 28;
+    private static final int ROW_ID_HASH = 32;
+    private static final int ROW_ID_NEXT = 36;
+    private static final int ROW_POSITION = 40;
+    private static final int ROW_FREE_NEXT = 44;
+    private static final int FIELDS = 5;
+    private static final int NAME_FIELD = 1;
+    private static final int ID_FIELD = 0;
+    private static final int MIN_BUCKETS = 1024;
+    private static final int SHIFT_CHUNK_BYTES = 64 * 1024;
+
+    private final Path directory;
+    private final boolean deleteDirectoryOnClose;
+    private final Region rows;
+    private final Region order;
+    private final Region nameBuckets;
+    private final Region idBuckets;
+    private Region arena;
+    private final byte[] shiftScratch = new byte[SHIFT_CHUNK_BYTES];
+    private byte[] stringScratch = new byte[256];
+    private int size;
+    private int rowCount;
+    private int freeRow = -1;
+    private int bucketMask;
+    private int arenaLength;
+    private long liveArenaBytes;
+    private int arenaGeneration;
+    private int modCount;
+
+    /**
+     * Creates a store in a fresh temporary directory that is removed by {@link #close()} or, failing
+     * that, when the JVM exits.
+     */
+    public MappedPersonnelStore() {
+        this(createTempDirectory(), true);
+    }
+
+    /**
+     * Creates a store whose scratch files live in {@code directory}; existing files are overwritten.
+     */
+    public MappedPersonnelStore(Path directory) {
+        this(directory, false);
+    }
+
+    private MappedPersonnelStore(Path directory, boolean deleteDirectoryOnClose) {
+        this.directory = directory;
+        this.deleteDirectoryOnClose = deleteDirectoryOnClose;
+        try {
+            Files.createDirectories(directory);
+            if (deleteDirectoryOnClose) {
+                directory.toFile().deleteOnExit();
+            }
+            boolean temporary = deleteDirectoryOnClose;
+            rows = new Region(directory.resolve("personnel.rows"), 1024L * ROW_BYTES, temporary);
+            order = new Region(directory.resolve("personnel.order"), 1024L * Integer.BYTES, temporary);
+            nameBuckets = new Region(directory.resolve("personnel.names"), (long) MIN_BUCKETS * Integer.BYTES, temporary);
+            idBuckets = new Region(directory.resolve("personnel.ids"), (long) MIN_BUCKETS * Integer.BYTES, temporary);
+            arena = new Region(arenaPath(0), 64 * 1024, temporary);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create the personnel store in " + directory, e);
+        }
+        bucketMask = MIN_BUCKETS - 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void insertAtPosition(Personnel personnel, int position) {
+        if (personnel == null) {
+            return;
+        }
+        int target = Math.max(0, Math.min(position, size));
+        int row = storeRow(personnel);
+        ensureOrderCapacity(size + 1);
+        shift(target, size, 1);
+        size++;
+        setOrder(target, row);
+        renumber(target, size);
+        modCount++;
+    }
+
+    public void appendAll(List<Personnel> personnel) {
+        if (personnel == null) {
+            return;
+        }
+        ensureOrderCapacity(size + personnel.size());
+        for (Personnel record : personnel) {
+            if (record == null) {
+                continue;
+            }
+            int row = storeRow(record);
+            setOrder(size, row);
+            rows.buffer.putInt(rowOffset(row) + ROW_POSITION, size);
+            size++;
+        }
+        modCount++;
+    }
+
+    public Personnel get(int index) {
+        if (index < 0 || index >= size) {
+            return null;
+        }
+        return materialize(orderAt(index));
+    }
+
+    public Personnel removeAt(int index) {
+        if (index < 0 || index >= size) {
+            return null;
+        }
+        int row = orderAt(index);
+        Personnel removed = materialize(row);
+        shift(index + 1, size, -1);
+        size--;
+        renumber(index, size);
+        releaseRow(row);
+        modCount++;
+        return removed;
+    }
+
+    /**
+     * Releases the rows of the run and closes the gap in the position array with one shift.
+     */
+    public void removeRange(int from, int to) {
+        int start = Math.max(from, 0);
+        int end = Math.min(to, size);
+        if (start >= end) {
+            return;
+        }
+        for (int i = start; i < end; i++) {
+            releaseRow(orderAt(i));
+        }
+        shift(end, size, start - end);
+        size -= end - start;
+        renumber(start, size);
+        modCount++;
+    }
+
+    public RemovalResult removeByName(String name) {
+        int row = firstMatch(name, NAME_FIELD);
+        if (row < 0) {
+            return RemovalResult.notFound();
+        }
+        int index = positionOf(row);
+        return new RemovalResult(true, removeAt(index), index);
+    }
+
+    public Personnel removeById(String id) {
+        int row = firstMatch(id, ID_FIELD);
+        return row < 0 ? null : removeAt(positionOf(row));
+    }
+
+    public Personnel findByName(String name) {
+        int row = firstMatch(name, NAME_FIELD);
+        return row < 0 ? null : materialize(row);
+    }
+
+    public int indexOf(String name) {
+        int row = firstMatch(name, NAME_FIELD);
+        return row < 0 ? -1 : positionOf(row);
+    }
+
+    /**
+     * Stable merge sort of the position array by case-folded name. The folded names are decoded
+     * into a transient array for the duration of the sort.
+     */
+    public int[] sortByName() {
+        int[] positions = new int[size];
+        String[] keys = new String[size];
+        for (int i = 0; i < size; i++) {
+            positions[i] = i;
+            keys[i] = PersonnelKeyIndex.fold(readField(orderAt(i), NAME_FIELD));
+        }
+        int[] scratch = new int[size];
+        mergeSort(positions, scratch, keys, 0, size);
+        applyOrder(positions, false);
+        modCount++;
+        return positions;
+    }
+
+    public boolean restoreOrder(int[] originalPositions) {
+        if (!PersonnelKeyIndex.isPermutation(originalPositions, size)) {
+            return false;
+        }
+        applyOrder(originalPositions, true);
+        modCount++;
+        return true;
+    }
+
+    /**
+     * Decodes one record at a time; the action must not modify the store.
+     */
+    public void forEach(Consumer<? super Personnel> action) {
+        for (int i = 0; i < size; i++) {
+            action.accept(materialize(orderAt(i)));
+        }
+    }
+
+    /**
+     * Decodes each record as the cursor reaches it; skipping is an index move.
+     */
+    public Cursor<Personnel> cursor() {
+        return new Cursor<>(modCount) {
+            private int index;
+
+            protected int modCount() {
+                return MappedPersonnelStore.this.modCount;
+            }
+
+            protected boolean hasMore() {
+                return index < size;
+            }
+
+            protected Personnel advance() {
+                return materialize(orderAt(index++));
+            }
+
+            protected int jump(int count) {
+                int skipped = Math.min(count, size - index);
+                index += skipped;
+                return skipped;
+            }
+        };
+    }
+
+    /**
+     * Returns a read-only view that decodes records on access; it throws
+     * {@link ConcurrentModificationException} once the store has changed.
+     */
+    public List<Personnel> toList() {
+        return new MappedView();
+    }
+
+    public void replaceAll(List<Personnel> orderedPersonnel) {
+        clear();
+        appendAll(orderedPersonnel);
+    }
+
+    /**
+     * Bytes currently mapped across all regions, for reporting.
+     */
+    public long mappedBytes() {
+        return rows.capacity + order.capacity + nameBuckets.capacity + idBuckets.capacity + arena.capacity;
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    /**
+     * Closes the scratch files and deletes them. The store must not be used afterwards.
+     */
+    public void close() throws IOException {
+        Region[] regions = {rows, order, nameBuckets, idBuckets, arena};
+        for (Region region : regions) {
+            region.close();
+            Files.deleteIfExists(region.file);
+        }
+        if (deleteDirectoryOnClose) {
+            Files.deleteIfExists(directory);
+        }
+    }
+
+    private void clear() {
+        size = 0;
+        rowCount = 0;
+        freeRow = -1;
+        liveArenaBytes = 0;
+        arenaLength = 0;
+        rehash(MIN_BUCKETS);
+        modCount++;
+    }
+
+    // ---- rows and strings -------------------------------------------------------------------
+
+    private int storeRow(Personnel personnel) {
+        int row;
+        if (freeRow >= 0) {
+            row = freeRow;
+            freeRow = rows.buffer.getInt(rowOffset(row) + ROW_FREE_NEXT);
+        } else {
+            if (rowCount == Integer.MAX_VALUE / ROW_BYTES) {
+                throw new IllegalStateException("Mapped personnel store is full");
+            }
+            row = rowCount++;
+            rows.ensure((long) rowCount * ROW_BYTES);
+        }
+        if ((long) (size + 1) * 4 > (long) (bucketMask + 1) * 3) {
+            rehash((bucketMask + 1) * 2);
+        }
+        String[] fields = {personnel.getId(), personnel.getName(), personnel.getRole(),
+                personnel.getDepartment(), personnel.getEmail()};
+        byte[][] encoded = new byte[FIELDS][];
+        int total = 0;
+        for (int i = 0; i < FIELDS; i++) {
+            if (fields[i] != null) {
+                encoded[i] = fields[i].getBytes(StandardCharsets.UTF_8);
+                total += encoded[i].length;
+            }
+        }
+        int start = allocateArena(total);
+        int offset = rowOffset(row);
+        ByteBuffer rowBuffer = rows.buffer;
+        rowBuffer.putInt(offset + ROW_ARENA, start);
+        int cursor = start;
+        for (int i = 0; i < FIELDS; i++) {
+            rowBuffer.putInt(offset + ROW_LENGTHS + i * Integer.BYTES, encoded[i] != null ? encoded[i].length : -1);
+            if (encoded[i] != null) {
+                arena.buffer.put(cursor, encoded[i]);
+                cursor += encoded[i].length;
+            }
+        }
+        liveArenaBytes += total;
+        rowBuffer.putInt(offset + ROW_NAME_HASH, PersonnelKeyIndex.fold(fields[NAME_FIELD]).hashCode());
+        rowBuffer.putInt(offset + ROW_ID_HASH, PersonnelKeyIndex.fold(fields[ID_FIELD]).hashCode());
+        link(row, NAME_FIELD);
+        link(row, ID_FIELD);
+        return row;
+    }
+
+    private void releaseRow(int row) {
+        unlink(row, NAME_FIELD);
+        unlink(row, ID_FIELD);
+        liveArenaBytes -= rowArenaBytes(row);
+        rows.buffer.putInt(rowOffset(row) + ROW_FREE_NEXT, freeRow);
+        freeRow = row;
+    }
+
+    private Personnel materialize(int row) {
+        return new Personnel(readField(row, ID_FIELD), readField(row, NAME_FIELD), readField(row, 2),
+                readField(row, 3), readField(row, 4));
+    }
+
+    private String readField(int row, int field) {
+        int offset = rowOffset(row);
+        int length = rows.buffer.getInt(offset + ROW_LENGTHS + field * Integer.BYTES);
+        if (length < 0) {
+            return null;
+        }
+        int start = rows.buffer.getInt(offset + ROW_ARENA);
+        for (int i = 0; i < field; i++) {
+            start += Math.max(0, rows.buffer.getInt(offset + ROW_LENGTHS + i * Integer.BYTES));
+        }
+        if (stringScratch.length < length) {
+            stringScratch = new byte[Math.max(length, stringScratch.length * 2)];
+        }
+        arena.buffer.get(start, stringScratch, 0, length);
+        return new String(stringScratch, 0, length, StandardCharsets.UTF_8);
+    }
+
+    private int rowArenaBytes(int row) {
+        int offset = rowOffset(row);
+        int total = 0;
+        for (int i = 0; i < FIELDS; i++) {
+            total += Math.max(0, rows.buffer.getInt(offset + ROW_LENGTHS + i * Integer.BYTES));
+        }
+        return total;
+    }
+
+    /**
+     * Reserves {@code bytes} at the end of the arena, first compacting it into a new file when more
+     * than half of it belongs to removed records.
+     */
+    private int allocateArena(int bytes) {
+        long garbage = arenaLength - liveArenaBytes;
+        if (garbage > arenaLength / 2 && garbage > 1024 * 1024) {
+            compactArena();
+        }
+        long end = (long) arenaLength + bytes;
+        if (end > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Mapped personnel arena is full");
+        }
+        arena.ensure(end);
+        int start = arenaLength;
+        arenaLength = (int) end;
+        return start;
+    }
+
+    private void compactArena() {
+        Region compacted;
+        try {
+            compacted = new Region(arenaPath(arenaGeneration + 1), Math.max(64 * 1024, liveArenaBytes),
+                    deleteDirectoryOnClose);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to compact the personnel arena", e);
+        }
+        int cursor = 0;
+        for (int i = 0; i < size; i++) {
+            int offset = rowOffset(orderAt(i));
+            int start = rows.buffer.getInt(offset + ROW_ARENA);
+            int length = rowArenaBytes(orderAt(i));
+            compacted.buffer.put(cursor, arena.buffer, start, length);
+            rows.buffer.putInt(offset + ROW_ARENA, cursor);
+            cursor += length;
+        }
+        Region old = arena;
+        arena = compacted;
+        arenaGeneration++;
+        arenaLength = cursor;
+        try {
+            old.close();
+            Files.deleteIfExists(old.file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to remove the old personnel arena", e);
+        }
+    }
+
+    // ---- hash chains ------------------------------------------------------------------------
+
+    /**
+     * Returns the row of the earliest record in list order whose name (or id) matches, or -1.
+     */
+    private int firstMatch(String value, int field) {
+        if (value == null) {
+            return -1;
+        }
+        String key = PersonnelKeyIndex.fold(value);
+        int hash = key.hashCode();
+        Region buckets = field == NAME_FIELD ? nameBuckets : idBuckets;
+        int hashSlot = field == NAME_FIELD ? ROW_NAME_HASH : ROW_ID_HASH;
+        int nextSlot = field == NAME_FIELD ? ROW_NAME_NEXT : ROW_ID_NEXT;
+        int best = -1;
+        int bestPosition = Integer.MAX_VALUE;
+        for (int row = buckets.buffer.getInt(bucketOffset(hash)) - 1; row >= 0;
+             row = rows.buffer.getInt(rowOffset(row) + nextSlot) - 1) {
+            int offset = rowOffset(row);
+            if (rows.buffer.getInt(offset + hashSlot) != hash) {
+                continue;
+            }
+            int position = rows.buffer.getInt(offset + ROW_POSITION);
+            if (position < bestPosition && key.equals(PersonnelKeyIndex.fold(readField(row, field)))) {
+                best = row;
+                bestPosition = position;
+            }
+        }
+        return best;
+    }
+
+    private void link(int row, int field) {
+        Region buckets = field == NAME_FIELD ? nameBuckets : idBuckets;
+        int offset = rowOffset(row);
+        int hash = rows.buffer.getInt(offset + (field == NAME_FIELD ? ROW_NAME_HASH : ROW_ID_HASH));
+        int bucket = bucketOffset(hash);
+        rows.buffer.putInt(offset + (field == NAME_FIELD ? ROW_NAME_NEXT : ROW_ID_NEXT),
+                buckets.buffer.getInt(bucket));
+        buckets.buffer.putInt(bucket, row + 1);
+    }
+
+    private void unlink(int row, int field) {
+        Region buckets = field == NAME_FIELD ? nameBuckets : idBuckets;
+        int nextSlot = field == NAME_FIELD ? ROW_NAME_NEXT : ROW_ID_NEXT;
+        int hash = rows.buffer.getInt(rowOffset(row) + (field == NAME_FIELD ? ROW_NAME_HASH : ROW_ID_HASH));
+        int bucket = bucketOffset(hash);
+        int next = rows.buffer.getInt(rowOffset(row) + nextSlot);
+        int current = buckets.buffer.getInt(bucket) - 1;
+        if (current == row) {
+            buckets.buffer.putInt(bucket, next);
+            return;
+        }
+        while (current >= 0) {
+            int following = rows.buffer.getInt(rowOffset(current) + nextSlot) - 1;
+            if (following == row) {
+                rows.buffer.putInt(rowOffset(current) + nextSlot, next);
+                return;
+            }
+            current = following;
+        }
+    }
+
+    private void rehash(int bucketCount) {
+        bucketMask = bucketCount - 1;
+        nameBuckets.reset((long) bucketCount * Integer.BYTES);
+        idBuckets.reset((long) bucketCount * Integer.BYTES);
+        for (int i = 0; i < size; i++) {
+            link(orderAt(i), NAME_FIELD);
+            link(orderAt(i), ID_FIELD);
+        }
+    }
+
+    private int bucketOffset(int hash) {
+        int spread = hash ^ (hash >>> 16);
+        return (spread & bucketMask) * Integer.BYTES;
+    }
+
+    // ---- position array ---------------------------------------------------------------------
+
+    private int orderAt(int index) {
+        return order.buffer.getInt(index * Integer.BYTES);
+    }
+
+    private void setOrder(int index, int row) {
+        order.buffer.putInt(index * Integer.BYTES, row);
+    }
+
+    private int positionOf(int row) {
+        return rows.buffer.getInt(rowOffset(row) + ROW_POSITION);
+    }
+
+    private void ensureOrderCapacity(int entries) {
+        order.ensure((long) entries * Integer.BYTES);
+    }
+
+    /**
+     * Moves the position entries {@code [from, to)} by {@code distance} slots, in chunks ordered so
+     * that overlapping ranges are not overwritten before they are read.
+     */
+    private void shift(int from, int to, int distance) {
+        int remaining = (to - from) * Integer.BYTES;
+        int chunk = shiftScratch.length;
+        ByteBuffer buffer = order.buffer;
+        while (remaining > 0) {
+            int length = Math.min(chunk, remaining);
+            int source = distance > 0 ? from * Integer.BYTES + remaining - length
+                    : to * Integer.BYTES - remaining;
+            buffer.get(source, shiftScratch, 0, length);
+            buffer.put(source + distance * Integer.BYTES, shiftScratch, 0, length);
+            remaining -= length;
+        }
+    }
+
+    private void renumber(int from, int to) {
+        for (int i = from; i < to; i++) {
+            rows.buffer.putInt(rowOffset(orderAt(i)) + ROW_POSITION, i);
+        }
+    }
+
+    /**
+     * Rewrites the position array from a permutation: with {@code restore} false, entry {@code i}
+     * of {@code positions} names the old position of the record that moves to {@code i}; with it
+     * true, the record now at {@code i} moves to {@code positions[i]}.
+     */
+    private void applyOrder(int[] positions, boolean restore) {
+        int[] current = new int[size];
+        for (int i = 0; i < size; i++) {
+            current[i] = orderAt(i);
+        }
+        for (int i = 0; i < size; i++) {
+            if (restore) {
+                setOrder(positions[i], current[i]);
+            } else {
+                setOrder(i, current[positions[i]]);
+            }
+        }
+        renumber(0, size);
+    }
+
+    private static void mergeSort(int[] items, int[] scratch, String[] keys, int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(items, scratch, keys, from, middle);
+        mergeSort(items, scratch, keys, middle, to);
+        if (keys[items[middle - 1]].compareTo(keys[items[middle]]) <= 0) {
+            return;
+        }
+        System.arraycopy(items, from, scratch, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int i = from; i < to; i++) {
+            if (left < middle && (right >= to || keys[scratch[left]].compareTo(keys[scratch[right]]) <= 0)) {
+                items[i] = scratch[left++];
+            } else {
+                items[i] = scratch[right++];
+            }
+        }
+    }
+
+    private static int rowOffset(int row) {
+        return row * ROW_BYTES;
+    }
+
+    private Path arenaPath(int generation) {
+        return directory.resolve("personnel.arena." + generation);
+    }
+
+    private static Path createTempDirectory() {
+        try {
+            return Files.createTempDirectory("ctwms-personnel");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to create a directory for the personnel store", e);
+        }
+    }
+
+    private final class MappedView extends AbstractList<Personnel> implements RandomAccess {
+        private final int expectedModCount = MappedPersonnelStore.this.modCount;
+
+        @Override
+        public Personnel get(int index) {
+            if (MappedPersonnelStore.this.modCount != expectedModCount) {
+                throw new ConcurrentModificationException("Personnel store changed after toList()");
+            }
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException(index);
+            }
+            return materialize(orderAt(index));
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    /**
+     * One memory-mapped file that grows by doubling and is remapped when it does.
+     */
+    private static final class Region {
+        private final Path file;
+        private final FileChannel channel;
+        private MappedByteBuffer buffer;
+        private long capacity;
+
+        Region(Path file, long initialBytes, boolean deleteOnExit) throws IOException {
+            this.file = file;
+            if (deleteOnExit) {
+                file.toFile().deleteOnExit();
+            }
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+            map(initialBytes);
+        }
+
+        void ensure(long bytes) {
+            if (bytes <= capacity) {
+                return;
+            }
+            long grown = capacity;
+            while (grown < bytes) {
+                grown *= 2;
+            }
+            try {
+                map(Math.min(grown, Integer.MAX_VALUE));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to grow " + file, e);
+            }
+        }
+
+        /**
+         * Zero-fills the region and makes it exactly {@code bytes} long.
+         */
+        void reset(long bytes) {
+            try {
+                channel.truncate(0);
+                map(bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Unable to reset " + file, e);
+            }
+        }
+
+        private void map(long bytes) throws IOException {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+            capacity = bytes;
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+}
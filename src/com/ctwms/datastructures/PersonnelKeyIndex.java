@@ -0,0 +1,126 @@
+package com.ctwms.datastructures;
+
+import com.ctwms.model.Personnel;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Case-folded name and id hash indexes shared by the personnel stores.
+ * <p>
+ * Entries with the same key are chained through the entries themselves, so indexing and
+ * unindexing never allocate beyond the map slot.
+ */
+class PersonnelKeyIndex {
+    static class Entry {
+        Personnel data;
+        final String nameKey;
+        final String idKey;
+        // Scratch slot holding the entry's position before a sort.
+        int ordinal;
+        private Entry nextSameName;
+        private Entry prevSameName;
+        private Entry nextSameId;
+        private Entry prevSameId;
+
+        Entry(Personnel data) {
+            this.data = data;
+            this.nameKey = fold(data.getName());
+            this.idKey = fold(data.getId());
+        }
+
+        Entry nextSameName() {
+            return nextSameName;
+        }
+
+        Entry nextSameId() {
+            return nextSameId;
+        }
+    }
+
+    private final Map<String, Entry> byName = new HashMap<>();
+    private final Map<String, Entry> byId = new HashMap<>();
+
+    /**
+     * Returns one entry with the given folded name; callers check {@link Entry#nextSameName()} for duplicates.
+     */
+    Entry anyByName(String nameKey) {
+        return byName.get(nameKey);
+    }
+
+    Entry anyById(String idKey) {
+        return byId.get(idKey);
+    }
+
+    void add(Entry entry) {
+        Entry nameHead = byName.put(entry.nameKey, entry);
+        if (nameHead != null) {
+            entry.nextSameName = nameHead;
+            nameHead.prevSameName = entry;
+        }
+        Entry idHead = byId.put(entry.idKey, entry);
+        if (idHead != null) {
+            entry.nextSameId = idHead;
+            idHead.prevSameId = entry;
+        }
+    }
+
+    void remove(Entry entry) {
+        if (entry.prevSameName == null) {
+            if (entry.nextSameName == null) {
+                byName.remove(entry.nameKey);
+            } else {
+                byName.put(entry.nameKey, entry.nextSameName);
+            }
+        } else {
+            entry.prevSameName.nextSameName = entry.nextSameName;
+        }
+        if (entry.nextSameName != null) {
+            entry.nextSameName.prevSameName = entry.prevSameName;
+        }
+        entry.nextSameName = null;
+        entry.prevSameName = null;
+
+        if (entry.prevSameId == null) {
+            if (entry.nextSameId == null) {
+                byId.remove(entry.idKey);
+            } else {
+                byId.put(entry.idKey, entry.nextSameId);
+            }
+        } else {
+            entry.prevSameId.nextSameId = entry.nextSameId;
+        }
+        if (entry.nextSameId != null) {
+            entry.nextSameId.prevSameId = entry.prevSameId;
+        }
+        entry.nextSameId = null;
+        entry.prevSameId = null;
+    }
+
+    void clear() {
+        byName.clear();
+        byId.clear();
+    }
+
+    /**
+     * Validates that {@code positions} is a permutation of {@code 0..size-1}.
+     */
+    static boolean isPermutation(int[] positions, int size) {
+        if (positions == null || positions.length != size) {
+            return false;
+        }
+        boolean[] seen = new boolean[size];
+        for (int position : positions) {
+            if (position < 0 || position >= size || seen[position]) {
+                return false;
+            }
+            seen[position] = true;
+        }
+        return true;
+    }
+
+    static String fold(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : "";
+    }
+}
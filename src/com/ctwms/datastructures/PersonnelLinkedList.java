@@ -5,46 +5,39 @@ import com.ctwms.model.Personnel;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
+import java.util.function.Consumer;
 
 /**
- * Custom singly linked list dedicated to storing {@link Personnel} records.
+ * Custom doubly linked list dedicated to storing {@link Personnel} records.
+ * <p>
+ * Each node caches its case-folded name and id and is threaded onto a per-key chain so that
+ * lookups and removals by name or id find their node through a hash index instead of walking the
+ * list. Nodes also carry labels that increase along the list, so when {@code k} records share a
+ * key the earliest is picked by comparing the labels of those {@code k} alone. Inserting between
+ * two labels takes their midpoint; the list is relabelled in one pass only when a gap is used up
+ * or after a reorder. A list keeps no positions, though: {@link #indexOf(String)} and the index reported by
+ * {@link #removeByName(String)} are counted from the nearer end, {@code O(min(i, n - i))} for
+ * position {@code i}. {@link IndexedPersonnelTree} reports positions in {@code O(log n)}.
+ * Records must not be renamed while they are stored in the list.
  */
-public class PersonnelLinkedList {
-    private static class Node {
-        private Personnel data;
+public class PersonnelLinkedList implements PersonnelStore {
+    private static class Node extends PersonnelKeyIndex.Entry {
         private Node next;
+        private Node prev;
+        private long label;
 
         Node(Personnel data) {
-            this.data = data;
+            super(data);
         }
     }
 
-    public static class RemovalResult {
-        private final boolean removed;
-        private final Personnel removedPersonnel;
-        private final int index;
-
-        private RemovalResult(boolean removed, Personnel removedPersonnel, int index) {
-            this.removed = removed;
-            this.removedPersonnel = removedPersonnel;
-            this.index = index;
-        }
-
-        public boolean isRemoved() {
-            return removed;
-        }
-
-        public Personnel getRemovedPersonnel() {
-            return removedPersonnel;
-        }
-
-        public int getIndex() {
-            return index;
-        }
-    }
+    private static final long LABEL_GAP = 1L << 20;
 
     private Node head;
+    private Node tail;
     private int size;
+    private int modCount;
+    private final PersonnelKeyIndex keyIndex = new PersonnelKeyIndex();
 
     public int size() {
         return size;
@@ -55,7 +48,8 @@ public class PersonnelLinkedList {
     }
 
     /**
-     * Inserts a personnel record at the exact position requested (0 = head).
+     * Inserts a personnel record at the exact position requested (0 = head). Positions in the
+     * back half of the list are reached from the tail.
      */
     public void insertAtPosition(Personnel personnel, int position) {
         if (personnel == null) {
@@ -64,77 +58,151 @@ public class PersonnelLinkedList {
         Node newNode = new Node(personnel);
         if (position <= 0 || head == null) {
             newNode.next = head;
+            if (head != null) {
+                head.prev = newNode;
+            } else {
+                tail = newNode;
+            }
             head = newNode;
         } else if (position >= size) {
-            Node current = head;
-            while (current.next != null) {
-                current = current.next;
-            }
-            current.next = newNode;
+            tail.next = newNode;
+            newNode.prev = tail;
+            tail = newNode;
         } else {
-            Node prev = head;
-            for (int i = 0; i < position - 1; i++) {
-                prev = prev.next;
-            }
-            newNode.next = prev.next;
-            prev.next = newNode;
+            Node successor = nodeAt(position);
+            newNode.next = successor;
+            newNode.prev = successor.prev;
+            successor.prev.next = newNode;
+            successor.prev = newNode;
         }
+        label(newNode);
+        keyIndex.add(newNode);
         size++;
+        modCount++;
     }
 
     /**
-     * Removes a personnel entry using a case-insensitive name match.
+     * Links every record onto the tail in a single pass.
      */
-    public RemovalResult removeByName(String name) {
-        if (name == null || head == null) {
-            return new RemovalResult(false, null, -1);
+    public void appendAll(List<Personnel> personnel) {
+        if (personnel == null) {
+            return;
         }
-        String target = name.toLowerCase(Locale.ROOT);
-        Node current = head;
-        Node prev = null;
-        int index = 0;
-        while (current != null) {
-            if (current.data.getName().toLowerCase(Locale.ROOT).equals(target)) {
-                if (prev == null) {
-                    head = current.next;
-                } else {
-                    prev.next = current.next;
-                }
-                size--;
-                return new RemovalResult(true, current.data, index);
+        for (Personnel record : personnel) {
+            if (record == null) {
+                continue;
             }
-            prev = current;
-            current = current.next;
-            index++;
+            Node node = new Node(record);
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+                node.prev = tail;
+                node.label = tail.label + LABEL_GAP;
+            }
+            tail = node;
+            keyIndex.add(node);
+            size++;
         }
-        return new RemovalResult(false, null, -1);
+        modCount++;
+    }
+
+    /**
+     * Removes a personnel entry using a case-insensitive name match. The node is found through the
+     * index ({@code O(k)} when {@code k} records share the name); the reported position, which undo needs to put the record back, costs
+     * {@code O(min(i, n - i))}.
+     */
+    public RemovalResult removeByName(String name) {
+        Node node = firstByName(name);
+        if (node == null) {
+            return RemovalResult.notFound();
+        }
+        int index = positionOf(node);
+        unlink(node);
+        return new RemovalResult(true, node.data, index);
     }
 
     public Personnel removeAt(int index) {
         if (index < 0 || index >= size || head == null) {
             return null;
         }
-        Node current = head;
-        Node prev = null;
-        int currentIndex = 0;
-        while (current != null && currentIndex < index) {
-            prev = current;
-            current = current.next;
-            currentIndex++;
+        Node current = nodeAt(index);
+        unlink(current);
+        return current.data;
+    }
+
+    /**
+     * Reaches the first node of the run from the nearer end, then unlinks the whole run with one
+     * splice.
+     */
+    public void removeRange(int from, int to) {
+        int start = Math.max(from, 0);
+        int end = Math.min(to, size);
+        if (start >= end) {
+            return;
         }
-        if (current == null) {
-            return null;
+        Node first = nodeAt(start);
+        Node last = first;
+        keyIndex.remove(first);
+        for (int i = start + 1; i < end; i++) {
+            last = last.next;
+            keyIndex.remove(last);
         }
-        if (prev == null) {
-            head = current.next;
+        Node before = first.prev;
+        Node after = last.next;
+        if (before == null) {
+            head = after;
         } else {
-            prev.next = current.next;
+            before.next = after;
         }
-        size--;
-        return current.data;
+        if (after == null) {
+            tail = before;
+        } else {
+            after.prev = before;
+        }
+        first.prev = null;
+        last.next = null;
+        size -= end - start;
+        modCount++;
     }
 
+    public Personnel get(int index) {
+        if (index < 0 || index >= size) {
+            return null;
+        }
+        return nodeAt(index).data;
+    }
+
+    /**
+     * Finds the earliest record with this name through the index; {@code O(k)} when {@code k}
+     * records share it.
+     */
     public Personnel findByName(String name) {
+        Node node = firstByName(name);
+        return node != null ? node.data : null;
+    }
+
+    /**
+     * Position of the first record with this name, counted from the nearer end of the list.
+     */
+    public int indexOf(String name) {
+        Node node = firstByName(name);
+        return node != null ? positionOf(node) : -1;
+    }
+
+    public Personnel removeById(String id) {
+        Node node = firstById(id);
+        if (node == null) {
+            return null;
+        }
+        unlink(node);
+        return node.data;
+    }
+
+    /**
+     * Reference implementation of {@link #findByName(String)} that scans every node without the index.
+     */
+    public Personnel findByNameLinear(String name) {
         if (name == null) {
             return null;
         }
@@ -149,7 +217,10 @@ public class PersonnelLinkedList {
         return null;
     }
 
-    public int indexOf(String name) {
+    /**
+     * Reference implementation of {@link #indexOf(String)} that scans every node without the index.
+     */
+    public int indexOfLinear(String name) {
         if (name == null) {
             return -1;
         }
@@ -166,63 +237,161 @@ public class PersonnelLinkedList {
         return -1;
     }
 
-    public Personnel removeById(String id) {
-        if (id == null || head == null) {
-            return null;
+    /**
+     * Stable bottom-up merge sort by personnel name (case-insensitive). Existing nodes are relinked
+     * in place and compared through their precomputed case-folded name, so sorting allocates nothing
+     * per record. Runs are merged binary-counter style ({@code runs[i]} holds 2^i nodes), which
+     * keeps freshly merged nodes hot in cache.
+     */
+    public int[] sortByName() {
+        int ordinal = 0;
+        for (Node node = head; node != null; node = node.next) {
+            node.ordinal = ordinal++;
         }
-        String target = id.toLowerCase(Locale.ROOT);
+        if (head == null || head.next == null) {
+            return collectOrdinals();
+        }
+        Node[] runs = new Node[Integer.SIZE];
         Node current = head;
-        Node prev = null;
         while (current != null) {
-            if (current.data.getId().toLowerCase(Locale.ROOT).equals(target)) {
-                if (prev == null) {
-                    head = current.next;
-                } else {
-                    prev.next = current.next;
-                }
-                size--;
-                return current.data;
-            }
-            prev = current;
+            Node carry = current;
             current = current.next;
+            carry.next = null;
+            int level = 0;
+            while (runs[level] != null) {
+                carry = mergeRuns(runs[level], carry);
+                runs[level] = null;
+                level++;
+            }
+            runs[level] = carry;
         }
-        return null;
+        Node sorted = null;
+        for (Node run : runs) {
+            if (run != null) {
+                sorted = mergeRuns(run, sorted);
+            }
+        }
+        head = sorted;
+        Node prev = null;
+        for (Node node = head; node != null; node = node.next) {
+            node.prev = prev;
+            prev = node;
+        }
+        tail = prev;
+        relabel();
+        modCount++;
+        return collectOrdinals();
+    }
+
+    public boolean restoreOrder(int[] originalPositions) {
+        if (!PersonnelKeyIndex.isPermutation(originalPositions, size)) {
+            return false;
+        }
+        Node[] restored = new Node[size];
+        int index = 0;
+        for (Node node = head; node != null; node = node.next) {
+            restored[originalPositions[index++]] = node;
+        }
+        head = null;
+        tail = null;
+        for (Node node : restored) {
+            node.next = null;
+            node.prev = tail;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+        }
+        relabel();
+        modCount++;
+        return true;
+    }
+
+    private int[] collectOrdinals() {
+        int[] ordinals = new int[size];
+        int index = 0;
+        for (Node node = head; node != null; node = node.next) {
+            ordinals[index++] = node.ordinal;
+        }
+        return ordinals;
     }
 
     /**
-     * Performs an insertion sort by personnel name (case-insensitive).
+     * Merges two sorted runs linked through {@code next}; ties keep the node from {@code earlier}.
      */
-    public void sortByName() {
-        if (head == null || head.next == null) {
-            return;
+    private Node mergeRuns(Node earlier, Node later) {
+        if (later == null) {
+            return earlier;
         }
-        Node sortedHead = null;
-        Node current = head;
-        while (current != null) {
-            Node next = current.next;
-            sortedHead = insertSorted(sortedHead, current);
-            current = next;
+        Node mergedHead = null;
+        Node mergedTail = null;
+        while (earlier != null && later != null) {
+            Node picked;
+            if (later.nameKey.compareTo(earlier.nameKey) < 0) {
+                picked = later;
+                later = later.next;
+            } else {
+                picked = earlier;
+                earlier = earlier.next;
+            }
+            if (mergedTail == null) {
+                mergedHead = picked;
+            } else {
+                mergedTail.next = picked;
+            }
+            mergedTail = picked;
         }
-        head = sortedHead;
+        mergedTail.next = earlier != null ? earlier : later;
+        return mergedHead;
     }
 
-    private Node insertSorted(Node sortedHead, Node node) {
-        node.next = null;
-        if (sortedHead == null || compare(node.data, sortedHead.data) <= 0) {
-            node.next = sortedHead;
-            return node;
+    public void forEach(Consumer<? super Personnel> action) {
+        for (Node node = head; node != null; node = node.next) {
+            action.accept(node.data);
         }
-        Node current = sortedHead;
-        while (current.next != null && compare(current.next.data, node.data) < 0) {
-            current = current.next;
-        }
-        node.next = current.next;
-        current.next = node;
-        return sortedHead;
     }
 
-    private int compare(Personnel a, Personnel b) {
-        return a.getName().compareToIgnoreCase(b.getName());
+    /**
+     * Reads the list in place; {@link Cursor#skip(int)} follows the links or, when the target is
+     * nearer the tail, walks back from there.
+     */
+    public Cursor<Personnel> cursor() {
+        return new Cursor<>(modCount) {
+            private Node node = head;
+            private int index;
+
+            protected int modCount() {
+                return PersonnelLinkedList.this.modCount;
+            }
+
+            protected boolean hasMore() {
+                return node != null;
+            }
+
+            protected Personnel advance() {
+                Personnel personnel = node.data;
+                node = node.next;
+                index++;
+                return personnel;
+            }
+
+            protected int jump(int count) {
+                int skipped = Math.min(count, size - index);
+                index += skipped;
+                if (index == size) {
+                    node = null;
+                } else if (skipped <= size - index) {
+                    for (int i = 0; i < skipped; i++) {
+                        node = node.next;
+                    }
+                } else {
+                    node = nodeAt(index);
+                }
+                return skipped;
+            }
+        };
     }
 
     public List<Personnel> toList() {
@@ -236,23 +405,127 @@ public class PersonnelLinkedList {
     }
 
     /**
-     * Reinserts the provided personnel at the original index; used during undo of deletions.
+     * Replaces the entire list contents with the provided ordering in a single linking pass.
      */
-    public void reinsert(Personnel personnel, int index) {
-        insertAtPosition(personnel, index);
+    public void replaceAll(List<Personnel> orderedPersonnel) {
+        head = null;
+        tail = null;
+        size = 0;
+        modCount++;
+        keyIndex.clear();
+        appendAll(orderedPersonnel);
     }
 
     /**
-     * Replaces the entire list contents with the provided ordering.
+     * Resolves the earliest node in list order whose name matches by comparing labels along the
+     * index chain, so only the records sharing the name are visited.
      */
-    public void replaceAll(List<Personnel> orderedPersonnel) {
-        head = null;
-        size = 0;
-        if (orderedPersonnel == null || orderedPersonnel.isEmpty()) {
-            return;
+    private Node firstByName(String name) {
+        if (name == null) {
+            return null;
+        }
+        Node best = (Node) keyIndex.anyByName(PersonnelKeyIndex.fold(name));
+        if (best == null) {
+            return null;
+        }
+        for (Node other = (Node) best.nextSameName(); other != null; other = (Node) other.nextSameName()) {
+            if (other.label < best.label) {
+                best = other;
+            }
+        }
+        return best;
+    }
+
+    private Node firstById(String id) {
+        if (id == null) {
+            return null;
+        }
+        Node best = (Node) keyIndex.anyById(PersonnelKeyIndex.fold(id));
+        if (best == null) {
+            return null;
         }
-        for (Personnel personnel : orderedPersonnel) {
-            insertAtPosition(personnel, size);
+        for (Node other = (Node) best.nextSameId(); other != null; other = (Node) other.nextSameId()) {
+            if (other.label < best.label) {
+                best = other;
+            }
         }
+        return best;
+    }
+
+    /**
+     * Gives a freshly linked node a label between its neighbours', relabelling the whole list when
+     * they are adjacent.
+     */
+    private void label(Node node) {
+        Node before = node.prev;
+        Node after = node.next;
+        if (before == null) {
+            node.label = after != null ? after.label - LABEL_GAP : 0;
+        } else if (after == null) {
+            node.label = before.label + LABEL_GAP;
+        } else if (after.label - before.label > 1) {
+            node.label = before.label + (after.label - before.label) / 2;
+        } else {
+            relabel();
+        }
+    }
+
+    private void relabel() {
+        long label = 0;
+        for (Node node = head; node != null; node = node.next) {
+            node.label = label;
+            label += LABEL_GAP;
+        }
+    }
+
+    private Node nodeAt(int index) {
+        if (index < size / 2) {
+            Node current = head;
+            for (int i = 0; i < index; i++) {
+                current = current.next;
+            }
+            return current;
+        }
+        Node current = tail;
+        for (int i = size - 1; i > index; i--) {
+            current = current.prev;
+        }
+        return current;
+    }
+
+    /**
+     * Walks from the node towards both ends at once and stops at whichever it reaches first.
+     */
+    private int positionOf(Node node) {
+        Node back = node;
+        Node forward = node;
+        for (int steps = 0; ; steps++) {
+            if (back.prev == null) {
+                return steps;
+            }
+            if (forward.next == null) {
+                return size - 1 - steps;
+            }
+            back = back.prev;
+            forward = forward.next;
+        }
+    }
+
+    private void unlink(Node node) {
+        if (node.prev == null) {
+            head = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            tail = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+        node.next = null;
+        node.prev = null;
+        keyIndex.remove(node);
+        size--;
+        modCount++;
     }
 }
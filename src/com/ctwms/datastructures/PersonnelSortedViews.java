@@ -0,0 +1,342 @@
+package com.ctwms.datastructures;
+
+import com.ctwms.model.Personnel;
+import com.ctwms.model.PersonnelSortKey;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Incrementally maintained sorted views of the personnel directory, one per {@link PersonnelSortKey}.
+ * <p>
+ * Each view is an order-statistic treap ordering records by the case-folded field value and
+ * breaking ties by registration order, so listing in any order never touches or reorders the
+ * underlying store. Adds and removes cost {@code O(log n)} per view, and a page costs
+ * {@code O(log n + limit)} wherever it starts: the subtree sizes lead straight to its first entry.
+ * <p>
+ * The views share one slot per record and keep their links in parallel {@code int} arrays, so a
+ * registered record costs no objects beyond its folded keys (none when a value is already lower
+ * case). Records are found again by identity through an open-addressing table over the slots.
+ */
+public class PersonnelSortedViews {
+    private static final PersonnelSortKey[] KEYS = PersonnelSortKey.values();
+    private static final int VIEWS = KEYS.length;
+    private static final int NIL = -1;
+    private static final int INITIAL_SLOTS = 16;
+
+    private Personnel[] records = new Personnel[INITIAL_SLOTS];
+    private long[] sequences = new long[INITIAL_SLOTS];
+    private int[] priorities = new int[INITIAL_SLOTS];
+    private final String[][] keys = new String[VIEWS][INITIAL_SLOTS];
+    private final int[][] left = new int[VIEWS][INITIAL_SLOTS];
+    private final int[][] right = new int[VIEWS][INITIAL_SLOTS];
+    private final int[][] sizes = new int[VIEWS][INITIAL_SLOTS];
+    private final int[] roots = new int[VIEWS];
+
+    // Slots freed by remove, chained through sequences; slots at or past highWater were never used.
+    private int freeSlot = NIL;
+    private int highWater;
+    private int size;
+    private long nextSequence;
+    private int seed = 0x3C6EF372;
+
+    // Identity table: slot + 1 per cell, 0 for empty, linear probing with backward-shift deletion.
+    private int[] table = new int[INITIAL_SLOTS * 2];
+
+    // Results of the last split, kept in fields to avoid allocating a pair per call.
+    private int splitLeft;
+    private int splitRight;
+
+    public PersonnelSortedViews() {
+        Arrays.fill(roots, NIL);
+    }
+
+    public void add(Personnel personnel) {
+        if (personnel == null || find(personnel) != NIL) {
+            return;
+        }
+        int slot = allocate(personnel);
+        for (int view = 0; view < VIEWS; view++) {
+            keys[view][slot] = fold(KEYS[view].valueOf(personnel));
+            left[view][slot] = NIL;
+            right[view][slot] = NIL;
+            sizes[view][slot] = 1;
+            split(view, roots[view], slot);
+            int after = splitRight;
+            roots[view] = merge(view, merge(view, splitLeft, slot), after);
+        }
+        insertIntoTable(slot);
+        size++;
+    }
+
+    public void addAll(List<Personnel> personnel) {
+        if (personnel == null) {
+            return;
+        }
+        for (Personnel record : personnel) {
+            add(record);
+        }
+    }
+
+    /**
+     * Removes the record using the keys captured when it was added, so later edits to its fields
+     * cannot strand an entry in a view.
+     */
+    public void remove(Personnel personnel) {
+        if (personnel == null) {
+            return;
+        }
+        int slot = find(personnel);
+        if (slot == NIL) {
+            return;
+        }
+        for (int view = 0; view < VIEWS; view++) {
+            roots[view] = remove(view, roots[view], slot);
+            keys[view][slot] = null;
+        }
+        removeFromTable(slot);
+        records[slot] = null;
+        sequences[slot] = freeSlot;
+        freeSlot = slot;
+        size--;
+    }
+
+    public void clear() {
+        Arrays.fill(records, 0, highWater, null);
+        for (String[] column : keys) {
+            Arrays.fill(column, 0, highWater, null);
+        }
+        Arrays.fill(table, 0);
+        Arrays.fill(roots, NIL);
+        freeSlot = NIL;
+        highWater = 0;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns up to {@code limit} records starting at {@code offset} in the order of the given key.
+     * The first entry is reached by subtree size; the rest follow in order from an explicit stack.
+     */
+    public List<Personnel> page(PersonnelSortKey key, int offset, int limit) {
+        int start = Math.max(offset, 0);
+        int count = Math.max(0, Math.min(limit, size - start));
+        List<Personnel> page = new ArrayList<>(count);
+        if (count == 0) {
+            return page;
+        }
+        int view = key.ordinal();
+        int[] viewLeft = left[view];
+        int[] viewRight = right[view];
+        int[] stack = new int[64];
+        int depth = 0;
+        int node = roots[view];
+        int rank = start;
+        while (node != NIL) {
+            int leftSize = size(view, viewLeft[node]);
+            if (rank < leftSize) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = node;
+                node = viewLeft[node];
+            } else if (rank == leftSize) {
+                break;
+            } else {
+                rank -= leftSize + 1;
+                node = viewRight[node];
+            }
+        }
+        while (true) {
+            page.add(records[node]);
+            if (page.size() == count) {
+                return page;
+            }
+            node = viewRight[node];
+            if (node == NIL) {
+                node = stack[--depth];
+                continue;
+            }
+            while (viewLeft[node] != NIL) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = node;
+                node = viewLeft[node];
+            }
+        }
+    }
+
+    // ---- treaps ------------------------------------------------------------------------------
+
+    private int compare(int view, int a, int b) {
+        int byKey = keys[view][a].compareTo(keys[view][b]);
+        return byKey != 0 ? byKey : Long.compare(sequences[a], sequences[b]);
+    }
+
+    /**
+     * Splits the subtree into the entries ordered before {@code pivot} ({@link #splitLeft}) and the
+     * rest ({@link #splitRight}).
+     */
+    private void split(int view, int node, int pivot) {
+        if (node == NIL) {
+            splitLeft = NIL;
+            splitRight = NIL;
+            return;
+        }
+        if (compare(view, node, pivot) < 0) {
+            split(view, right[view][node], pivot);
+            right[view][node] = splitLeft;
+            update(view, node);
+            splitLeft = node;
+        } else {
+            split(view, left[view][node], pivot);
+            left[view][node] = splitRight;
+            update(view, node);
+            splitRight = node;
+        }
+    }
+
+    private int merge(int view, int a, int b) {
+        if (a == NIL) {
+            return b;
+        }
+        if (b == NIL) {
+            return a;
+        }
+        if (priorities[a] > priorities[b]) {
+            right[view][a] = merge(view, right[view][a], b);
+            update(view, a);
+            return a;
+        }
+        left[view][b] = merge(view, a, left[view][b]);
+        update(view, b);
+        return b;
+    }
+
+    private int remove(int view, int node, int slot) {
+        if (node == slot) {
+            return merge(view, left[view][node], right[view][node]);
+        }
+        if (compare(view, slot, node) < 0) {
+            left[view][node] = remove(view, left[view][node], slot);
+        } else {
+            right[view][node] = remove(view, right[view][node], slot);
+        }
+        sizes[view][node]--;
+        return node;
+    }
+
+    private void update(int view, int node) {
+        sizes[view][node] = 1 + size(view, left[view][node]) + size(view, right[view][node]);
+    }
+
+    private int size(int view, int node) {
+        return node != NIL ? sizes[view][node] : 0;
+    }
+
+    // ---- slots and identity table --------------------------------------------------------------
+
+    private int allocate(Personnel personnel) {
+        int slot;
+        if (freeSlot != NIL) {
+            slot = freeSlot;
+            freeSlot = (int) sequences[slot];
+        } else {
+            if (highWater == records.length) {
+                grow(records.length * 2);
+            }
+            slot = highWater++;
+        }
+        records[slot] = personnel;
+        sequences[slot] = nextSequence++;
+        priorities[slot] = nextPriority();
+        return slot;
+    }
+
+    private void grow(int capacity) {
+        records = Arrays.copyOf(records, capacity);
+        sequences = Arrays.copyOf(sequences, capacity);
+        priorities = Arrays.copyOf(priorities, capacity);
+        for (int view = 0; view < VIEWS; view++) {
+            keys[view] = Arrays.copyOf(keys[view], capacity);
+            left[view] = Arrays.copyOf(left[view], capacity);
+            right[view] = Arrays.copyOf(right[view], capacity);
+            sizes[view] = Arrays.copyOf(sizes[view], capacity);
+        }
+    }
+
+    private int find(Personnel personnel) {
+        int mask = table.length - 1;
+        for (int cell = hash(personnel) & mask; table[cell] != 0; cell = (cell + 1) & mask) {
+            if (records[table[cell] - 1] == personnel) {
+                return table[cell] - 1;
+            }
+        }
+        return NIL;
+    }
+
+    private void insertIntoTable(int slot) {
+        if ((size + 1) * 2 > table.length) {
+            int[] old = table;
+            table = new int[old.length * 2];
+            for (int entry : old) {
+                if (entry != 0) {
+                    place(entry);
+                }
+            }
+        }
+        place(slot + 1);
+    }
+
+    private void place(int entry) {
+        int mask = table.length - 1;
+        int cell = hash(records[entry - 1]) & mask;
+        while (table[cell] != 0) {
+            cell = (cell + 1) & mask;
+        }
+        table[cell] = entry;
+    }
+
+    /**
+     * Deletes the slot's cell and shifts later cells of the same probe run back, so lookups never
+     * need tombstones.
+     */
+    private void removeFromTable(int slot) {
+        int mask = table.length - 1;
+        int cell = hash(records[slot]) & mask;
+        while (table[cell] != slot + 1) {
+            cell = (cell + 1) & mask;
+        }
+        int gap = cell;
+        for (int next = (gap + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+            int home = hash(records[table[next] - 1]) & mask;
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                table[gap] = table[next];
+                gap = next;
+            }
+        }
+        table[gap] = 0;
+    }
+
+    private static int hash(Personnel personnel) {
+        int h = System.identityHashCode(personnel);
+        return h ^ (h >>> 16);
+    }
+
+    private int nextPriority() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+
+    private static String fold(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : "";
+    }
+}
@@ -0,0 +1,129 @@
+package com.ctwms.datastructures;
+
+import com.ctwms.model.Personnel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Positional personnel directory backing {@code PersonnelManager}.
+ * <p>
+ * Positions are 0-based; inserting at or below 0 targets the head and at or beyond {@link #size()}
+ * appends. Name and id matches are case-insensitive and resolve to the earliest record in order.
+ */
+public interface PersonnelStore {
+    int size();
+
+    boolean isEmpty();
+
+    void insertAtPosition(Personnel personnel, int position);
+
+    /**
+     * Appends every record after the current last one, linking them in a single pass.
+     */
+    void appendAll(List<Personnel> personnel);
+
+    Personnel get(int index);
+
+    Personnel removeAt(int index);
+
+    /**
+     * Removes the records at positions {@code [from, to)}, clamped to the store, as one change.
+     * The default removes them one at a time from the back; stores that can cut a run out in one
+     * step override it.
+     */
+    default void removeRange(int from, int to) {
+        int start = Math.max(from, 0);
+        for (int i = Math.min(to, size()) - 1; i >= start; i--) {
+            removeAt(i);
+        }
+    }
+
+    RemovalResult removeByName(String name);
+
+    Personnel removeById(String id);
+
+    Personnel findByName(String name);
+
+    int indexOf(String name);
+
+    /**
+     * Sorts by name and returns the undo permutation: element {@code i} of the result is the
+     * position the record now at {@code i} held before the sort.
+     */
+    int[] sortByName();
+
+    /**
+     * Puts every record back at the position given by a permutation from {@link #sortByName()}.
+     * Returns {@code false} and leaves the order untouched if the permutation does not fit.
+     */
+    boolean restoreOrder(int[] originalPositions);
+
+    List<Personnel> toList();
+
+    /**
+     * Returns a read-only, fail-fast cursor over the records in stored order, reading the store in
+     * place.
+     */
+    Cursor<Personnel> cursor();
+
+    /**
+     * Returns up to {@code limit} records starting at position {@code offset} in stored order,
+     * without copying the rest of the store.
+     */
+    default List<Personnel> page(int offset, int limit) {
+        List<Personnel> page = new ArrayList<>(Math.max(0, Math.min(limit, size() - Math.max(offset, 0))));
+        cursor().skip(offset).limit(limit).forEachRemaining(page::add);
+        return page;
+    }
+
+    /**
+     * Visits every record in stored order without building a list first.
+     */
+    default void forEach(Consumer<? super Personnel> action) {
+        for (Personnel personnel : toList()) {
+            action.accept(personnel);
+        }
+    }
+
+    /**
+     * Reinserts the provided personnel at the original index; used during undo of deletions.
+     */
+    default void reinsert(Personnel personnel, int index) {
+        insertAtPosition(personnel, index);
+    }
+
+    /**
+     * Replaces the entire store contents with the provided ordering.
+     */
+    void replaceAll(List<Personnel> orderedPersonnel);
+
+    class RemovalResult {
+        private final boolean removed;
+        private final Personnel removedPersonnel;
+        private final int index;
+
+        RemovalResult(boolean removed, Personnel removedPersonnel, int index) {
+            this.removed = removed;
+            this.removedPersonnel = removedPersonnel;
+            this.index = index;
+        }
+
+        static RemovalResult notFound() {
+            return new RemovalResult(false, null, -1);
+        }
+
+        public boolean isRemoved() {
+            return removed;
+        }
+
+        public Personnel getRemovedPersonnel() {
+            return removedPersonnel;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.ctwms.datastructures;
+
+import com.ctwms.model.Task;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Priority-lane task queue backing {@code TaskManager}.
+ * <p>
+ * Tasks stay FIFO within a lane; which lane is served next is decided by the queue's
+ * {@link TaskSchedulingPolicy}, strict HIGH before MEDIUM before LOW by default. {@link #enqueue(Task)}
+ * and {@link #dequeue()} never block; {@link #take(long, TimeUnit)} waits for work where the
+ * implementation supports concurrent producers.
+ */
+public interface PriorityTaskQueue {
+    void enqueue(Task task);
+
+    Task peek();
+
+    Task dequeue();
+
+    /**
+     * Dequeues the next task, waiting up to the timeout for one to arrive. Returns {@code null} on timeout.
+     */
+    Task take(long timeout, TimeUnit unit) throws InterruptedException;
+
+    boolean isEmpty();
+
+    int size();
+
+    List<Task> toList();
+
+    /**
+     * Returns a read-only cursor over the queued tasks in {@link #toList()} order. Queues that can
+     * be read in place override this; the default walks a snapshot taken by {@link #toList()}.
+     */
+    default Cursor<Task> cursor() {
+        return Cursor.over(toList());
+    }
+
+    /**
+     * Returns up to {@code limit} tasks starting at {@code offset} in {@link #toList()} order.
+     */
+    default List<Task> page(int offset, int limit) {
+        List<Task> page = new ArrayList<>(Math.max(0, Math.min(limit, size() - Math.max(offset, 0))));
+        cursor().skip(offset).limit(limit).forEachRemaining(page::add);
+        return page;
+    }
+
+    Task removeById(String taskId);
+
+    /**
+     * Removes every task with one of the given ids and returns the removed tasks. Ids that are
+     * not queued are skipped.
+     */
+    default List<Task> removeAllById(Collection<String> taskIds) {
+        List<Task> removed = new ArrayList<>(taskIds.size());
+        for (String taskId : taskIds) {
+            Task task = removeById(taskId);
+            if (task != null) {
+                removed.add(task);
+            }
+        }
+        return removed;
+    }
+
+    void requeueAtFront(Task task);
+
+    /**
+     * Appends every task to the tail of its lane, in iteration order, as one operation.
+     */
+    void addAll(Collection<Task> tasks);
+
+    /**
+     * Removes up to {@code maxTasks} tasks in the order {@link #dequeue()} would return them, adds
+     * them to {@code sink} and returns how many were moved.
+     */
+    int drainTo(Collection<? super Task> sink, int maxTasks);
+
+    /**
+     * Puts previously drained tasks back at the front of their lanes so that they are served again
+     * in the given order ahead of everything already queued in the same lane.
+     */
+    void requeueAllAtFront(List<Task> tasks);
+
+    void setSchedulingPolicy(TaskSchedulingPolicy policy);
+
+    /**
+     * Number of tasks held back until their not-before time; they count towards {@link #size()}
+     * but are never returned by {@link #peek()} or {@link #dequeue()} early.
+     */
+    default int scheduledCount() {
+        return 0;
+    }
+}
@@ -0,0 +1,231 @@
+package com.ctwms.datastructures;
+
+import com.ctwms.model.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Category and active-status facets over the service catalog.
+ * <p>
+ * Every service is filed in one bucket per facet combination (its case-folded category and its
+ * status) and in one catalog-wide status bucket. Buckets are insertion-ordered sets, so adding and
+ * removing a service is {@code O(1)}, every count is a bucket size, and a filtered walk touches only
+ * the services it returns. Each service remembers the buckets it was filed in, which keeps removal
+ * correct even if the object was edited in place after it was added.
+ */
+public class ServiceFacetIndex {
+    private static final class Category {
+        final String label;
+        final Set<Service> active = new LinkedHashSet<>();
+        final Set<Service> inactive = new LinkedHashSet<>();
+
+        Category(String label) {
+            this.label = label;
+        }
+
+        int size() {
+            return active.size() + inactive.size();
+        }
+    }
+
+    private static final class Filing {
+        final String categoryKey;
+        final boolean active;
+
+        Filing(String categoryKey, boolean active) {
+            this.categoryKey = categoryKey;
+            this.active = active;
+        }
+    }
+
+    private final Map<String, Category> categories = new LinkedHashMap<>();
+    private final Set<Service> active = new LinkedHashSet<>();
+    private final Set<Service> inactive = new LinkedHashSet<>();
+    private final Map<Service, Filing> filings = new IdentityHashMap<>();
+    private int modCount;
+
+    public void add(Service service) {
+        if (service == null || filings.containsKey(service)) {
+            return;
+        }
+        String key = fold(service.getCategory());
+        Category category = categories.computeIfAbsent(key,
+                ignored -> new Category(service.getCategory() != null ? service.getCategory() : ""));
+        boolean isActive = service.isActive();
+        (isActive ? category.active : category.inactive).add(service);
+        (isActive ? active : inactive).add(service);
+        filings.put(service, new Filing(key, isActive));
+        modCount++;
+    }
+
+    public void remove(Service service) {
+        Filing filing = service != null ? filings.remove(service) : null;
+        if (filing == null) {
+            return;
+        }
+        Category category = categories.get(filing.categoryKey);
+        (filing.active ? category.active : category.inactive).remove(service);
+        (filing.active ? active : inactive).remove(service);
+        if (category.size() == 0) {
+            categories.remove(filing.categoryKey);
+        }
+        modCount++;
+    }
+
+    public void clear() {
+        categories.clear();
+        active.clear();
+        inactive.clear();
+        filings.clear();
+        modCount++;
+    }
+
+    /**
+     * Number of services in {@code category} (ignoring case) with the given status, or with either
+     * status when {@code activeFilter} is {@code null}. A {@code null} category counts the whole
+     * catalog.
+     */
+    public int count(String category, Boolean activeFilter) {
+        if (category == null) {
+            if (activeFilter == null) {
+                return active.size() + inactive.size();
+            }
+            return activeFilter ? active.size() : inactive.size();
+        }
+        Category bucket = categories.get(fold(category));
+        if (bucket == null) {
+            return 0;
+        }
+        if (activeFilter == null) {
+            return bucket.size();
+        }
+        return activeFilter ? bucket.active.size() : bucket.inactive.size();
+    }
+
+    public int categoryCount() {
+        return categories.size();
+    }
+
+    /**
+     * Service counts per category, labelled with the category as first added, in the order the
+     * categories first appeared.
+     */
+    public Map<String, Integer> categoryCounts() {
+        Map<String, Integer> counts = new LinkedHashMap<>();
+        for (Category category : categories.values()) {
+            counts.put(category.label, category.size());
+        }
+        return counts;
+    }
+
+    /**
+     * Visits the services matching both filters (either may be {@code null} for "any"): active ones
+     * before inactive ones, each in the order they were filed.
+     */
+    public void forEach(String category, Boolean activeFilter, Consumer<? super Service> action) {
+        Set<Service> activeBucket;
+        Set<Service> inactiveBucket;
+        if (category == null) {
+            activeBucket = active;
+            inactiveBucket = inactive;
+        } else {
+            Category bucket = categories.get(fold(category));
+            if (bucket == null) {
+                return;
+            }
+            activeBucket = bucket.active;
+            inactiveBucket = bucket.inactive;
+        }
+        if (activeFilter == null || activeFilter) {
+            activeBucket.forEach(action);
+        }
+        if (activeFilter == null || !activeFilter) {
+            inactiveBucket.forEach(action);
+        }
+    }
+
+    /**
+     * Returns a fail-fast cursor over the services matching both filters, in {@link #forEach} order.
+     * {@link Cursor#skip(int)} passes over a whole bucket by its size and steps only through the
+     * bucket the skip ends in, and nothing past the last element read is visited.
+     */
+    public Cursor<Service> cursor(String category, Boolean activeFilter) {
+        Set<Service> activeBucket = Collections.emptySet();
+        Set<Service> inactiveBucket = Collections.emptySet();
+        Category bucket = category != null ? categories.get(fold(category)) : null;
+        if (category == null || bucket != null) {
+            if (activeFilter == null || activeFilter) {
+                activeBucket = bucket != null ? bucket.active : active;
+            }
+            if (activeFilter == null || !activeFilter) {
+                inactiveBucket = bucket != null ? bucket.inactive : inactive;
+            }
+        }
+        Set<Service> first = activeBucket;
+        Set<Service> second = inactiveBucket;
+        return new Cursor<>(modCount) {
+            private Iterator<Service> iterator = first.iterator();
+            private int left = first.size();
+            private Set<Service> next = second;
+
+            protected int modCount() {
+                return ServiceFacetIndex.this.modCount;
+            }
+
+            protected boolean hasMore() {
+                settle();
+                return left > 0;
+            }
+
+            protected Service advance() {
+                left--;
+                return iterator.next();
+            }
+
+            protected int jump(int count) {
+                int skipped = 0;
+                while (skipped < count && hasMore()) {
+                    if (count - skipped >= left) {
+                        skipped += left;
+                        left = 0;
+                    } else {
+                        advance();
+                        skipped++;
+                    }
+                }
+                return skipped;
+            }
+
+            private void settle() {
+                if (left == 0 && next != null) {
+                    iterator = next.iterator();
+                    left = next.size();
+                    next = null;
+                }
+            }
+        };
+    }
+
+    /**
+     * Copies the services matching both filters; costs the size of the result.
+     */
+    public List<Service> list(String category, Boolean activeFilter) {
+        List<Service> matches = new ArrayList<>(count(category, activeFilter));
+        forEach(category, activeFilter, matches::add);
+        return matches;
+    }
+
+    private static String fold(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : "";
+    }
+}
@@ -0,0 +1,218 @@
+package com.ctwms.datastructures;
+
+import com.ctwms.model.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Case-folded name to position index for a list of services, kept in step with the list by its
+ * owner.
+ * <p>
+ * Each name maps to the position of its first occurrence as of some version. Middle inserts and
+ * removes are not applied to every later entry; they are appended to a short log of shifts
+ * instead, and a lookup replays the shifts recorded since its entry was last touched. Once the log
+ * reaches about the square root of the list size the positions are recomputed in one pass, so
+ * lookups and shifts both cost {@code O(sqrt n)} at worst and appends, renames and lookups of
+ * recently touched names {@code O(1)}.
+ */
+public class ServiceNameIndex {
+    private static final int MIN_SHIFT_LOG = 32;
+    private static final int MAX_SHIFT_LOG = 4096;
+
+    private static final class Slot {
+        int position;
+        int version;
+        int count;
+    }
+
+    private final Map<String, Slot> firstByName = new HashMap<>();
+    private final ArrayList<String> keys = new ArrayList<>();
+    private int[] shiftPositions = new int[MIN_SHIFT_LOG];
+    private boolean[] shiftInserts = new boolean[MIN_SHIFT_LOG];
+    private int shiftCount;
+    private long rebuilds;
+
+    /**
+     * Returns the position of the first service named {@code name}, ignoring case, or -1.
+     */
+    public int firstPosition(String name) {
+        if (name == null) {
+            return -1;
+        }
+        Slot slot = firstByName.get(fold(name));
+        return slot != null ? current(slot) : -1;
+    }
+
+    public void appended(String name) {
+        String key = fold(name);
+        keys.add(key);
+        Slot slot = firstByName.get(key);
+        if (slot == null) {
+            firstByName.put(key, newSlot(keys.size() - 1));
+        } else {
+            slot.count++;
+        }
+    }
+
+    public void inserted(String name, int position) {
+        if (position == keys.size()) {
+            appended(name);
+            return;
+        }
+        String key = fold(name);
+        keys.add(position, key);
+        recordShift(position, true);
+        Slot slot = firstByName.get(key);
+        if (slot == null) {
+            firstByName.put(key, newSlot(position));
+        } else {
+            if (position < current(slot)) {
+                moveTo(slot, position);
+            }
+            slot.count++;
+        }
+        compactIfFull();
+    }
+
+    public void removed(int position) {
+        String key = keys.remove(position);
+        Slot slot = firstByName.get(key);
+        int first = current(slot);
+        recordShift(position, false);
+        if (--slot.count == 0) {
+            firstByName.remove(key);
+        } else if (first == position) {
+            moveTo(slot, indexOf(key, position));
+        }
+        compactIfFull();
+    }
+
+    /**
+     * Records that the service at {@code position} was replaced by one named {@code name}.
+     */
+    public void replaced(int position, String name) {
+        String oldKey = keys.get(position);
+        String newKey = fold(name);
+        if (oldKey.equals(newKey)) {
+            return;
+        }
+        keys.set(position, newKey);
+        Slot old = firstByName.get(oldKey);
+        if (--old.count == 0) {
+            firstByName.remove(oldKey);
+        } else if (current(old) == position) {
+            moveTo(old, indexOf(oldKey, position + 1));
+        }
+        Slot slot = firstByName.get(newKey);
+        if (slot == null) {
+            firstByName.put(newKey, newSlot(position));
+        } else {
+            if (position < current(slot)) {
+                moveTo(slot, position);
+            }
+            slot.count++;
+        }
+    }
+
+    /**
+     * Reindexes {@code services} from scratch, e.g. after the list was reordered.
+     */
+    public void rebuild(List<Service> services) {
+        firstByName.clear();
+        keys.clear();
+        keys.ensureCapacity(services.size());
+        shiftCount = 0;
+        for (Service service : services) {
+            appended(service.getName());
+        }
+    }
+
+    public int size() {
+        return keys.size();
+    }
+
+    /**
+     * Number of times the shift log filled up and positions were recomputed.
+     */
+    public long rebuilds() {
+        return rebuilds;
+    }
+
+    private Slot newSlot(int position) {
+        Slot slot = new Slot();
+        slot.position = position;
+        slot.version = shiftCount;
+        slot.count = 1;
+        return slot;
+    }
+
+    private void moveTo(Slot slot, int position) {
+        slot.position = position;
+        slot.version = shiftCount;
+    }
+
+    /**
+     * Brings {@code slot} up to date by replaying the shifts logged since it was last touched.
+     */
+    private int current(Slot slot) {
+        int position = slot.position;
+        for (int i = slot.version; i < shiftCount; i++) {
+            int at = shiftPositions[i];
+            if (shiftInserts[i]) {
+                if (position >= at) {
+                    position++;
+                }
+            } else if (position > at) {
+                position--;
+            }
+        }
+        moveTo(slot, position);
+        return position;
+    }
+
+    private void recordShift(int position, boolean insert) {
+        if (shiftCount == shiftPositions.length) {
+            shiftPositions = Arrays.copyOf(shiftPositions, shiftCount * 2);
+            shiftInserts = Arrays.copyOf(shiftInserts, shiftCount * 2);
+        }
+        shiftPositions[shiftCount] = position;
+        shiftInserts[shiftCount] = insert;
+        shiftCount++;
+    }
+
+    private void compactIfFull() {
+        int limit = Math.max(MIN_SHIFT_LOG, Math.min(MAX_SHIFT_LOG, (int) Math.sqrt(keys.size())));
+        if (shiftCount < limit) {
+            return;
+        }
+        for (Slot slot : firstByName.values()) {
+            slot.count = 0;
+        }
+        shiftCount = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            Slot slot = firstByName.get(keys.get(i));
+            if (slot.count++ == 0) {
+                moveTo(slot, i);
+            }
+        }
+        rebuilds++;
+    }
+
+    private int indexOf(String key, int from) {
+        for (int i = from; i < keys.size(); i++) {
+            if (keys.get(i).equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static String fold(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : "";
+    }
+}
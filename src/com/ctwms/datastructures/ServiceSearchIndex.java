@@ -0,0 +1,205 @@
+package com.ctwms.datastructures;
+
+import com.ctwms.model.Service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Inverted index over the words of each service's name, category and description.
+ * <p>
+ * Terms are kept in a sorted map so a query word matches every term it is a prefix of with one
+ * range lookup. Each service also remembers the terms it was indexed under, which makes removal
+ * independent of later edits to the object and lets a query check its remaining words against
+ * the candidates of its most selective word instead of intersecting large posting sets. Services
+ * are tracked by identity, so duplicate names are indexed separately.
+ */
+public class ServiceSearchIndex {
+    private static final int NAME = 4;
+    private static final int CATEGORY = 2;
+    private static final int DESCRIPTION = 1;
+
+    private static final class Entry {
+        final String[] terms;
+        final int[] fields;
+
+        Entry(String[] terms, int[] fields) {
+            this.terms = terms;
+            this.fields = fields;
+        }
+
+        /**
+         * Returns the weight of the best field holding a term that starts with {@code prefix}, or 0.
+         */
+        int weight(String prefix) {
+            int best = 0;
+            for (int i = 0; i < terms.length; i++) {
+                if (terms[i].startsWith(prefix)) {
+                    best = Math.max(best, highestField(fields[i]));
+                }
+            }
+            return best;
+        }
+    }
+
+    private final NavigableMap<String, Set<Service>> postings = new TreeMap<>();
+    private final Map<Service, Entry> entries = new IdentityHashMap<>();
+
+    public void add(Service service) {
+        if (service == null || entries.containsKey(service)) {
+            return;
+        }
+        Map<String, Integer> fieldsByTerm = new TreeMap<>();
+        collect(fieldsByTerm, service.getName(), NAME);
+        collect(fieldsByTerm, service.getCategory(), CATEGORY);
+        collect(fieldsByTerm, service.getDescription(), DESCRIPTION);
+        String[] terms = new String[fieldsByTerm.size()];
+        int[] fields = new int[terms.length];
+        int i = 0;
+        for (Map.Entry<String, Integer> term : fieldsByTerm.entrySet()) {
+            terms[i] = term.getKey();
+            fields[i] = term.getValue();
+            postings.computeIfAbsent(terms[i], key -> Collections.newSetFromMap(new IdentityHashMap<>()))
+                    .add(service);
+            i++;
+        }
+        entries.put(service, new Entry(terms, fields));
+    }
+
+    /**
+     * Removes {@code service} under the terms it was indexed with, even if it changed since.
+     */
+    public void remove(Service service) {
+        Entry entry = service != null ? entries.remove(service) : null;
+        if (entry == null) {
+            return;
+        }
+        for (String term : entry.terms) {
+            Set<Service> services = postings.get(term);
+            services.remove(service);
+            if (services.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns the services in which every word of {@code query} starts some indexed word, best
+     * first: a word matched in the name counts more than one matched in the category, which counts
+     * more than one matched in the description. Ties are ordered by name. Returns {@code null} if
+     * the query contains no words, leaving the caller to decide what a blank search means.
+     */
+    public List<Service> search(String query) {
+        List<String> words = tokenize(query);
+        if (words.isEmpty()) {
+            return null;
+        }
+        String seed = null;
+        long seedSize = Long.MAX_VALUE;
+        for (String word : words) {
+            long size = candidateCount(word, seedSize);
+            if (size < seedSize) {
+                seed = word;
+                seedSize = size;
+            }
+        }
+        List<Service> matches = new ArrayList<>();
+        if (seedSize == 0) {
+            return matches;
+        }
+        Set<Service> candidates = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Set<Service> services : prefixRange(seed).values()) {
+            candidates.addAll(services);
+        }
+        Map<Service, Integer> scores = new IdentityHashMap<>();
+        for (Service candidate : candidates) {
+            Entry entry = entries.get(candidate);
+            int score = 0;
+            for (String word : words) {
+                int weight = entry.weight(word);
+                if (weight == 0) {
+                    score = 0;
+                    break;
+                }
+                score += weight;
+            }
+            if (score > 0) {
+                matches.add(candidate);
+                scores.put(candidate, score);
+            }
+        }
+        matches.sort((left, right) -> {
+            int byScore = Integer.compare(scores.get(right), scores.get(left));
+            return byScore != 0 ? byScore : String.CASE_INSENSITIVE_ORDER.compare(left.getName(), right.getName());
+        });
+        return matches;
+    }
+
+    public void clear() {
+        postings.clear();
+        entries.clear();
+    }
+
+    /**
+     * Splits {@code text} into lower-case runs of letters and digits, without duplicates.
+     */
+    static List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                String word = text.substring(start, i).toLowerCase(Locale.ROOT);
+                if (!words.contains(word)) {
+                    words.add(word);
+                }
+                start = -1;
+            }
+        }
+        return words;
+    }
+
+    private static void collect(Map<String, Integer> fieldsByTerm, String text, int field) {
+        for (String word : tokenize(text)) {
+            fieldsByTerm.merge(word, field, (left, right) -> left | right);
+        }
+    }
+
+    private static int highestField(int fields) {
+        return Integer.highestOneBit(fields);
+    }
+
+    /**
+     * Counts the postings under {@code prefix}, giving up once the count reaches {@code limit}.
+     */
+    private long candidateCount(String prefix, long limit) {
+        long count = 0;
+        for (Set<Service> services : prefixRange(prefix).values()) {
+            count += services.size();
+            if (count >= limit) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    private NavigableMap<String, Set<Service>> prefixRange(String prefix) {
+        return postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+}
@@ -0,0 +1,28 @@
+package com.ctwms.datastructures;
+
+/**
+ * Default policy: always serve HIGH before MEDIUM before LOW.
+ */
+public final class StrictPriorityPolicy implements TaskSchedulingPolicy {
+    public static final StrictPriorityPolicy INSTANCE = new StrictPriorityPolicy();
+
+    private static final int LANES = 3;
+
+    private StrictPriorityPolicy() {
+    }
+
+    @Override
+    public int nextLane(LaneHeads heads) {
+        for (int lane = 0; lane < LANES; lane++) {
+            if (heads.head(lane) != null) {
+                return lane;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public boolean isStrict() {
+        return true;
+    }
+}
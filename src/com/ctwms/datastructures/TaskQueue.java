@@ -4,18 +4,32 @@ import com.ctwms.model.Task;
 import com.ctwms.model.TaskPriority;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Priority-aware queue that keeps FIFO ordering within each priority level.
+ * <p>
+ * Each lane is a doubly linked list and every queued node is indexed by its case-folded task id,
+ * so cancelling a task anywhere in any lane is {@code O(1)}. Task ids are expected to be unique.
+ * Not thread-safe; see {@link ConcurrentTaskQueue} for multi-worker serving.
  */
-public class TaskQueue {
+public class TaskQueue implements PriorityTaskQueue {
     private static class Node {
         private final Task data;
+        private final String idKey;
+        private final int lane;
         private Node next;
+        private Node prev;
 
-        Node(Task data) {
+        Node(Task data, int lane) {
             this.data = data;
+            this.idKey = fold(data.getTaskId());
+            this.lane = lane;
         }
     }
 
@@ -23,48 +37,150 @@ public class TaskQueue {
 
     private final Node[] heads = new Node[TaskPriority.values().length];
     private final Node[] tails = new Node[TaskPriority.values().length];
+    private final int[] laneSizes = new int[TaskPriority.values().length];
+    private final Map<String, Node> idIndex = new HashMap<>();
+    private final TaskSchedulingPolicy.LaneHeads laneHeads = lane -> heads[lane] != null ? heads[lane].data : null;
+    private TaskSchedulingPolicy policy = StrictPriorityPolicy.INSTANCE;
     private int size;
+    private int modCount;
 
     public void enqueue(Task task) {
         if (task == null) {
             return;
         }
         int index = priorityIndex(task.getPriority());
-        Node node = new Node(task);
+        Node node = new Node(task, index);
         if (tails[index] == null) {
             heads[index] = node;
             tails[index] = node;
         } else {
+            node.prev = tails[index];
             tails[index].next = node;
             tails[index] = node;
         }
+        idIndex.put(node.idKey, node);
+        laneSizes[index]++;
         size++;
+        modCount++;
     }
 
-    public Task peek() {
-        for (TaskPriority priority : ORDER) {
-            int idx = priorityIndex(priority);
-            if (heads[idx] != null) {
-                return heads[idx].data;
+    /**
+     * Links each lane's new tasks into a private chain first, then splices every chain onto its
+     * lane tail in one step.
+     */
+    public void addAll(Collection<Task> tasks) {
+        if (tasks == null || tasks.isEmpty()) {
+            return;
+        }
+        Node[] segmentHeads = new Node[heads.length];
+        Node[] segmentTails = new Node[heads.length];
+        for (Task task : tasks) {
+            if (task == null) {
+                continue;
             }
+            Node node = new Node(task, priorityIndex(task.getPriority()));
+            appendToSegment(node, segmentHeads, segmentTails);
+            idIndex.put(node.idKey, node);
+            laneSizes[node.lane]++;
+            size++;
+        }
+        modCount++;
+        for (int lane = 0; lane < heads.length; lane++) {
+            if (segmentHeads[lane] == null) {
+                continue;
+            }
+            if (tails[lane] == null) {
+                heads[lane] = segmentHeads[lane];
+            } else {
+                tails[lane].next = segmentHeads[lane];
+                segmentHeads[lane].prev = tails[lane];
+            }
+            tails[lane] = segmentTails[lane];
         }
-        return null;
     }
 
-    public Task dequeue() {
+    /**
+     * Under strict priority the drained tasks are a prefix of each lane, so every lane is cut once;
+     * other policies choose the lane task by task.
+     */
+    public int drainTo(Collection<? super Task> sink, int maxTasks) {
+        if (sink == null || maxTasks <= 0) {
+            return 0;
+        }
+        int drained = 0;
+        if (!policy.isStrict()) {
+            Task task;
+            while (drained < maxTasks && (task = dequeue()) != null) {
+                sink.add(task);
+                drained++;
+            }
+            return drained;
+        }
         for (TaskPriority priority : ORDER) {
-            int idx = priorityIndex(priority);
-            if (heads[idx] != null) {
-                Node node = heads[idx];
-                heads[idx] = node.next;
-                if (heads[idx] == null) {
-                    tails[idx] = null;
-                }
-                size--;
-                return node.data;
+            if (drained == maxTasks) {
+                break;
+            }
+            drained += cutPrefix(priorityIndex(priority), maxTasks - drained, sink);
+        }
+        return drained;
+    }
+
+    public void requeueAllAtFront(List<Task> tasks) {
+        if (tasks == null || tasks.isEmpty()) {
+            return;
+        }
+        Node[] segmentHeads = new Node[heads.length];
+        Node[] segmentTails = new Node[heads.length];
+        for (Task task : tasks) {
+            if (task == null) {
+                continue;
+            }
+            Node node = new Node(task, priorityIndex(task.getPriority()));
+            appendToSegment(node, segmentHeads, segmentTails);
+            idIndex.put(node.idKey, node);
+            laneSizes[node.lane]++;
+            size++;
+        }
+        modCount++;
+        for (int lane = 0; lane < heads.length; lane++) {
+            if (segmentHeads[lane] == null) {
+                continue;
             }
+            if (heads[lane] == null) {
+                tails[lane] = segmentTails[lane];
+            } else {
+                heads[lane].prev = segmentTails[lane];
+                segmentTails[lane].next = heads[lane];
+            }
+            heads[lane] = segmentHeads[lane];
         }
-        return null;
+    }
+
+    public Task peek() {
+        int lane = policy.nextLane(laneHeads);
+        return lane >= 0 ? heads[lane].data : null;
+    }
+
+    public Task dequeue() {
+        int lane = policy.nextLane(laneHeads);
+        if (lane < 0) {
+            return null;
+        }
+        Node node = heads[lane];
+        unlink(node);
+        policy.served(lane);
+        return node.data;
+    }
+
+    public void setSchedulingPolicy(TaskSchedulingPolicy policy) {
+        this.policy = policy != null ? policy : StrictPriorityPolicy.INSTANCE;
+    }
+
+    /**
+     * Single-threaded queues have no other producer to wait for, so this never blocks.
+     */
+    public Task take(long timeout, TimeUnit unit) {
+        return dequeue();
     }
 
     public boolean isEmpty() {
@@ -76,7 +192,7 @@ public class TaskQueue {
     }
 
     public List<Task> toList() {
-        List<Task> tasks = new ArrayList<>();
+        List<Task> tasks = new ArrayList<>(size);
         for (TaskPriority priority : ORDER) {
             int idx = priorityIndex(priority);
             Node current = heads[idx];
@@ -88,32 +204,32 @@ public class TaskQueue {
         return tasks;
     }
 
+    /**
+     * Reads every lane in place, in {@link #toList()} order. {@link Cursor#skip(int)} passes whole
+     * lanes by their counts and enters a lane from whichever end is nearer.
+     */
+    public Cursor<Task> cursor() {
+        return new LaneCursor(0, heads.length);
+    }
+
+    /**
+     * Reads one lane in place, in FIFO order.
+     */
+    public Cursor<Task> cursor(TaskPriority priority) {
+        int lane = priorityIndex(priority);
+        return new LaneCursor(lane, lane + 1);
+    }
+
     public Task removeById(String taskId) {
         if (taskId == null) {
             return null;
         }
-        for (TaskPriority priority : ORDER) {
-            int idx = priorityIndex(priority);
-            Node current = heads[idx];
-            Node prev = null;
-            while (current != null) {
-                if (current.data.getTaskId().equalsIgnoreCase(taskId)) {
-                    if (prev == null) {
-                        heads[idx] = current.next;
-                    } else {
-                        prev.next = current.next;
-                    }
-                    if (current.next == null) {
-                        tails[idx] = prev;
-                    }
-                    size--;
-                    return current.data;
-                }
-                prev = current;
-                current = current.next;
-            }
+        Node node = idIndex.get(fold(taskId));
+        if (node == null) {
+            return null;
         }
-        return null;
+        unlink(node);
+        return node.data;
     }
 
     public void requeueAtFront(Task task) {
@@ -121,16 +237,153 @@ public class TaskQueue {
             return;
         }
         int idx = priorityIndex(task.getPriority());
-        Node node = new Node(task);
+        Node node = new Node(task, idx);
         node.next = heads[idx];
+        if (heads[idx] != null) {
+            heads[idx].prev = node;
+        }
         heads[idx] = node;
         if (tails[idx] == null) {
             tails[idx] = node;
         }
+        idIndex.put(node.idKey, node);
+        laneSizes[idx]++;
         size++;
+        modCount++;
+    }
+
+    private void unlink(Node node) {
+        if (node.prev == null) {
+            heads[node.lane] = node.next;
+        } else {
+            node.prev.next = node.next;
+        }
+        if (node.next == null) {
+            tails[node.lane] = node.prev;
+        } else {
+            node.next.prev = node.prev;
+        }
+        node.next = null;
+        node.prev = null;
+        idIndex.remove(node.idKey, node);
+        laneSizes[node.lane]--;
+        size--;
+        modCount++;
+    }
+
+    /**
+     * Detaches up to {@code limit} nodes from the front of a lane in one splice.
+     */
+    private int cutPrefix(int lane, int limit, Collection<? super Task> sink) {
+        Node last = null;
+        int count = 0;
+        for (Node current = heads[lane]; current != null && count < limit; current = current.next) {
+            sink.add(current.data);
+            idIndex.remove(current.idKey, current);
+            last = current;
+            count++;
+        }
+        if (last == null) {
+            return 0;
+        }
+        heads[lane] = last.next;
+        if (last.next == null) {
+            tails[lane] = null;
+        } else {
+            last.next.prev = null;
+            last.next = null;
+        }
+        laneSizes[lane] -= count;
+        size -= count;
+        modCount++;
+        return count;
+    }
+
+    private final class LaneCursor extends Cursor<Task> {
+        private final int endLane;
+        private int lane;
+        private int indexInLane;
+        private Node node;
+
+        LaneCursor(int firstLane, int endLane) {
+            super(TaskQueue.this.modCount);
+            this.endLane = endLane;
+            this.lane = firstLane;
+            this.node = heads[firstLane];
+            settle();
+        }
+
+        protected int modCount() {
+            return TaskQueue.this.modCount;
+        }
+
+        protected boolean hasMore() {
+            return node != null;
+        }
+
+        protected Task advance() {
+            Task task = node.data;
+            node = node.next;
+            indexInLane++;
+            settle();
+            return task;
+        }
+
+        protected int jump(int count) {
+            int skipped = 0;
+            while (node != null && skipped < count) {
+                int left = laneSizes[lane] - indexInLane;
+                if (count - skipped >= left) {
+                    skipped += left;
+                    node = null;
+                    settle();
+                    continue;
+                }
+                int steps = count - skipped;
+                skipped = count;
+                indexInLane += steps;
+                if (steps <= laneSizes[lane] - indexInLane) {
+                    for (int i = 0; i < steps; i++) {
+                        node = node.next;
+                    }
+                } else {
+                    node = tails[lane];
+                    for (int i = laneSizes[lane] - 1; i > indexInLane; i--) {
+                        node = node.prev;
+                    }
+                }
+            }
+            return skipped;
+        }
+
+        /**
+         * Moves on to the head of the next non-empty lane once the current one is exhausted.
+         */
+        private void settle() {
+            while (node == null && lane + 1 < endLane) {
+                lane++;
+                indexInLane = 0;
+                node = heads[lane];
+            }
+        }
+    }
+
+    private static void appendToSegment(Node node, Node[] segmentHeads, Node[] segmentTails) {
+        int lane = node.lane;
+        if (segmentTails[lane] == null) {
+            segmentHeads[lane] = node;
+        } else {
+            node.prev = segmentTails[lane];
+            segmentTails[lane].next = node;
+        }
+        segmentTails[lane] = node;
     }
 
     private int priorityIndex(TaskPriority priority) {
         return priority.ordinal();
     }
+
+    private static String fold(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : "";
+    }
 }
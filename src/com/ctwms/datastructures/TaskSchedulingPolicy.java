@@ -0,0 +1,38 @@
+package com.ctwms.datastructures;
+
+import com.ctwms.model.Task;
+
+/**
+ * Decides which priority lane a task queue serves next.
+ * <p>
+ * Policies only look at the head of each lane (indexed by {@code TaskPriority.ordinal()}), so
+ * choosing a lane costs the same regardless of backlog size. {@link #nextLane(LaneHeads)} must not
+ * change policy state so that peeking and dequeuing agree; {@link #served(int)} commits the choice.
+ */
+public interface TaskSchedulingPolicy {
+    /**
+     * Read-only view of the task at the head of each lane, or {@code null} for an empty lane.
+     */
+    interface LaneHeads {
+        Task head(int lane);
+    }
+
+    /**
+     * Returns the lane to serve next, or -1 when every lane is empty.
+     */
+    int nextLane(LaneHeads heads);
+
+    /**
+     * Records that the head of {@code lane} was dequeued.
+     */
+    default void served(int lane) {
+    }
+
+    /**
+     * Strict policies always pick the highest non-empty lane, which lets concurrent queues keep
+     * their per-lane locking.
+     */
+    default boolean isStrict() {
+        return false;
+    }
+}
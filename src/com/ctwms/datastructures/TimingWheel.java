@@ -0,0 +1,214 @@
+package com.ctwms.datastructures;
+
+import com.ctwms.model.Task;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel that holds tasks until a given tick.
+ * <p>
+ * Level 0 has 256 one-tick slots; each of the three levels above has 64 slots spanning 64 times
+ * the level below, so deadlines up to 2^26 ticks ahead are placed directly and later ones park in
+ * the top level until it comes round again. Scheduling and cancelling are {@code O(1)}. Advancing
+ * one tick costs {@code O(1)} plus the tasks that fall due, and a task cascades down at most three
+ * times before it is due, so promotion is {@code O(1)} amortized per task. Tasks due on the same
+ * tick are released together in no guaranteed order. Not thread-safe.
+ */
+public class TimingWheel {
+    private static class Entry {
+        private final Task task;
+        private final String idKey;
+        private final long dueTick;
+        private int level;
+        private int slot;
+        private Entry next;
+        private Entry prev;
+
+        Entry(Task task, long dueTick) {
+            this.task = task;
+            this.idKey = fold(task.getTaskId());
+            this.dueTick = dueTick;
+        }
+    }
+
+    private static final int ROOT_BITS = 8;
+    private static final int LEVEL_BITS = 6;
+    private static final int LEVELS = 4;
+    private static final long MAX_SPAN = 1L << (ROOT_BITS + (LEVELS - 1) * LEVEL_BITS);
+
+    private final Entry[][] heads = new Entry[LEVELS][];
+    private final Entry[][] tails = new Entry[LEVELS][];
+    private final Map<String, Entry> idIndex = new HashMap<>();
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param startTick the tick treated as already processed
+     */
+    public TimingWheel(long startTick) {
+        for (int level = 0; level < LEVELS; level++) {
+            int slots = 1 << (level == 0 ? ROOT_BITS : LEVEL_BITS);
+            heads[level] = new Entry[slots];
+            tails[level] = new Entry[slots];
+        }
+        this.currentTick = startTick;
+    }
+
+    /**
+     * Holds {@code task} until {@code dueTick}. Returns {@code false} without storing anything when
+     * that tick has already been processed, in which case the task is due now.
+     */
+    public boolean schedule(Task task, long dueTick) {
+        if (task == null || dueTick <= currentTick) {
+            return false;
+        }
+        Entry entry = new Entry(task, dueTick);
+        place(entry);
+        idIndex.put(entry.idKey, entry);
+        size++;
+        return true;
+    }
+
+    /**
+     * Processes every tick up to and including {@code targetTick}, handing each task that falls due
+     * to {@code sink}.
+     */
+    public void advanceTo(long targetTick, Consumer<Task> sink) {
+        while (currentTick < targetTick) {
+            if (size == 0) {
+                currentTick = targetTick;
+                return;
+            }
+            currentTick++;
+            int index = (int) (currentTick & ((1 << ROOT_BITS) - 1));
+            for (int level = 1; index == 0 && level < LEVELS; level++) {
+                index = slotIndex(currentTick, level);
+                cascade(level, index);
+            }
+            expire((int) (currentTick & ((1 << ROOT_BITS) - 1)), sink);
+        }
+    }
+
+    public Task removeById(String taskId) {
+        if (taskId == null) {
+            return null;
+        }
+        Entry entry = idIndex.remove(fold(taskId));
+        if (entry == null) {
+            return null;
+        }
+        unlink(entry);
+        size--;
+        return entry.task;
+    }
+
+    public long currentTick() {
+        return currentTick;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Returns the waiting tasks ordered by due tick.
+     */
+    public List<Task> toList() {
+        List<Entry> entries = new ArrayList<>(idIndex.values());
+        entries.sort((a, b) -> Long.compare(a.dueTick, b.dueTick));
+        List<Task> tasks = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            tasks.add(entry.task);
+        }
+        return tasks;
+    }
+
+    private void place(Entry entry) {
+        long delta = entry.dueTick - currentTick;
+        int level = 0;
+        long span = 1L << ROOT_BITS;
+        while (level < LEVELS - 1 && delta >= span) {
+            level++;
+            span <<= LEVEL_BITS;
+        }
+        long tick = delta < MAX_SPAN ? entry.dueTick : currentTick + MAX_SPAN - 1;
+        entry.level = level;
+        entry.slot = level == 0 ? (int) (tick & ((1 << ROOT_BITS) - 1)) : slotIndex(tick, level);
+        entry.next = null;
+        entry.prev = tails[level][entry.slot];
+        if (entry.prev == null) {
+            heads[level][entry.slot] = entry;
+        } else {
+            entry.prev.next = entry;
+        }
+        tails[level][entry.slot] = entry;
+    }
+
+    /**
+     * Re-places every entry of a higher-level slot now that its span has started.
+     */
+    private void cascade(int level, int index) {
+        Entry entry = detachSlot(level, index);
+        while (entry != null) {
+            Entry next = entry.next;
+            place(entry);
+            entry = next;
+        }
+    }
+
+    private void expire(int index, Consumer<Task> sink) {
+        Entry entry = detachSlot(0, index);
+        while (entry != null) {
+            Entry next = entry.next;
+            if (entry.dueTick <= currentTick) {
+                idIndex.remove(entry.idKey, entry);
+                size--;
+                entry.next = null;
+                entry.prev = null;
+                sink.accept(entry.task);
+            } else {
+                place(entry);
+            }
+            entry = next;
+        }
+    }
+
+    private Entry detachSlot(int level, int index) {
+        Entry first = heads[level][index];
+        heads[level][index] = null;
+        tails[level][index] = null;
+        return first;
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.prev == null) {
+            heads[entry.level][entry.slot] = entry.next;
+        } else {
+            entry.prev.next = entry.next;
+        }
+        if (entry.next == null) {
+            tails[entry.level][entry.slot] = entry.prev;
+        } else {
+            entry.next.prev = entry.prev;
+        }
+        entry.next = null;
+        entry.prev = null;
+    }
+
+    private static int slotIndex(long tick, int level) {
+        return (int) ((tick >>> (ROOT_BITS + (level - 1) * LEVEL_BITS)) & ((1 << LEVEL_BITS) - 1));
+    }
+
+    private static String fold(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : "";
+    }
+}
@@ -0,0 +1,52 @@
+package com.ctwms.datastructures;
+
+import com.ctwms.model.TaskPriority;
+
+/**
+ * Serves lanes in turn, taking up to {@code weight} tasks from a lane before moving on, so every
+ * non-empty lane gets a guaranteed share of service. Empty lanes are skipped without using a turn.
+ */
+public class WeightedRoundRobinPolicy implements TaskSchedulingPolicy {
+    private final int[] weights;
+    private int currentLane;
+    private int creditsLeft;
+
+    /**
+     * @param high   tasks served from HIGH per round
+     * @param medium tasks served from MEDIUM per round
+     * @param low    tasks served from LOW per round
+     */
+    public WeightedRoundRobinPolicy(int high, int medium, int low) {
+        this.weights = new int[TaskPriority.values().length];
+        weights[TaskPriority.HIGH.ordinal()] = Math.max(1, high);
+        weights[TaskPriority.MEDIUM.ordinal()] = Math.max(1, medium);
+        weights[TaskPriority.LOW.ordinal()] = Math.max(1, low);
+        this.currentLane = 0;
+        this.creditsLeft = weights[0];
+    }
+
+    @Override
+    public int nextLane(LaneHeads heads) {
+        int lane = currentLane;
+        if (creditsLeft > 0 && heads.head(lane) != null) {
+            return lane;
+        }
+        for (int step = 1; step <= weights.length; step++) {
+            lane = (currentLane + step) % weights.length;
+            if (heads.head(lane) != null) {
+                return lane;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public void served(int lane) {
+        if (lane == currentLane && creditsLeft > 0) {
+            creditsLeft--;
+        } else {
+            currentLane = lane;
+            creditsLeft = weights[lane] - 1;
+        }
+    }
+}
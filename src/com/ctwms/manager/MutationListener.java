@@ -0,0 +1,88 @@
+package com.ctwms.manager;
+
+import com.ctwms.model.Personnel;
+import com.ctwms.model.Service;
+import com.ctwms.model.Task;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Receives every state change made through {@link PersonnelManager}, {@link ServiceCatalog} and
+ * {@link TaskManager}, in terms that replay deterministically against the same starting state.
+ * <p>
+ * Task additions are reported before they are applied and removals after, so that with several
+ * worker threads a task's removal can never be reported ahead of its addition. All other changes
+ * are reported after they took effect; no-op calls (e.g. removing an unknown name) are not
+ * reported. All methods default to doing nothing.
+ */
+public interface MutationListener {
+    MutationListener NONE = new MutationListener() {
+    };
+
+    default void personnelInserted(Personnel personnel, int position) {
+    }
+
+    default void personnelAppended(List<Personnel> personnel) {
+    }
+
+    default void personnelRemovedByName(String name) {
+    }
+
+    default void personnelRemovedAt(int index) {
+    }
+
+    default void personnelRemovedById(String id) {
+    }
+
+    default void personnelRangeRemoved(int from, int to) {
+    }
+
+    default void personnelSorted() {
+    }
+
+    default void personnelOrderRestored(int[] originalPositions) {
+    }
+
+    default void personnelReplaced(List<Personnel> orderedPersonnel) {
+    }
+
+    default void serviceInserted(Service service, int index) {
+    }
+
+    default void servicesAppended(List<Service> services) {
+    }
+
+    default void serviceRemoved(String name) {
+    }
+
+    default void servicesRemoved(List<String> names) {
+    }
+
+    default void serviceReplaced(String existingName, Service replacement) {
+    }
+
+    default void servicesSorted() {
+    }
+
+    default void taskAdded(Task task) {
+    }
+
+    default void tasksAdded(Collection<Task> tasks) {
+    }
+
+    /**
+     * Reports a task leaving the queue, whether it was served or cancelled.
+     */
+    default void taskRemoved(String taskId) {
+    }
+
+    default void tasksRemoved(List<Task> tasks) {
+    }
+
+    default void taskRequeued(Task task) {
+    }
+
+    default void tasksRequeued(List<Task> tasks) {
+    }
+}
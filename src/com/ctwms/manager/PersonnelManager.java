@@ -1,33 +1,108 @@
 package com.ctwms.manager;
 
+import com.ctwms.datastructures.Cursor;
 import com.ctwms.datastructures.PersonnelLinkedList;
+import com.ctwms.datastructures.PersonnelSortedViews;
+import com.ctwms.datastructures.PersonnelStore;
 import com.ctwms.model.Personnel;
+import com.ctwms.model.PersonnelSortKey;
 
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
 
 /**
- * Provides higher-level operations on the personnel linked list.
+ * Provides higher-level operations on the personnel directory store and keeps the sorted views
+ * in step with every add and remove.
+ * <p>
+ * The sorted views hold a reference to every record, so stores that keep records off the heap
+ * are used without them; sorted pages are then selected by scanning the store, which on a mapped
+ * store decodes every record and so costs {@code O(n)} per page wherever the page starts.
+ * <p>
+ * The two paths order equal keys differently: the views by registration order, the scan by
+ * stored position. They agree until a sort, an order restore or a reinsert moves records, after
+ * which records with equal keys may be listed in a different order by each.
  */
 public class PersonnelManager {
-    private final PersonnelLinkedList personnelList = new PersonnelLinkedList();
+    private final PersonnelStore personnelList;
+    private final PersonnelSortedViews sortedViews;
+    private MutationListener listener = MutationListener.NONE;
+
+    public PersonnelManager() {
+        this(new PersonnelLinkedList());
+    }
+
+    public PersonnelManager(PersonnelStore store) {
+        this(store, true);
+    }
+
+    public PersonnelManager(PersonnelStore store, boolean maintainSortedViews) {
+        this.personnelList = store;
+        this.sortedViews = maintainSortedViews ? new PersonnelSortedViews() : null;
+    }
+
+    public void setMutationListener(MutationListener listener) {
+        this.listener = listener != null ? listener : MutationListener.NONE;
+    }
 
     public void addPersonnel(Personnel personnel, int position) {
+        if (personnel == null) {
+            return;
+        }
         if (position < 0) {
             position = personnelList.size();
         }
         personnelList.insertAtPosition(personnel, position);
+        if (sortedViews != null) {
+            sortedViews.add(personnel);
+        }
+        listener.personnelInserted(personnel, position);
+    }
+
+    public void appendAll(List<Personnel> personnel) {
+        if (personnel == null || personnel.isEmpty()) {
+            return;
+        }
+        personnelList.appendAll(personnel);
+        if (sortedViews != null) {
+            sortedViews.addAll(personnel);
+        }
+        listener.personnelAppended(personnel);
     }
 
-    public PersonnelLinkedList.RemovalResult removeByName(String name) {
-        return personnelList.removeByName(name);
+    public PersonnelStore.RemovalResult removeByName(String name) {
+        PersonnelStore.RemovalResult result = personnelList.removeByName(name);
+        if (result.isRemoved()) {
+            if (sortedViews != null) {
+                sortedViews.remove(result.getRemovedPersonnel());
+            }
+            listener.personnelRemovedByName(name);
+        }
+        return result;
     }
 
     public Personnel findByName(String name) {
         return personnelList.findByName(name);
     }
 
-    public void sortByName() {
-        personnelList.sortByName();
+    /**
+     * Sorts the store by name and returns the permutation needed to undo it.
+     */
+    public int[] sortByName() {
+        int[] originalPositions = personnelList.sortByName();
+        listener.personnelSorted();
+        return originalPositions;
+    }
+
+    public boolean restoreOrder(int[] originalPositions) {
+        boolean restored = personnelList.restoreOrder(originalPositions);
+        if (restored) {
+            listener.personnelOrderRestored(originalPositions);
+        }
+        return restored;
     }
 
     public int count() {
@@ -38,19 +113,133 @@ public class PersonnelManager {
         return personnelList.toList();
     }
 
+    /**
+     * Returns a read-only, fail-fast cursor over the directory in stored order without copying it.
+     */
+    public Cursor<Personnel> cursor() {
+        return personnelList.cursor();
+    }
+
+    /**
+     * Visits every record in stored order straight from the store.
+     */
+    public void forEach(Consumer<? super Personnel> action) {
+        personnelList.forEach(action);
+    }
+
+    /**
+     * Returns one page of the directory ordered by the given key, or in stored order when the key
+     * is {@code null}. Sorted pages come from the maintained views and never reorder the store.
+     */
+    public List<Personnel> listPage(PersonnelSortKey key, int offset, int limit) {
+        if (key != null) {
+            return sortedViews != null ? sortedViews.page(key, offset, limit) : scanPage(key, offset, limit);
+        }
+        return personnelList.page(offset, limit);
+    }
+
     public void reinsert(Personnel personnel, int index) {
+        if (personnel == null) {
+            return;
+        }
         personnelList.reinsert(personnel, index);
+        if (sortedViews != null) {
+            sortedViews.add(personnel);
+        }
+        listener.personnelInserted(personnel, Math.max(0, index));
     }
 
     public Personnel removeAt(int index) {
-        return personnelList.removeAt(index);
+        Personnel removed = personnelList.removeAt(index);
+        if (removed != null) {
+            if (sortedViews != null) {
+                sortedViews.remove(removed);
+            }
+            listener.personnelRemovedAt(index);
+        }
+        return removed;
+    }
+
+    /**
+     * Removes the records at positions {@code [from, to)} as one change and one journal record.
+     */
+    public void removeRange(int from, int to) {
+        int start = Math.max(from, 0);
+        int end = Math.min(to, personnelList.size());
+        if (start >= end) {
+            return;
+        }
+        if (sortedViews != null) {
+            personnelList.cursor().skip(start).limit(end - start).forEachRemaining(sortedViews::remove);
+        }
+        personnelList.removeRange(start, end);
+        listener.personnelRangeRemoved(start, end);
     }
 
     public Personnel removeById(String id) {
-        return personnelList.removeById(id);
+        Personnel removed = personnelList.removeById(id);
+        if (removed != null) {
+            if (sortedViews != null) {
+                sortedViews.remove(removed);
+            }
+            listener.personnelRemovedById(id);
+        }
+        return removed;
     }
 
     public void replaceAll(List<Personnel> orderedPersonnel) {
         personnelList.replaceAll(orderedPersonnel);
+        if (sortedViews != null) {
+            sortedViews.clear();
+            sortedViews.addAll(orderedPersonnel);
+        }
+        listener.personnelReplaced(orderedPersonnel != null ? orderedPersonnel : List.of());
+    }
+
+    /**
+     * Selects a sorted page in one pass over the store, keeping only the best
+     * {@code offset + limit} records in a bounded heap. Ties keep stored order, which is not
+     * necessarily the registration order the views use.
+     */
+    private List<Personnel> scanPage(PersonnelSortKey key, int offset, int limit) {
+        int from = Math.max(offset, 0);
+        int wanted = (int) Math.min((long) from + Math.max(limit, 0), personnelList.size());
+        if (wanted <= from) {
+            return new ArrayList<>();
+        }
+        Comparator<PageEntry> order = Comparator.<PageEntry, String>comparing(entry -> entry.key)
+                .thenComparingInt(entry -> entry.position);
+        PriorityQueue<PageEntry> best = new PriorityQueue<>(wanted, order.reversed());
+        List<Personnel> all = personnelList.toList();
+        for (int i = 0; i < all.size(); i++) {
+            Personnel personnel = all.get(i);
+            String value = key.valueOf(personnel);
+            PageEntry entry = new PageEntry(value != null ? value.toLowerCase(Locale.ROOT) : "", i, personnel);
+            if (best.size() < wanted) {
+                best.add(entry);
+            } else if (order.compare(entry, best.peek()) < 0) {
+                best.poll();
+                best.add(entry);
+            }
+        }
+        List<PageEntry> sorted = new ArrayList<>(best);
+        sorted.sort(order);
+        List<Personnel> page = new ArrayList<>(wanted - from);
+        for (int i = from; i < sorted.size(); i++) {
+            page.add(sorted.get(i).personnel);
+        }
+        return page;
+    }
+
+    private static final class PageEntry {
+        private final String key;
+        private final int position;
+        private final Personnel personnel;
+
+        PageEntry(String key, int position, Personnel personnel) {
+            this.key = key;
+            this.position = position;
+            this.personnel = personnel;
+        }
     }
 }
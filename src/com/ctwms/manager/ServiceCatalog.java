@@ -1,20 +1,70 @@
 package com.ctwms.manager;
 
+import com.ctwms.datastructures.Cursor;
+import com.ctwms.datastructures.ServiceFacetIndex;
+import com.ctwms.datastructures.ServiceNameIndex;
+import com.ctwms.datastructures.ServiceSearchIndex;
 import com.ctwms.model.Service;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
- * Maintains the campus service catalog backed by an ArrayList.
+ * Maintains the campus service catalog backed by an ArrayList. A name index, an inverted word
+ * index and category/status facets are kept in step with every change, so lookups by name, keyword
+ * search and filtered listings never scan the list.
  */
 public class ServiceCatalog {
-    private final List<Service> services = new ArrayList<>();
+    private final ArrayList<Service> services = new ArrayList<>();
+    private final ServiceNameIndex nameIndex = new ServiceNameIndex();
+    private final ServiceSearchIndex searchIndex = new ServiceSearchIndex();
+    private final ServiceFacetIndex facetIndex = new ServiceFacetIndex();
+    private MutationListener listener = MutationListener.NONE;
+    private int modCount;
+
+    public void setMutationListener(MutationListener listener) {
+        this.listener = listener != null ? listener : MutationListener.NONE;
+    }
 
     public void addService(Service service) {
         services.add(service);
+        nameIndex.appended(service.getName());
+        searchIndex.add(service);
+        facetIndex.add(service);
+        modCount++;
+        listener.serviceInserted(service, -1);
+    }
+
+    /**
+     * Appends every service in order, growing the backing array once and reporting the batch as a
+     * single change.
+     */
+    public void addAll(List<Service> batch) {
+        if (batch == null || batch.isEmpty()) {
+            return;
+        }
+        int start = services.size();
+        services.ensureCapacity(start + batch.size());
+        for (Service service : batch) {
+            if (service != null) {
+                services.add(service);
+                nameIndex.appended(service.getName());
+                searchIndex.add(service);
+                facetIndex.add(service);
+            }
+        }
+        if (services.size() == start) {
+            return;
+        }
+        modCount++;
+        listener.servicesAppended(services.subList(start, services.size()));
     }
 
     public void insertService(Service service, int index) {
@@ -23,19 +73,72 @@ public class ServiceCatalog {
         }
         if (index < 0 || index > services.size()) {
             services.add(service);
+            nameIndex.appended(service.getName());
         } else {
             services.add(index, service);
+            nameIndex.inserted(service.getName(), index);
         }
+        searchIndex.add(service);
+        facetIndex.add(service);
+        modCount++;
+        listener.serviceInserted(service, index);
     }
 
     public Service removeService(String name) {
         int index = findIndexByName(name);
         if (index >= 0) {
-            return services.remove(index);
+            Service removed = services.remove(index);
+            nameIndex.removed(index);
+            searchIndex.remove(removed);
+            facetIndex.remove(removed);
+            modCount++;
+            listener.serviceRemoved(name);
+            return removed;
         }
         return null;
     }
 
+    /**
+     * Removes the first service with each of the given names (ignoring case) in one pass over the
+     * list, reindexes positions once and reports the batch as a single change. Returns the removed
+     * services in catalog order.
+     */
+    public List<Service> removeAllByName(Collection<String> names) {
+        List<Service> removed = new ArrayList<>();
+        if (names == null || names.isEmpty()) {
+            return removed;
+        }
+        Set<String> pending = new HashSet<>(names.size() * 2);
+        for (String name : names) {
+            if (name != null) {
+                pending.add(name.toLowerCase(Locale.ROOT));
+            }
+        }
+        int kept = 0;
+        for (int i = 0; i < services.size(); i++) {
+            Service service = services.get(i);
+            if (!pending.isEmpty() && pending.remove(service.getName().toLowerCase(Locale.ROOT))) {
+                searchIndex.remove(service);
+                facetIndex.remove(service);
+                removed.add(service);
+            } else {
+                services.set(kept++, service);
+            }
+        }
+        if (removed.isEmpty()) {
+            return removed;
+        }
+        services.subList(kept, services.size()).clear();
+        nameIndex.rebuild(services);
+        modCount++;
+        List<String> removedNames = new ArrayList<>(removed.size());
+        for (Service service : removed) {
+            removedNames.add(service.getName());
+        }
+        listener.servicesRemoved(removedNames);
+        return removed;
+    }
+
     public Service findByName(String name) {
         int index = findIndexByName(name);
         return index >= 0 ? services.get(index) : null;
@@ -46,53 +149,138 @@ public class ServiceCatalog {
         if (index >= 0) {
             Service previous = services.get(index);
             services.set(index, replacement);
+            nameIndex.replaced(index, replacement.getName());
+            searchIndex.remove(previous);
+            searchIndex.add(replacement);
+            facetIndex.remove(previous);
+            facetIndex.add(replacement);
+            modCount++;
+            listener.serviceReplaced(existingName, replacement);
             return previous;
         }
         return null;
     }
 
+    /**
+     * Returns the services matching every word of {@code keyword} as a word prefix in the name,
+     * category or description, name matches first. A keyword without any letters or digits
+     * matches the whole catalog.
+     */
     public List<Service> search(String keyword) {
-        List<Service> matches = new ArrayList<>();
         if (keyword == null) {
-            return matches;
-        }
-        String lower = keyword.toLowerCase(Locale.ROOT);
-        for (Service service : services) {
-            if (service.getName().toLowerCase(Locale.ROOT).contains(lower)
-                    || service.getDescription().toLowerCase(Locale.ROOT).contains(lower)
-                    || service.getCategory().toLowerCase(Locale.ROOT).contains(lower)) {
-                matches.add(service);
-            }
+            return new ArrayList<>();
         }
-        return matches;
+        List<Service> matches = searchIndex.search(keyword);
+        return matches != null ? matches : listAll();
     }
 
     public void sortAlphabetically() {
         services.sort(Comparator.comparing(Service::getName, String.CASE_INSENSITIVE_ORDER));
+        nameIndex.rebuild(services);
+        modCount++;
+        listener.servicesSorted();
     }
 
     public List<Service> listAll() {
         return new ArrayList<>(services);
     }
 
+    /**
+     * Returns a read-only, fail-fast cursor over the catalog in order, reading the list in place;
+     * skipping is an index move.
+     */
+    public Cursor<Service> cursor() {
+        return new Cursor<>(modCount) {
+            private int index;
+
+            protected int modCount() {
+                return ServiceCatalog.this.modCount;
+            }
+
+            protected boolean hasMore() {
+                return index < services.size();
+            }
+
+            protected Service advance() {
+                return services.get(index++);
+            }
+
+            protected int jump(int count) {
+                int skipped = Math.min(count, services.size() - index);
+                index += skipped;
+                return skipped;
+            }
+        };
+    }
+
+    /**
+     * Copies only the services on one page of the catalog.
+     */
+    public List<Service> listPage(int offset, int limit) {
+        List<Service> page = new ArrayList<>(Math.max(0, Math.min(limit, services.size() - Math.max(offset, 0))));
+        cursor().skip(offset).limit(limit).forEachRemaining(page::add);
+        return page;
+    }
+
+    /**
+     * Visits every service in catalog order without copying the list.
+     */
+    public void forEach(Consumer<? super Service> action) {
+        for (Service service : services) {
+            action.accept(service);
+        }
+    }
+
     public int count() {
         return services.size();
     }
 
+    /**
+     * Counts the services in {@code category} (ignoring case; {@code null} for every category)
+     * with the given status ({@code null} for either) without touching the list.
+     */
+    public int count(String category, Boolean active) {
+        return facetIndex.count(category, active);
+    }
+
+    public int categoryCount() {
+        return facetIndex.categoryCount();
+    }
+
+    /**
+     * Service counts per category, in the order the categories first appeared.
+     */
+    public Map<String, Integer> categoryCounts() {
+        return facetIndex.categoryCounts();
+    }
+
+    /**
+     * Visits the services matching both filters, active ones first, without copying the catalog.
+     */
+    public void forEach(String category, Boolean active, Consumer<? super Service> action) {
+        facetIndex.forEach(category, active, action);
+    }
+
+    /**
+     * Returns a read-only, fail-fast cursor over the services matching both filters, active ones
+     * first; skipping passes over a whole status bucket at once.
+     */
+    public Cursor<Service> cursor(String category, Boolean active) {
+        return facetIndex.cursor(category, active);
+    }
+
+    /**
+     * Returns the services matching both filters, active ones first; costs the size of the result.
+     */
+    public List<Service> listByFacet(String category, Boolean active) {
+        return facetIndex.list(category, active);
+    }
+
     public int indexOf(String name) {
         return findIndexByName(name);
     }
 
     private int findIndexByName(String name) {
-        if (name == null) {
-            return -1;
-        }
-        String target = name.toLowerCase(Locale.ROOT);
-        for (int i = 0; i < services.size(); i++) {
-            if (services.get(i).getName().toLowerCase(Locale.ROOT).equals(target)) {
-                return i;
-            }
-        }
-        return -1;
+        return nameIndex.firstPosition(name);
     }
 }
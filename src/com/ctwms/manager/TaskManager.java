@@ -1,45 +1,160 @@
 package com.ctwms.manager;
 
+import com.ctwms.datastructures.Cursor;
+import com.ctwms.datastructures.DelayedTaskQueue;
+import com.ctwms.datastructures.PriorityTaskQueue;
 import com.ctwms.datastructures.TaskQueue;
+import com.ctwms.datastructures.TaskSchedulingPolicy;
 import com.ctwms.model.Task;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Wraps the task queue to expose higher-level operations.
  */
 public class TaskManager {
-    private final TaskQueue queue = new TaskQueue();
+    private final PriorityTaskQueue queue;
+    private volatile MutationListener listener = MutationListener.NONE;
+
+    public TaskManager() {
+        this(new DelayedTaskQueue(new TaskQueue()));
+    }
+
+    public TaskManager(PriorityTaskQueue queue) {
+        this.queue = queue;
+    }
+
+    public void setMutationListener(MutationListener listener) {
+        this.listener = listener != null ? listener : MutationListener.NONE;
+    }
 
     public void addTask(Task task) {
+        if (task == null) {
+            return;
+        }
+        listener.taskAdded(task);
         queue.enqueue(task);
     }
 
+    /**
+     * Enqueues a whole batch with one splice per priority lane.
+     */
+    public void addAll(Collection<Task> tasks) {
+        if (tasks == null || tasks.isEmpty()) {
+            return;
+        }
+        listener.tasksAdded(tasks);
+        queue.addAll(tasks);
+    }
+
+    /**
+     * Serves up to {@code maxTasks} tasks into {@code sink} in serving order and returns how many
+     * were served.
+     */
+    public int drainTo(Collection<? super Task> sink, int maxTasks) {
+        if (listener == MutationListener.NONE) {
+            return queue.drainTo(sink, maxTasks);
+        }
+        List<Task> drained = new ArrayList<>(Math.max(0, Math.min(maxTasks, queue.size())));
+        int count = queue.drainTo(drained, maxTasks);
+        if (count > 0) {
+            listener.tasksRemoved(drained);
+            sink.addAll(drained);
+        }
+        return count;
+    }
+
     public Task peekNextTask() {
         return queue.peek();
     }
 
     public Task serveNextTask() {
-        return queue.dequeue();
+        return removed(queue.dequeue());
+    }
+
+    /**
+     * Serves the next task, waiting up to the timeout for one when the queue supports concurrent producers.
+     */
+    public Task serveNextTask(long timeout, TimeUnit unit) throws InterruptedException {
+        return removed(queue.take(timeout, unit));
     }
 
     public List<Task> listPendingTasks() {
         return queue.toList();
     }
 
+    /**
+     * Returns a read-only cursor over the pending tasks in {@link #listPendingTasks()} order; it
+     * reads the default lane queue in place.
+     */
+    public Cursor<Task> pendingCursor() {
+        return queue.cursor();
+    }
+
+    /**
+     * Returns one page of the pending list in {@link #listPendingTasks()} order.
+     */
+    public List<Task> listPendingPage(int offset, int limit) {
+        return queue.page(offset, limit);
+    }
+
     public int count() {
         return queue.size();
     }
 
+    public int scheduledCount() {
+        return queue.scheduledCount();
+    }
+
     public boolean isEmpty() {
         return queue.isEmpty();
     }
 
     public Task removeById(String taskId) {
-        return queue.removeById(taskId);
+        return removed(queue.removeById(taskId));
+    }
+
+    /**
+     * Removes every task with one of the given ids and reports them as a single change.
+     */
+    public List<Task> removeAllById(Collection<String> taskIds) {
+        if (taskIds == null || taskIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Task> removed = queue.removeAllById(taskIds);
+        if (!removed.isEmpty()) {
+            listener.tasksRemoved(removed);
+        }
+        return removed;
     }
 
     public void requeueAtFront(Task task) {
+        if (task == null) {
+            return;
+        }
+        listener.taskRequeued(task);
         queue.requeueAtFront(task);
     }
+
+    public void requeueAllAtFront(List<Task> tasks) {
+        if (tasks == null || tasks.isEmpty()) {
+            return;
+        }
+        listener.tasksRequeued(tasks);
+        queue.requeueAllAtFront(tasks);
+    }
+
+    public void setSchedulingPolicy(TaskSchedulingPolicy policy) {
+        queue.setSchedulingPolicy(policy);
+    }
+
+    private Task removed(Task task) {
+        if (task != null) {
+            listener.taskRemoved(task.getTaskId());
+        }
+        return task;
+    }
 }
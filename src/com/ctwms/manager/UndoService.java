@@ -1,22 +1,42 @@
 package com.ctwms.manager;
 
 import com.ctwms.datastructures.ActionStack;
+import com.ctwms.datastructures.Cursor;
 import com.ctwms.model.Action;
 import com.ctwms.model.ActionType;
 import com.ctwms.model.Personnel;
 import com.ctwms.model.Service;
 import com.ctwms.model.Task;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
- * Central place to record and revert undoable actions.
+ * Central place to record, revert and reapply undoable actions.
+ * <p>
+ * Undo and redo history each live in a fixed-capacity ring buffer, and can additionally be capped
+ * by estimated retained bytes; once either budget is exceeded the oldest actions are dropped.
+ * Recording a new action clears the redo history.
  */
 public class UndoService {
-    private final ActionStack actionStack = new ActionStack();
+    private final ActionStack actionStack;
+    private final ActionStack redoStack;
+
+    public UndoService() {
+        this(ActionStack.DEFAULT_CAPACITY, Long.MAX_VALUE);
+    }
+
+    public UndoService(int maxEntries, long maxBytes) {
+        this.actionStack = new ActionStack(maxEntries, maxBytes);
+        this.redoStack = new ActionStack(maxEntries, maxBytes);
+    }
 
     public void record(Action action) {
+        if (action == null) {
+            return;
+        }
         actionStack.push(action);
+        redoStack.clear();
     }
 
     public boolean undoLast(PersonnelManager personnelManager,
@@ -31,14 +51,47 @@ public class UndoService {
             case REMOVE_PERSONNEL -> revertRemovePersonnel(personnelManager, action.getPersonnelSnapshot(), action.getPositionIndex());
             case ADD_TASK -> revertAddTask(taskManager, action.getTaskSnapshot());
             case SERVE_TASK -> revertServeTask(taskManager, action.getTaskSnapshot());
+            case BATCH_ADD_TASKS -> revertBatchAddTasks(taskManager, action.getTaskBatch());
+            case BATCH_SERVE_TASKS -> revertBatchServeTasks(taskManager, action.getTaskBatch());
             case ADD_SERVICE -> revertAddService(serviceCatalog, action.getServiceAfter());
             case REMOVE_SERVICE -> revertRemoveService(serviceCatalog, action.getServiceBefore(), action.getPositionIndex());
             case EDIT_SERVICE -> revertEditService(serviceCatalog, action.getServiceBefore(), action.getServiceAfter());
-            case SORT_PERSONNEL -> revertPersonnelOrder(personnelManager, action.getPersonnelOrderSnapshot());
+            case SORT_PERSONNEL -> revertPersonnelOrder(personnelManager, action.getPersonnelOrder());
+            case IMPORT_PERSONNEL -> revertImportPersonnel(personnelManager, action.getPersonnelBatch(), action.getPositionIndex());
+            case IMPORT_SERVICES -> revertImportServices(serviceCatalog, action.getServiceBatch());
+            default -> {
+                return false;
+            }
+        }
+        redoStack.push(action);
+        return true;
+    }
+
+    public boolean redoLast(PersonnelManager personnelManager,
+                            TaskManager taskManager,
+                            ServiceCatalog serviceCatalog) {
+        Action action = redoStack.pop();
+        if (action == null) {
+            return false;
+        }
+        switch (action.getType()) {
+            case ADD_PERSONNEL -> reapplyAddPersonnel(personnelManager, action.getPersonnelSnapshot(), action.getPositionIndex());
+            case REMOVE_PERSONNEL -> reapplyRemovePersonnel(personnelManager, action.getPersonnelSnapshot());
+            case ADD_TASK -> reapplyAddTask(taskManager, action.getTaskSnapshot());
+            case SERVE_TASK -> reapplyServeTask(taskManager, action.getTaskSnapshot());
+            case BATCH_ADD_TASKS -> reapplyBatchAddTasks(taskManager, action.getTaskBatch());
+            case BATCH_SERVE_TASKS -> reapplyBatchServeTasks(taskManager, action.getTaskBatch());
+            case ADD_SERVICE -> reapplyAddService(serviceCatalog, action.getServiceAfter(), action.getPositionIndex());
+            case REMOVE_SERVICE -> reapplyRemoveService(serviceCatalog, action.getServiceBefore());
+            case EDIT_SERVICE -> reapplyEditService(serviceCatalog, action.getServiceBefore(), action.getServiceAfter());
+            case SORT_PERSONNEL -> reapplyPersonnelOrder(personnelManager);
+            case IMPORT_PERSONNEL -> reapplyImportPersonnel(personnelManager, action.getPersonnelBatch());
+            case IMPORT_SERVICES -> reapplyImportServices(serviceCatalog, action.getServiceBatch());
             default -> {
                 return false;
             }
         }
+        actionStack.push(action);
         return true;
     }
 
@@ -46,14 +99,47 @@ public class UndoService {
         return actionStack.asList();
     }
 
+    /**
+     * Returns a read-only, fail-fast cursor over the undo history, most recent first, without
+     * copying it.
+     */
+    public Cursor<Action> historyCursor() {
+        return actionStack.cursor();
+    }
+
+    public List<Action> redoHistory() {
+        return redoStack.asList();
+    }
+
     public void clear() {
         actionStack.clear();
+        redoStack.clear();
     }
 
     public int size() {
         return actionStack.size();
     }
 
+    public int redoSize() {
+        return redoStack.size();
+    }
+
+    public long estimatedBytes() {
+        return actionStack.estimatedBytes() + redoStack.estimatedBytes();
+    }
+
+    public long evictionCount() {
+        return actionStack.evictionCount() + redoStack.evictionCount();
+    }
+
+    public int maxEntries() {
+        return actionStack.maxEntries();
+    }
+
+    public long maxBytes() {
+        return actionStack.maxBytes();
+    }
+
     private void revertAddPersonnel(PersonnelManager manager, Personnel personnel) {
         if (personnel == null) {
             return;
@@ -68,11 +154,37 @@ public class UndoService {
         manager.reinsert(personnel, position);
     }
 
-    private void revertPersonnelOrder(PersonnelManager manager, List<Personnel> orderedPersonnel) {
-        if (orderedPersonnel == null) {
+    private void revertPersonnelOrder(PersonnelManager manager, int[] originalPositions) {
+        if (originalPositions == null) {
             return;
         }
-        manager.replaceAll(orderedPersonnel);
+        manager.restoreOrder(originalPositions);
+    }
+
+    /**
+     * Everything recorded after the import has been undone, so the imported records are again the
+     * block starting at {@code start} and come out as one range.
+     */
+    private void revertImportPersonnel(PersonnelManager manager, List<Personnel> personnel, int start) {
+        if (personnel == null) {
+            return;
+        }
+        manager.removeRange(start, start + personnel.size());
+    }
+
+    /**
+     * Imported names are unique in the catalog, so removing by name takes out exactly the imported
+     * entries, in one pass.
+     */
+    private void revertImportServices(ServiceCatalog catalog, List<Service> services) {
+        if (services == null) {
+            return;
+        }
+        List<String> names = new ArrayList<>(services.size());
+        for (Service service : services) {
+            names.add(service.getName());
+        }
+        catalog.removeAllByName(names);
     }
 
     private void revertAddTask(TaskManager manager, Task task) {
@@ -89,6 +201,23 @@ public class UndoService {
         manager.requeueAtFront(task);
     }
 
+    private void revertBatchAddTasks(TaskManager manager, List<Task> tasks) {
+        if (tasks == null) {
+            return;
+        }
+        manager.removeAllById(taskIds(tasks));
+    }
+
+    /**
+     * Served tasks were a prefix of each lane, so splicing them back in front restores the queue.
+     */
+    private void revertBatchServeTasks(TaskManager manager, List<Task> tasks) {
+        if (tasks == null) {
+            return;
+        }
+        manager.requeueAllAtFront(tasks);
+    }
+
     private void revertAddService(ServiceCatalog catalog, Service service) {
         if (service == null) {
             return;
@@ -114,4 +243,110 @@ public class UndoService {
             catalog.replaceService(previous.getName(), replacement);
         }
     }
+
+    private void reapplyAddPersonnel(PersonnelManager manager, Personnel personnel, int position) {
+        if (personnel == null) {
+            return;
+        }
+        manager.addPersonnel(personnel, position);
+    }
+
+    private void reapplyRemovePersonnel(PersonnelManager manager, Personnel personnel) {
+        if (personnel == null) {
+            return;
+        }
+        manager.removeById(personnel.getId());
+    }
+
+    /**
+     * The sort is stable and deterministic, so re-running it on the restored order reproduces the
+     * recorded permutation.
+     */
+    private void reapplyPersonnelOrder(PersonnelManager manager) {
+        manager.sortByName();
+    }
+
+    private void reapplyImportPersonnel(PersonnelManager manager, List<Personnel> personnel) {
+        if (personnel == null) {
+            return;
+        }
+        List<Personnel> copies = new ArrayList<>(personnel.size());
+        for (Personnel record : personnel) {
+            copies.add(record.clone());
+        }
+        manager.appendAll(copies);
+    }
+
+    private void reapplyImportServices(ServiceCatalog catalog, List<Service> services) {
+        if (services == null) {
+            return;
+        }
+        List<Service> copies = new ArrayList<>(services.size());
+        for (Service service : services) {
+            copies.add(service.clone());
+        }
+        catalog.addAll(copies);
+    }
+
+    private void reapplyAddTask(TaskManager manager, Task task) {
+        if (task == null) {
+            return;
+        }
+        manager.addTask(task);
+    }
+
+    private void reapplyServeTask(TaskManager manager, Task task) {
+        if (task == null) {
+            return;
+        }
+        manager.removeById(task.getTaskId());
+    }
+
+    private void reapplyBatchAddTasks(TaskManager manager, List<Task> tasks) {
+        if (tasks == null) {
+            return;
+        }
+        manager.addAll(tasks);
+    }
+
+    private void reapplyBatchServeTasks(TaskManager manager, List<Task> tasks) {
+        if (tasks == null) {
+            return;
+        }
+        manager.removeAllById(taskIds(tasks));
+    }
+
+    private void reapplyAddService(ServiceCatalog catalog, Service service, int index) {
+        if (service == null) {
+            return;
+        }
+        catalog.insertService(service.clone(), index);
+    }
+
+    private void reapplyRemoveService(ServiceCatalog catalog, Service service) {
+        if (service == null) {
+            return;
+        }
+        catalog.removeService(service.getName());
+    }
+
+    private void reapplyEditService(ServiceCatalog catalog, Service previous, Service current) {
+        if (current == null) {
+            return;
+        }
+        String targetName = previous != null ? previous.getName() : current.getName();
+        Service replacement = current.clone();
+        Service outcome = catalog.replaceService(targetName, replacement);
+        if (outcome == null && !current.getName().equalsIgnoreCase(targetName)) {
+            catalog.replaceService(current.getName(), replacement);
+        }
+    }
+
+    private static List<String> taskIds(List<Task> tasks) {
+        List<String> ids = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            ids.add(task.getTaskId());
+        }
+        return ids;
+    }
 }
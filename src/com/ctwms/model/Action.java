@@ -3,6 +3,7 @@ package com.ctwms.model;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -15,10 +16,17 @@ public class Action {
     private final Service serviceAfter;
     private final Task taskSnapshot;
     private final int positionIndex;
-    private final List<Personnel> personnelOrderSnapshot;
+    private final int[] personnelOrder;
+    private final List<Task> taskBatch;
+    private final List<Personnel> personnelBatch;
+    private final List<Service> serviceBatch;
     private final String description;
     private final String timestamp;
 
+    private static final int OBJECT_OVERHEAD = 16;
+    private static final int REFERENCE_SIZE = 4;
+    private static final int LOCAL_DATE_TIME_BYTES = 72;
+
     private Action(ActionType type,
                    Personnel personnelSnapshot,
                    Service serviceBefore,
@@ -26,24 +34,34 @@ public class Action {
                    Task taskSnapshot,
                    int positionIndex,
                    String description,
-                   List<Personnel> personnelOrderSnapshot) {
+                   int[] personnelOrder,
+                   List<Task> taskBatch,
+                   List<Personnel> personnelBatch,
+                   List<Service> serviceBatch) {
         this.type = type;
         this.personnelSnapshot = personnelSnapshot;
         this.serviceBefore = serviceBefore;
         this.serviceAfter = serviceAfter;
         this.taskSnapshot = taskSnapshot;
         this.positionIndex = positionIndex;
-        this.personnelOrderSnapshot = personnelOrderSnapshot;
+        this.personnelOrder = personnelOrder;
+        this.taskBatch = taskBatch;
+        this.personnelBatch = personnelBatch;
+        this.serviceBatch = serviceBatch;
         this.description = description;
         this.timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"));
     }
 
     public static Action personnelAction(ActionType type, Personnel personnel, int positionIndex, String description) {
         return new Action(type, personnel != null ? personnel.clone() : null, null, null,
-                null, positionIndex, description, null);
+                null, positionIndex, description, null, null, null, null);
     }
 
-    public static Action personnelOrderAction(List<Personnel> personnelOrderSnapshot, String description) {
+    /**
+     * Records a reorder of the directory as the permutation returned by the sort: entry {@code i}
+     * is the position the record now at {@code i} held before.
+     */
+    public static Action personnelOrderAction(int[] originalPositions, String description) {
         return new Action(ActionType.SORT_PERSONNEL,
                 null,
                 null,
@@ -51,11 +69,57 @@ public class Action {
                 null,
                 -1,
                 description,
-                clonePersonnelList(personnelOrderSnapshot));
+                originalPositions,
+                null,
+                null,
+                null);
     }
 
     public static Action taskAction(ActionType type, Task task, String description) {
-        return new Action(type, null, null, null, task != null ? task.clone() : null, -1, description, null);
+        return new Action(type, null, null, null, task != null ? task.clone() : null, -1, description, null, null,
+                null, null);
+    }
+
+    /**
+     * Records a batch of tasks enqueued or served together as a single undoable action. The tasks
+     * are snapshotted in the order they were enqueued or served.
+     */
+    public static Action taskBatchAction(ActionType type, List<Task> tasks, String description) {
+        List<Task> snapshot = new ArrayList<>(tasks != null ? tasks.size() : 0);
+        if (tasks != null) {
+            for (Task task : tasks) {
+                if (task != null) {
+                    snapshot.add(task.clone());
+                }
+            }
+        }
+        return new Action(type, null, null, null, null, -1, description, null,
+                Collections.unmodifiableList(snapshot), null, null);
+    }
+
+    /**
+     * Records personnel appended together at {@code startPosition} (the directory size before the
+     * import) as a single undoable action.
+     */
+    public static Action personnelImportAction(List<Personnel> personnel, int startPosition, String description) {
+        List<Personnel> snapshot = new ArrayList<>(personnel.size());
+        for (Personnel record : personnel) {
+            snapshot.add(record.clone());
+        }
+        return new Action(ActionType.IMPORT_PERSONNEL, null, null, null, null, startPosition, description, null,
+                null, Collections.unmodifiableList(snapshot), null);
+    }
+
+    /**
+     * Records services appended together to the end of the catalog as a single undoable action.
+     */
+    public static Action serviceImportAction(List<Service> services, String description) {
+        List<Service> snapshot = new ArrayList<>(services.size());
+        for (Service service : services) {
+            snapshot.add(service.clone());
+        }
+        return new Action(ActionType.IMPORT_SERVICES, null, null, null, null, -1, description, null,
+                null, null, Collections.unmodifiableList(snapshot));
     }
 
     public static Action serviceAction(ActionType type, Service before, Service after, int positionIndex, String description) {
@@ -66,6 +130,9 @@ public class Action {
                 null,
                 positionIndex,
                 description,
+                null,
+                null,
+                null,
                 null);
     }
 
@@ -93,8 +160,20 @@ public class Action {
         return positionIndex;
     }
 
-    public List<Personnel> getPersonnelOrderSnapshot() {
-        return personnelOrderSnapshot;
+    public int[] getPersonnelOrder() {
+        return personnelOrder;
+    }
+
+    public List<Task> getTaskBatch() {
+        return taskBatch;
+    }
+
+    public List<Personnel> getPersonnelBatch() {
+        return personnelBatch;
+    }
+
+    public List<Service> getServiceBatch() {
+        return serviceBatch;
     }
 
     public String getDescription() {
@@ -105,19 +184,75 @@ public class Action {
         return timestamp;
     }
 
+    /**
+     * Rough retained-heap estimate for this action and its snapshots, used to budget undo history.
+     * Assumes compressed references and Latin-1 strings.
+     */
+    public long estimatedBytes() {
+        long bytes = OBJECT_OVERHEAD + 11L * REFERENCE_SIZE + Integer.BYTES
+                + stringBytes(description) + stringBytes(timestamp);
+        bytes += personnelBytes(personnelSnapshot);
+        if (personnelBatch != null) {
+            bytes += 2L * OBJECT_OVERHEAD + (long) REFERENCE_SIZE * personnelBatch.size();
+            for (Personnel personnel : personnelBatch) {
+                bytes += personnelBytes(personnel);
+            }
+        }
+        if (serviceBatch != null) {
+            bytes += 2L * OBJECT_OVERHEAD + (long) REFERENCE_SIZE * serviceBatch.size();
+            for (Service service : serviceBatch) {
+                bytes += serviceBytes(service);
+            }
+        }
+        bytes += serviceBytes(serviceBefore) + serviceBytes(serviceAfter);
+        bytes += taskBytes(taskSnapshot);
+        if (taskBatch != null) {
+            bytes += 2L * OBJECT_OVERHEAD + (long) REFERENCE_SIZE * taskBatch.size();
+            for (Task task : taskBatch) {
+                bytes += taskBytes(task);
+            }
+        }
+        if (personnelOrder != null) {
+            bytes += OBJECT_OVERHEAD + (long) Integer.BYTES * personnelOrder.length;
+        }
+        return bytes;
+    }
+
     @Override
     public String toString() {
         return String.format("%s | %s | %s", timestamp, type, description);
     }
 
-    private static List<Personnel> clonePersonnelList(List<Personnel> source) {
-        if (source == null) {
-            return null;
+    private static long personnelBytes(Personnel personnel) {
+        if (personnel == null) {
+            return 0;
+        }
+        return OBJECT_OVERHEAD + 5L * REFERENCE_SIZE
+                + stringBytes(personnel.getId()) + stringBytes(personnel.getName())
+                + stringBytes(personnel.getRole()) + stringBytes(personnel.getDepartment())
+                + stringBytes(personnel.getEmail());
+    }
+
+    private static long taskBytes(Task task) {
+        if (task == null) {
+            return 0;
         }
-        List<Personnel> clones = new ArrayList<>(source.size());
-        for (Personnel personnel : source) {
-            clones.add(personnel.clone());
+        return OBJECT_OVERHEAD + 6L * REFERENCE_SIZE + LOCAL_DATE_TIME_BYTES
+                + (task.getNotBefore() != null ? LOCAL_DATE_TIME_BYTES : 0)
+                + stringBytes(task.getTaskId()) + stringBytes(task.getRequestor())
+                + stringBytes(task.getDescription());
+    }
+
+    private static long serviceBytes(Service service) {
+        if (service == null) {
+            return 0;
         }
-        return clones;
+        return OBJECT_OVERHEAD + 3L * REFERENCE_SIZE + 1
+                + stringBytes(service.getName()) + stringBytes(service.getDescription())
+                + stringBytes(service.getCategory());
+    }
+
+    private static long stringBytes(String value) {
+        return value != null ? 2L * OBJECT_OVERHEAD + 8 + value.length() : 0;
     }
 }
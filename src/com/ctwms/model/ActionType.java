@@ -9,7 +9,11 @@ public enum ActionType {
     SORT_PERSONNEL,
     ADD_TASK,
     SERVE_TASK,
+    BATCH_ADD_TASKS,
+    BATCH_SERVE_TASKS,
     ADD_SERVICE,
     REMOVE_SERVICE,
-    EDIT_SERVICE;
+    EDIT_SERVICE,
+    IMPORT_PERSONNEL,
+    IMPORT_SERVICES;
 }
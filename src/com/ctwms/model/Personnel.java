@@ -1,5 +1,8 @@
 package com.ctwms.model;
 
+import java.util.Locale;
+import java.util.UUID;
+
 /**
  * Represents an individual registered in the campus directory.
  */
@@ -54,6 +57,20 @@ public class Personnel implements Cloneable {
         this.email = email;
     }
 
+    /**
+     * Generates an id in the {@code PER-XXXXXXXX} form used when none is given.
+     */
+    public static String generateId() {
+        return "PER-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * The directory's email rule: an {@code @} with something on both sides.
+     */
+    public static boolean isValidEmail(String email) {
+        return email != null && email.contains("@") && !email.startsWith("@") && !email.endsWith("@");
+    }
+
     @Override
     public String toString() {
         return String.format("%s (%s) - %s | %s | %s", name, id, role, department, email);
@@ -0,0 +1,35 @@
+package com.ctwms.model;
+
+import java.util.function.Function;
+
+/**
+ * Enumerates the fields the personnel directory can be listed by.
+ */
+public enum PersonnelSortKey {
+    NAME(Personnel::getName),
+    DEPARTMENT(Personnel::getDepartment),
+    ROLE(Personnel::getRole),
+    EMAIL(Personnel::getEmail);
+
+    private final Function<Personnel, String> extractor;
+
+    PersonnelSortKey(Function<Personnel, String> extractor) {
+        this.extractor = extractor;
+    }
+
+    public String valueOf(Personnel personnel) {
+        return extractor.apply(personnel);
+    }
+
+    /**
+     * Resolves a key from user input, returning {@code null} (insertion order) when nothing matches.
+     */
+    public static PersonnelSortKey fromInput(String input) {
+        for (PersonnelSortKey key : values()) {
+            if (key.name().equalsIgnoreCase(input)) {
+                return key;
+            }
+        }
+        return null;
+    }
+}
@@ -7,11 +7,17 @@ import java.time.format.DateTimeFormatter;
  * Represents a queued task request within the CTWMS.
  */
 public class Task implements Cloneable {
+    /**
+     * Prefix of the ids the application generates; a sequence number follows it.
+     */
+    public static final String GENERATED_ID_PREFIX = "TASK-";
+
     private final String taskId;
     private final String requestor;
     private final String description;
     private final TaskPriority priority;
     private final LocalDateTime createdAt;
+    private final LocalDateTime notBefore;
 
     public Task(String taskId, String requestor, String description, TaskPriority priority) {
         this.taskId = taskId;
@@ -19,14 +25,42 @@ public class Task implements Cloneable {
         this.description = description;
         this.priority = priority;
         this.createdAt = LocalDateTime.now();
+        this.notBefore = null;
+    }
+
+    /**
+     * Creates a task with an explicit creation time, e.g. when restoring or simulating a backlog.
+     */
+    public Task(String taskId, String requestor, String description, TaskPriority priority, LocalDateTime createdAt) {
+        this(taskId, requestor, description, priority, createdAt, null);
     }
 
-    private Task(String taskId, String requestor, String description, TaskPriority priority, LocalDateTime createdAt) {
+    /**
+     * Creates a task that must not be served before {@code notBefore}; {@code null} means it is
+     * eligible immediately.
+     */
+    public Task(String taskId, String requestor, String description, TaskPriority priority,
+                LocalDateTime createdAt, LocalDateTime notBefore) {
         this.taskId = taskId;
         this.requestor = requestor;
         this.description = description;
         this.priority = priority;
         this.createdAt = createdAt;
+        this.notBefore = notBefore;
+    }
+
+    /**
+     * Returns {@code n} for a generated {@code TASK-n} id, or 0 for any other id.
+     */
+    public static int generatedNumber(String taskId) {
+        if (taskId == null || !taskId.startsWith(GENERATED_ID_PREFIX)) {
+            return 0;
+        }
+        try {
+            return Math.max(0, Integer.parseInt(taskId.substring(GENERATED_ID_PREFIX.length())));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
     }
 
     public String getTaskId() {
@@ -49,14 +83,28 @@ public class Task implements Cloneable {
         return createdAt;
     }
 
+    public LocalDateTime getNotBefore() {
+        return notBefore;
+    }
+
+    /**
+     * Returns when the task became (or becomes) eligible for service: the later of its creation
+     * time and its not-before time.
+     */
+    public LocalDateTime getEligibleAt() {
+        return notBefore != null && notBefore.isAfter(createdAt) ? notBefore : createdAt;
+    }
+
     @Override
     public String toString() {
-        return String.format("[%s] %s | %s | %s | %s", taskId, requestor, description, priority,
-                createdAt.format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")));
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+        String base = String.format("[%s] %s | %s | %s | %s", taskId, requestor, description, priority,
+                createdAt.format(formatter));
+        return notBefore != null ? base + " | not before " + notBefore.format(formatter) : base;
     }
 
     @Override
     public Task clone() {
-        return new Task(taskId, requestor, description, priority, createdAt);
+        return new Task(taskId, requestor, description, priority, createdAt, notBefore);
     }
 }
@@ -0,0 +1,152 @@
+package com.ctwms.persistence;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.List;
+
+/**
+ * Streaming RFC 4180 reader: comma-separated fields, optional double quotes, {@code ""} for a quote
+ * inside a quoted field, and line breaks inside quotes. Reads through a fixed 64 KiB buffer and
+ * reuses one builder for every field, so memory stays constant regardless of file size. Blank
+ * lines are skipped and a leading byte order mark is ignored.
+ */
+final class CsvReader implements Closeable {
+    private static final int BUFFER_CHARS = 64 * 1024;
+
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_CHARS];
+    private final StringBuilder field = new StringBuilder();
+    private int position;
+    private int limit;
+    private long line = 1;
+    private long recordLine;
+    private boolean started;
+
+    CsvReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Replaces the contents of {@code fields} with the next record. Returns {@code false} at the
+     * end of the input.
+     */
+    boolean readRecord(List<String> fields) throws IOException {
+        fields.clear();
+        int c;
+        do {
+            c = read();
+            if (c == '\n') {
+                line++;
+            }
+        } while (c == '\n' || c == '\r');
+        if (c < 0) {
+            return false;
+        }
+        recordLine = line;
+        field.setLength(0);
+        boolean quoted = false;
+        boolean fieldStart = true;
+        while (true) {
+            if (quoted) {
+                if (c < 0) {
+                    throw new IOException("Unterminated quoted field starting on line " + recordLine);
+                }
+                if (c == '"') {
+                    if (peek() == '"') {
+                        position++;
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                    appendRun(true);
+                }
+            } else if (c == '"' && fieldStart) {
+                quoted = true;
+                fieldStart = false;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                fieldStart = true;
+            } else if (c == '\n' || c < 0) {
+                fields.add(field.toString());
+                if (c == '\n') {
+                    line++;
+                }
+                return true;
+            } else if (c != '\r') {
+                field.append((char) c);
+                fieldStart = false;
+                appendRun(false);
+            }
+            c = read();
+        }
+    }
+
+    /**
+     * Line on which the record last returned by {@link #readRecord} started, for error messages.
+     */
+    long recordLine() {
+        return recordLine;
+    }
+
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    /**
+     * Copies the run of ordinary characters that follows straight from the buffer, so most of a
+     * field is appended in one call instead of one character at a time.
+     */
+    private void appendRun(boolean quoted) {
+        int end = position;
+        while (end < limit) {
+            char c = buffer[end];
+            if (c == '"' || c == '\n' || c == '\r' || (!quoted && c == ',')) {
+                break;
+            }
+            end++;
+        }
+        field.append(buffer, position, end - position);
+        position = end;
+    }
+
+    private int read() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+
+    private int peek() throws IOException {
+        if (position == limit && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+
+    private boolean fill() throws IOException {
+        int read;
+        do {
+            read = reader.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read < 0) {
+            return false;
+        }
+        position = 0;
+        limit = read;
+        if (!started) {
+            started = true;
+            if (buffer[0] == '\uFEFF') {
+                position = 1;
+                return position < limit || fill();
+            }
+        }
+        return true;
+    }
+}
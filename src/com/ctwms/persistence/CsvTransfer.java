@@ -0,0 +1,302 @@
+package com.ctwms.persistence;
+
+import com.ctwms.manager.PersonnelManager;
+import com.ctwms.manager.ServiceCatalog;
+import com.ctwms.model.Personnel;
+import com.ctwms.model.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Bulk CSV import and export for the personnel directory and the service catalog.
+ * <p>
+ * Imports stream the file record by record and hand valid rows to the managers' bulk append in
+ * chunks, so only one chunk of parsed rows is pending at a time. The first row must be a header;
+ * columns are matched by name in any order. Rows that fail validation are skipped and reported,
+ * the rest are imported; a read error after the first rows were added ends the import early
+ * rather than throwing, so the returned result always lists what was added. Exports write straight
+ * from the managers' iteration without copying.
+ */
+public final class CsvTransfer {
+    static final String[] PERSONNEL_COLUMNS = {"id", "name", "role", "department", "email"};
+    static final String[] SERVICE_COLUMNS = {"name", "description", "category", "active"};
+
+    private static final int CHUNK_RECORDS = 4096;
+    private static final int MAX_REPORTED_ERRORS = 20;
+    private static final int WRITE_BUFFER_CHARS = 64 * 1024;
+
+    private CsvTransfer() {
+    }
+
+    /**
+     * Outcome of an import: the records added, in order, and the rows that were skipped.
+     */
+    public static final class ImportResult<T> {
+        private final List<T> imported;
+        private final long rejected;
+        private final List<String> errors;
+
+        ImportResult(List<T> imported, long rejected, List<String> errors) {
+            this.imported = Collections.unmodifiableList(imported);
+            this.rejected = rejected;
+            this.errors = Collections.unmodifiableList(errors);
+        }
+
+        public List<T> imported() {
+            return imported;
+        }
+
+        public long rejected() {
+            return rejected;
+        }
+
+        /**
+         * Reasons for the first few rejected rows, prefixed with their line numbers.
+         */
+        public List<String> errors() {
+            return errors;
+        }
+    }
+
+    /**
+     * Appends every valid row of {@code file} to the directory. Name, role and department are
+     * required, the email must pass {@link Personnel#isValidEmail}, and a blank or missing id is
+     * generated.
+     */
+    public static ImportResult<Personnel> importPersonnel(Path file, PersonnelManager manager) throws IOException {
+        List<Personnel> imported = new ArrayList<>();
+        List<Personnel> chunk = new ArrayList<>(CHUNK_RECORDS);
+        Rejections rejections = new Rejections();
+        try (CsvReader reader = open(file)) {
+            List<String> row = new ArrayList<>(PERSONNEL_COLUMNS.length);
+            int[] columns = readHeader(reader, row, PERSONNEL_COLUMNS, "id");
+            while (reader.readRecord(row)) {
+                String id = column(row, columns[0]);
+                String name = column(row, columns[1]);
+                String role = column(row, columns[2]);
+                String department = column(row, columns[3]);
+                String email = column(row, columns[4]);
+                if (name.isEmpty() || role.isEmpty() || department.isEmpty()) {
+                    rejections.add(reader, "name, role and department are required");
+                    continue;
+                }
+                if (!Personnel.isValidEmail(email)) {
+                    rejections.add(reader, "invalid email '" + email + "'");
+                    continue;
+                }
+                chunk.add(new Personnel(id.isEmpty() ? Personnel.generateId() : id, name, role, department, email));
+                if (chunk.size() == CHUNK_RECORDS) {
+                    flushPersonnel(manager, chunk, imported);
+                }
+            }
+        } catch (IOException e) {
+            if (imported.isEmpty() && chunk.isEmpty()) {
+                throw e;
+            }
+            rejections.stopped(e);
+        }
+        flushPersonnel(manager, chunk, imported);
+        return new ImportResult<>(imported, rejections.count, rejections.messages);
+    }
+
+    /**
+     * Appends every valid row of {@code file} to the catalog. Name, description and category are
+     * required; {@code active} accepts true/false, yes/no, y/n or 1/0 and defaults to active. A
+     * name already in the catalog, or seen earlier in the file, is rejected.
+     */
+    public static ImportResult<Service> importServices(Path file, ServiceCatalog catalog) throws IOException {
+        Set<String> names = new HashSet<>();
+        catalog.forEach(service -> names.add(fold(service.getName())));
+        List<Service> imported = new ArrayList<>();
+        List<Service> chunk = new ArrayList<>(CHUNK_RECORDS);
+        Rejections rejections = new Rejections();
+        try (CsvReader reader = open(file)) {
+            List<String> row = new ArrayList<>(SERVICE_COLUMNS.length);
+            int[] columns = readHeader(reader, row, SERVICE_COLUMNS, "active");
+            while (reader.readRecord(row)) {
+                String name = column(row, columns[0]);
+                String description = column(row, columns[1]);
+                String category = column(row, columns[2]);
+                Boolean active = parseActive(column(row, columns[3]));
+                if (name.isEmpty() || description.isEmpty() || category.isEmpty()) {
+                    rejections.add(reader, "name, description and category are required");
+                    continue;
+                }
+                if (active == null) {
+                    rejections.add(reader, "active must be yes or no");
+                    continue;
+                }
+                if (!names.add(fold(name))) {
+                    rejections.add(reader, "duplicate service name '" + name + "'");
+                    continue;
+                }
+                chunk.add(new Service(name, description, category, active));
+                if (chunk.size() == CHUNK_RECORDS) {
+                    flushServices(catalog, chunk, imported);
+                }
+            }
+        } catch (IOException e) {
+            if (imported.isEmpty() && chunk.isEmpty()) {
+                throw e;
+            }
+            rejections.stopped(e);
+        }
+        flushServices(catalog, chunk, imported);
+        return new ImportResult<>(imported, rejections.count, rejections.messages);
+    }
+
+    /**
+     * Writes the directory in stored order and returns the number of records written.
+     */
+    public static long exportPersonnel(PersonnelManager manager, Path file) throws IOException {
+        try (CsvWriter writer = create(file)) {
+            writer.writeRecord(PERSONNEL_COLUMNS);
+            long[] written = new long[1];
+            forEachUnchecked(() -> manager.forEach(personnel -> {
+                write(writer, personnel.getId(), personnel.getName(), personnel.getRole(),
+                        personnel.getDepartment(), personnel.getEmail());
+                written[0]++;
+            }));
+            return written[0];
+        }
+    }
+
+    /**
+     * Writes the catalog in its current order and returns the number of services written.
+     */
+    public static long exportServices(ServiceCatalog catalog, Path file) throws IOException {
+        try (CsvWriter writer = create(file)) {
+            writer.writeRecord(SERVICE_COLUMNS);
+            long[] written = new long[1];
+            forEachUnchecked(() -> catalog.forEach(service -> {
+                write(writer, service.getName(), service.getDescription(), service.getCategory(),
+                        service.isActive() ? "yes" : "no");
+                written[0]++;
+            }));
+            return written[0];
+        }
+    }
+
+    private static void flushPersonnel(PersonnelManager manager, List<Personnel> chunk, List<Personnel> imported) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<Personnel> batch = new ArrayList<>(chunk);
+        manager.appendAll(batch);
+        imported.addAll(batch);
+        chunk.clear();
+    }
+
+    private static void flushServices(ServiceCatalog catalog, List<Service> chunk, List<Service> imported) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        List<Service> batch = new ArrayList<>(chunk);
+        catalog.addAll(batch);
+        imported.addAll(batch);
+        chunk.clear();
+    }
+
+    /**
+     * Maps each expected column to its index in the header row. Only {@code optional} may be
+     * missing, in which case its index is -1.
+     */
+    private static int[] readHeader(CsvReader reader, List<String> row, String[] expected, String optional)
+            throws IOException {
+        if (!reader.readRecord(row)) {
+            throw new IOException("The file is empty; expected a header row: " + String.join(",", expected));
+        }
+        int[] columns = new int[expected.length];
+        for (int i = 0; i < expected.length; i++) {
+            columns[i] = -1;
+            for (int j = 0; j < row.size(); j++) {
+                if (row.get(j).trim().equalsIgnoreCase(expected[i])) {
+                    columns[i] = j;
+                    break;
+                }
+            }
+            if (columns[i] < 0 && !expected[i].equals(optional)) {
+                throw new IOException("Missing column '" + expected[i] + "' in header; expected "
+                        + String.join(",", expected));
+            }
+        }
+        return columns;
+    }
+
+    private static String column(List<String> row, int index) {
+        return index >= 0 && index < row.size() ? row.get(index).trim() : "";
+    }
+
+    private static Boolean parseActive(String value) {
+        switch (value.toLowerCase(Locale.ROOT)) {
+            case "", "true", "yes", "y", "1":
+                return Boolean.TRUE;
+            case "false", "no", "n", "0":
+                return Boolean.FALSE;
+            default:
+                return null;
+        }
+    }
+
+    private static String fold(String value) {
+        return value != null ? value.toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static CsvReader open(Path file) throws IOException {
+        return new CsvReader(new InputStreamReader(Files.newInputStream(file), StandardCharsets.UTF_8));
+    }
+
+    private static CsvWriter create(Path file) throws IOException {
+        return new CsvWriter(new BufferedWriter(new OutputStreamWriter(Files.newOutputStream(file),
+                StandardCharsets.UTF_8), WRITE_BUFFER_CHARS));
+    }
+
+    private static void write(CsvWriter writer, String... fields) {
+        try {
+            writer.writeRecord(fields);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void forEachUnchecked(Runnable loop) throws IOException {
+        try {
+            loop.run();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class Rejections {
+        private final List<String> messages = new ArrayList<>();
+        private long count;
+
+        void add(CsvReader reader, String reason) {
+            count++;
+            if (messages.size() < MAX_REPORTED_ERRORS) {
+                messages.add("line " + reader.recordLine() + ": " + reason);
+            }
+        }
+
+        /**
+         * Records why reading stopped once some rows were already imported; those stay imported
+         * so the caller can still record them as one undoable action.
+         */
+        void stopped(IOException cause) {
+            messages.add("import stopped early: " + cause.getMessage());
+        }
+    }
+}
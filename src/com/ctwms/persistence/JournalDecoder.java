@@ -0,0 +1,113 @@
+package com.ctwms.persistence;
+
+import com.ctwms.model.Personnel;
+import com.ctwms.model.Service;
+import com.ctwms.model.Task;
+import com.ctwms.model.TaskPriority;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Reads values written by {@link JournalEncoder} from a buffer positioned at a record payload.
+ * Works on heap and memory-mapped buffers alike.
+ */
+final class JournalDecoder {
+    private static final TaskPriority[] PRIORITIES = TaskPriority.values();
+
+    private ByteBuffer buffer;
+    private byte[] scratch = new byte[256];
+
+    void wrap(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    int getByte() {
+        return buffer.get() & 0xFF;
+    }
+
+    boolean getBoolean() {
+        return buffer.get() != 0;
+    }
+
+    long getUnsigned() {
+        long value = 0;
+        int shift = 0;
+        while (true) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+            shift += 7;
+            if (shift > 63) {
+                throw new IllegalStateException("Malformed varint in journal");
+            }
+        }
+    }
+
+    int getUnsignedInt() {
+        return Math.toIntExact(getUnsigned());
+    }
+
+    long getSigned() {
+        long raw = getUnsigned();
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+
+    String getString() {
+        int encoded = getUnsignedInt();
+        if (encoded == 0) {
+            return null;
+        }
+        int size = encoded - 1;
+        if (buffer.hasArray()) {
+            int start = buffer.arrayOffset() + buffer.position();
+            buffer.position(buffer.position() + size);
+            return new String(buffer.array(), start, size, StandardCharsets.UTF_8);
+        }
+        if (scratch.length < size) {
+            scratch = new byte[Math.max(size, scratch.length * 2)];
+        }
+        buffer.get(scratch, 0, size);
+        return new String(scratch, 0, size, StandardCharsets.UTF_8);
+    }
+
+    LocalDateTime getDateTime() {
+        if (getByte() == 0) {
+            return null;
+        }
+        long seconds = getSigned();
+        int nanos = getUnsignedInt();
+        return LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC);
+    }
+
+    int[] getIntArray() {
+        int[] values = new int[getUnsignedInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (int) getSigned();
+        }
+        return values;
+    }
+
+    Personnel getPersonnel() {
+        return new Personnel(getString(), getString(), getString(), getString(), getString());
+    }
+
+    Service getService() {
+        return new Service(getString(), getString(), getString(), getBoolean());
+    }
+
+    Task getTask() {
+        String taskId = getString();
+        String requestor = getString();
+        String description = getString();
+        int priority = getByte();
+        LocalDateTime createdAt = getDateTime();
+        LocalDateTime notBefore = getDateTime();
+        return new Task(taskId, requestor, description,
+                priority < PRIORITIES.length ? PRIORITIES[priority] : null, createdAt, notBefore);
+    }
+}
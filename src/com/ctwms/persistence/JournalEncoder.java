@@ -0,0 +1,116 @@
+package com.ctwms.persistence;
+
+import com.ctwms.model.Personnel;
+import com.ctwms.model.Service;
+import com.ctwms.model.Task;
+import com.ctwms.model.TaskPriority;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+/**
+ * Growable byte buffer that encodes journal record payloads.
+ * <p>
+ * Integers are written as LEB128 varints (zig-zag for signed values) and strings as a varint
+ * length followed by UTF-8 bytes, with length {@code 0} reserved for {@code null}. Timestamps are
+ * stored as UTC epoch seconds plus nanoseconds, which round-trips {@link LocalDateTime} exactly.
+ */
+final class JournalEncoder {
+    private byte[] bytes = new byte[256];
+    private int length;
+
+    void reset() {
+        length = 0;
+    }
+
+    int length() {
+        return length;
+    }
+
+    byte[] array() {
+        return bytes;
+    }
+
+    void putByte(int value) {
+        ensure(1);
+        bytes[length++] = (byte) value;
+    }
+
+    void putBoolean(boolean value) {
+        putByte(value ? 1 : 0);
+    }
+
+    void putUnsigned(long value) {
+        ensure(10);
+        while ((value & ~0x7FL) != 0) {
+            bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        bytes[length++] = (byte) value;
+    }
+
+    void putSigned(long value) {
+        putUnsigned((value << 1) ^ (value >> 63));
+    }
+
+    void putString(String value) {
+        if (value == null) {
+            putUnsigned(0);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        putUnsigned(utf8.length + 1L);
+        ensure(utf8.length);
+        System.arraycopy(utf8, 0, bytes, length, utf8.length);
+        length += utf8.length;
+    }
+
+    void putDateTime(LocalDateTime value) {
+        if (value == null) {
+            putByte(0);
+            return;
+        }
+        putByte(1);
+        putSigned(value.toEpochSecond(ZoneOffset.UTC));
+        putUnsigned(value.getNano());
+    }
+
+    void putIntArray(int[] values) {
+        putUnsigned(values.length);
+        for (int value : values) {
+            putSigned(value);
+        }
+    }
+
+    void putPersonnel(Personnel personnel) {
+        putString(personnel.getId());
+        putString(personnel.getName());
+        putString(personnel.getRole());
+        putString(personnel.getDepartment());
+        putString(personnel.getEmail());
+    }
+
+    void putService(Service service) {
+        putString(service.getName());
+        putString(service.getDescription());
+        putString(service.getCategory());
+        putBoolean(service.isActive());
+    }
+
+    void putTask(Task task) {
+        putString(task.getTaskId());
+        putString(task.getRequestor());
+        putString(task.getDescription());
+        putByte(task.getPriority() != null ? task.getPriority().ordinal() : TaskPriority.values().length);
+        putDateTime(task.getCreatedAt());
+        putDateTime(task.getNotBefore());
+    }
+
+    private void ensure(int extra) {
+        if (length + extra > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+        }
+    }
+}
@@ -0,0 +1,246 @@
+package com.ctwms.persistence;
+
+import com.ctwms.manager.PersonnelManager;
+import com.ctwms.manager.ServiceCatalog;
+import com.ctwms.manager.TaskManager;
+import com.ctwms.model.Personnel;
+import com.ctwms.model.Service;
+import com.ctwms.model.Task;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Rebuilds manager state by re-applying every record of a {@link WriteAheadLog} file in order.
+ * <p>
+ * The file is streamed through a 1 MiB buffer. Replay stops at the first record that is truncated
+ * or fails its checksum, which is what a crash in the middle of an append leaves behind; the
+ * returned {@link Result#validLength()} tells the log where to resume appending. The managers must
+ * not have a mutation listener attached while replaying. The replayer also notes the highest
+ * {@code TASK-n} id ever added, served tasks included, so numbering can continue past it.
+ */
+public final class JournalReplayer {
+    private static final int READ_BUFFER_BYTES = 1024 * 1024;
+
+    private final PersonnelManager personnelManager;
+    private final ServiceCatalog serviceCatalog;
+    private final TaskManager taskManager;
+    private final JournalDecoder decoder = new JournalDecoder();
+    private int highestTaskNumber;
+
+    public JournalReplayer(PersonnelManager personnelManager, ServiceCatalog serviceCatalog, TaskManager taskManager) {
+        this.personnelManager = personnelManager;
+        this.serviceCatalog = serviceCatalog;
+        this.taskManager = taskManager;
+    }
+
+    /**
+     * Outcome of a replay: how many records were applied, how many bytes of the file are intact,
+     * and how many trailing bytes were ignored.
+     */
+    public static final class Result {
+        private final long records;
+        private final long validLength;
+        private final long discardedBytes;
+
+        Result(long records, long validLength, long discardedBytes) {
+            this.records = records;
+            this.validLength = validLength;
+            this.discardedBytes = discardedBytes;
+        }
+
+        public long records() {
+            return records;
+        }
+
+        public long validLength() {
+            return validLength;
+        }
+
+        public long discardedBytes() {
+            return discardedBytes;
+        }
+    }
+
+    /**
+     * Highest {@code TASK-n} number among the tasks added by the records replayed so far, or 0.
+     */
+    public int highestTaskNumber() {
+        return highestTaskNumber;
+    }
+
+    public Result replay(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            return new Result(0, 0, 0);
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < WriteAheadLog.FILE_HEADER_BYTES) {
+                return new Result(0, 0, size);
+            }
+            checkHeader(channel);
+            ByteBuffer buffer = ByteBuffer.allocate(READ_BUFFER_BYTES);
+            buffer.limit(0);
+            CRC32C crc = new CRC32C();
+            long offset = WriteAheadLog.FILE_HEADER_BYTES;
+            long records = 0;
+            channel.position(offset);
+            while (true) {
+                buffer = fill(channel, buffer, WriteAheadLog.RECORD_HEADER_BYTES);
+                if (buffer.remaining() < WriteAheadLog.RECORD_HEADER_BYTES) {
+                    break;
+                }
+                int start = buffer.position();
+                int length = buffer.getInt(start);
+                int checksum = buffer.getInt(start + Integer.BYTES);
+                if (length <= 0 || length > WriteAheadLog.MAX_RECORD_BYTES) {
+                    break;
+                }
+                int recordBytes = WriteAheadLog.RECORD_HEADER_BYTES + length;
+                buffer = fill(channel, buffer, recordBytes);
+                if (buffer.remaining() < recordBytes) {
+                    break;
+                }
+                start = buffer.position();
+                int payloadStart = start + WriteAheadLog.RECORD_HEADER_BYTES;
+                crc.reset();
+                crc.update(buffer.array(), buffer.arrayOffset() + payloadStart, length);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                apply(buffer.slice(payloadStart, length));
+                buffer.position(start + recordBytes);
+                offset += recordBytes;
+                records++;
+            }
+            return new Result(records, offset, size - offset);
+        }
+    }
+
+    /**
+     * Applies one record payload; also used when replaying records from other sources.
+     */
+    void apply(ByteBuffer payload) throws IOException {
+        decoder.wrap(payload);
+        int type = decoder.getByte();
+        switch (type) {
+            case RecordType.PERSONNEL_INSERT -> personnelManager.addPersonnel(decoder.getPersonnel(), (int) decoder.getSigned());
+            case RecordType.PERSONNEL_APPEND -> personnelManager.appendAll(readPersonnelList());
+            case RecordType.PERSONNEL_REMOVE_BY_NAME -> personnelManager.removeByName(decoder.getString());
+            case RecordType.PERSONNEL_REMOVE_AT -> personnelManager.removeAt((int) decoder.getSigned());
+            case RecordType.PERSONNEL_REMOVE_BY_ID -> personnelManager.removeById(decoder.getString());
+            case RecordType.PERSONNEL_SORT -> personnelManager.sortByName();
+            case RecordType.PERSONNEL_RESTORE_ORDER -> personnelManager.restoreOrder(decoder.getIntArray());
+            case RecordType.PERSONNEL_REPLACE_ALL -> personnelManager.replaceAll(readPersonnelList());
+            case RecordType.PERSONNEL_REMOVE_RANGE -> personnelManager.removeRange((int) decoder.getSigned(),
+                    (int) decoder.getSigned());
+            case RecordType.SERVICE_INSERT -> serviceCatalog.insertService(decoder.getService(), (int) decoder.getSigned());
+            case RecordType.SERVICE_REMOVE -> serviceCatalog.removeService(decoder.getString());
+            case RecordType.SERVICE_REPLACE -> serviceCatalog.replaceService(decoder.getString(), decoder.getService());
+            case RecordType.SERVICE_SORT -> serviceCatalog.sortAlphabetically();
+            case RecordType.SERVICE_APPEND -> serviceCatalog.addAll(readServiceList());
+            case RecordType.SERVICE_REMOVE_ALL -> serviceCatalog.removeAllByName(readStringList());
+            case RecordType.TASK_ADD -> taskManager.addTask(noteTaskNumber(decoder.getTask()));
+            case RecordType.TASK_ADD_ALL -> {
+                List<Task> tasks = readTaskList();
+                tasks.forEach(this::noteTaskNumber);
+                taskManager.addAll(tasks);
+            }
+            case RecordType.TASK_REMOVE -> taskManager.removeById(decoder.getString());
+            case RecordType.TASK_REMOVE_ALL -> taskManager.removeAllById(readStringList());
+            case RecordType.TASK_REQUEUE -> taskManager.requeueAtFront(decoder.getTask());
+            case RecordType.TASK_REQUEUE_ALL -> taskManager.requeueAllAtFront(readTaskList());
+            default -> throw new IOException("Unknown journal record type " + type);
+        }
+    }
+
+    private Task noteTaskNumber(Task task) {
+        highestTaskNumber = Math.max(highestTaskNumber, Task.generatedNumber(task.getTaskId()));
+        return task;
+    }
+
+    private List<Personnel> readPersonnelList() {
+        int count = decoder.getUnsignedInt();
+        List<Personnel> personnel = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            personnel.add(decoder.getPersonnel());
+        }
+        return personnel;
+    }
+
+    private List<Service> readServiceList() {
+        int count = decoder.getUnsignedInt();
+        List<Service> services = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            services.add(decoder.getService());
+        }
+        return services;
+    }
+
+    private List<String> readStringList() {
+        int count = decoder.getUnsignedInt();
+        List<String> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(decoder.getString());
+        }
+        return values;
+    }
+
+    private List<Task> readTaskList() {
+        int count = decoder.getUnsignedInt();
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            tasks.add(decoder.getTask());
+        }
+        return tasks;
+    }
+
+    private static void checkHeader(FileChannel channel) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(WriteAheadLog.FILE_HEADER_BYTES);
+        while (header.hasRemaining() && channel.read(header, header.position()) >= 0) {
+            // keep reading until the header is complete
+        }
+        header.flip();
+        byte[] magic = new byte[WriteAheadLog.MAGIC.length];
+        header.get(magic);
+        if (!Arrays.equals(magic, WriteAheadLog.MAGIC)) {
+            throw new IOException("Not a CTWMS journal");
+        }
+        int version = header.getInt();
+        if (version != WriteAheadLog.VERSION) {
+            throw new IOException("Unsupported journal version " + version);
+        }
+    }
+
+    /**
+     * Makes at least {@code needed} bytes readable unless the file ends first, compacting and
+     * growing the buffer as required.
+     */
+    private static ByteBuffer fill(FileChannel channel, ByteBuffer buffer, int needed) throws IOException {
+        if (buffer.remaining() >= needed) {
+            return buffer;
+        }
+        if (buffer.capacity() < needed) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(needed, buffer.capacity() * 2));
+            larger.put(buffer);
+            buffer = larger;
+        } else {
+            buffer.compact();
+        }
+        while (buffer.position() < needed) {
+            if (channel.read(buffer) < 0) {
+                break;
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
@@ -0,0 +1,334 @@
+package com.ctwms.persistence;
+
+import com.ctwms.manager.PersonnelManager;
+import com.ctwms.manager.ServiceCatalog;
+import com.ctwms.manager.TaskManager;
+import com.ctwms.model.Personnel;
+import com.ctwms.model.Service;
+import com.ctwms.model.Task;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Durable state of the three managers in one data directory: the newest snapshot plus the journal
+ * segments written since.
+ * <p>
+ * The journal is split into numbered segments ({@code journal-<n>.wal}). Snapshot {@code n}
+ * ({@code snapshot-<n>.snap}) holds the state at the end of segment {@code n - 1}. Taking a snapshot
+ * copies the manager contents on the calling thread (list copies of immutable records, no encoding;
+ * an off-heap personnel store materializes its records for the copy), starts a new segment and
+ * leaves the encoding and writing to a background thread; once the file is durable, older
+ * segments and snapshots are deleted. Startup maps the newest snapshot and replays
+ * only the segments after it. Snapshots must be taken on the thread that mutates the managers, so
+ * that no change falls between the copy and the segment switch.
+ */
+public final class JournalStore implements Closeable {
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".wal";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_SUFFIX = ".snap";
+    private static final String LEGACY_JOURNAL = "journal.wal";
+
+    private final Path directory;
+    private final PersonnelManager personnelManager;
+    private final ServiceCatalog serviceCatalog;
+    private final TaskManager taskManager;
+    private final long snapshotEveryRecords;
+    private final ExecutorService snapshotWriter;
+    private final long snapshotRecords;
+    private final long replayedRecords;
+    private final long loadMillis;
+    private final int loadedTaskNumber;
+    private WriteAheadLog journal;
+    private long segment;
+    private long tailRecords;
+    private long appendedAtRotation;
+    private CompletableFuture<Void> pendingSnapshot = CompletableFuture.completedFuture(null);
+    private volatile long snapshotsWritten;
+    private volatile long lastSnapshotBytes;
+    private volatile long lastSnapshotMillis;
+    private volatile String lastSnapshotError;
+    private boolean closed;
+
+    private JournalStore(Path directory, PersonnelManager personnelManager, ServiceCatalog serviceCatalog,
+                         TaskManager taskManager, long snapshotEveryRecords, long snapshotRecords,
+                         long replayedRecords, long loadMillis, int loadedTaskNumber) {
+        this.directory = directory;
+        this.personnelManager = personnelManager;
+        this.serviceCatalog = serviceCatalog;
+        this.taskManager = taskManager;
+        this.snapshotEveryRecords = snapshotEveryRecords;
+        this.snapshotRecords = snapshotRecords;
+        this.replayedRecords = replayedRecords;
+        this.loadMillis = loadMillis;
+        this.loadedTaskNumber = loadedTaskNumber;
+        this.snapshotWriter = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ctwms-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Loads the newest snapshot in {@code directory} into the (empty) managers, replays the journal
+     * segments written after it, and attaches the journal to the managers.
+     *
+     * @param snapshotEveryRecords journal records after which {@link #snapshotIfDue()} takes a
+     *                             snapshot; {@code 0} leaves snapshots to explicit calls
+     */
+    public static JournalStore open(Path directory, SyncPolicy policy, long snapshotEveryRecords,
+                                    PersonnelManager personnelManager, ServiceCatalog serviceCatalog,
+                                    TaskManager taskManager) throws IOException {
+        long started = System.nanoTime();
+        Files.createDirectories(directory);
+        Path legacy = directory.resolve(LEGACY_JOURNAL);
+        if (Files.exists(legacy) && listNumbered(directory, SEGMENT_PREFIX, SEGMENT_SUFFIX).isEmpty()) {
+            Files.move(legacy, segmentPath(directory, 0));
+        }
+        for (Path leftover : listTemporary(directory)) {
+            Files.deleteIfExists(leftover);
+        }
+
+        List<Long> snapshots = listNumbered(directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX);
+        long base = 0;
+        long snapshotRecords = 0;
+        int snapshotTaskNumber = 0;
+        if (!snapshots.isEmpty()) {
+            base = snapshots.get(snapshots.size() - 1);
+            SnapshotFile.Contents contents = SnapshotFile.load(snapshotPath(directory, base), base,
+                    personnelManager, serviceCatalog, taskManager);
+            snapshotRecords = contents.records();
+            snapshotTaskNumber = contents.highestTaskNumber();
+        }
+
+        List<Long> segments = new ArrayList<>();
+        for (long number : listNumbered(directory, SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (number >= base) {
+                segments.add(number);
+            }
+        }
+        JournalReplayer replayer = new JournalReplayer(personnelManager, serviceCatalog, taskManager);
+        long replayed = 0;
+        long current = base;
+        long validLength = 0;
+        for (int i = 0; i < segments.size(); i++) {
+            long number = segments.get(i);
+            if (number != base + i) {
+                throw new IOException("Journal segment " + segmentPath(directory, base + i) + " is missing");
+            }
+            JournalReplayer.Result result = replayer.replay(segmentPath(directory, number));
+            boolean last = i == segments.size() - 1;
+            if (!last && result.discardedBytes() > 0) {
+                throw new IOException("Journal segment " + segmentPath(directory, number) + " is damaged");
+            }
+            replayed += result.records();
+            current = number;
+            validLength = result.validLength();
+        }
+        deleteBefore(directory, base);
+
+        long loadMillis = (System.nanoTime() - started) / 1_000_000;
+        JournalStore store = new JournalStore(directory, personnelManager, serviceCatalog, taskManager,
+                Math.max(0, snapshotEveryRecords), snapshotRecords, replayed, loadMillis,
+                Math.max(snapshotTaskNumber, replayer.highestTaskNumber()));
+        store.segment = current;
+        store.tailRecords = replayed;
+        store.journal = WriteAheadLog.open(segmentPath(directory, current), validLength, policy);
+        personnelManager.setMutationListener(store.journal);
+        serviceCatalog.setMutationListener(store.journal);
+        taskManager.setMutationListener(store.journal);
+        return store;
+    }
+
+    public WriteAheadLog journal() {
+        return journal;
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    /**
+     * Number for the next generated {@code TASK-n} id: one past the highest ever added, served
+     * tasks included, as carried by the snapshot and the journal. Pending tasks alone would not
+     * do, since serving the newest tasks would let their ids be handed out again.
+     */
+    public int nextTaskNumber() {
+        return Math.max(loadedTaskNumber, journal.highestTaskNumber()) + 1;
+    }
+
+    /**
+     * Takes a snapshot once at least the configured number of records has been journaled since the
+     * last one. Returns {@code true} if a snapshot was started.
+     */
+    public synchronized boolean snapshotIfDue() throws IOException {
+        if (snapshotEveryRecords == 0 || recordsSinceSnapshot() < snapshotEveryRecords) {
+            return false;
+        }
+        return snapshot();
+    }
+
+    /**
+     * Copies the current state, switches the journal to a new segment and writes the copy in the
+     * background. Returns {@code false} if the previous snapshot is still being written.
+     */
+    public synchronized boolean snapshot() throws IOException {
+        if (closed) {
+            throw new IOException("Journal store is closed");
+        }
+        if (!pendingSnapshot.isDone()) {
+            return false;
+        }
+        List<Personnel> personnel = new ArrayList<>(personnelManager.listAll());
+        List<Service> services = serviceCatalog.listAll();
+        List<Task> tasks = taskManager.listPendingTasks();
+        int taskNumber = nextTaskNumber() - 1;
+        long next = segment + 1;
+        journal.rotate(segmentPath(directory, next));
+        segment = next;
+        tailRecords = 0;
+        appendedAtRotation = journal.appendedRecords();
+        pendingSnapshot = CompletableFuture.runAsync(() -> writeSnapshot(next, taskNumber, personnel, services,
+                tasks), snapshotWriter);
+        return true;
+    }
+
+    /**
+     * Blocks until the snapshot in progress, if any, has been written.
+     */
+    public void awaitSnapshot() {
+        CompletableFuture<Void> pending;
+        synchronized (this) {
+            pending = pendingSnapshot;
+        }
+        try {
+            pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // recorded in lastSnapshotError
+        }
+    }
+
+    public synchronized long recordsSinceSnapshot() {
+        return tailRecords + journal.appendedRecords() - appendedAtRotation;
+    }
+
+    public long snapshotRecords() {
+        return snapshotRecords;
+    }
+
+    public long replayedRecords() {
+        return replayedRecords;
+    }
+
+    public long loadMillis() {
+        return loadMillis;
+    }
+
+    public long snapshotsWritten() {
+        return snapshotsWritten;
+    }
+
+    public long lastSnapshotBytes() {
+        return lastSnapshotBytes;
+    }
+
+    public long lastSnapshotMillis() {
+        return lastSnapshotMillis;
+    }
+
+    public String lastSnapshotError() {
+        return lastSnapshotError;
+    }
+
+    /**
+     * Waits for a snapshot in progress, then closes the journal. Safe to call more than once.
+     */
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+        }
+        awaitSnapshot();
+        snapshotWriter.shutdown();
+        journal.close();
+    }
+
+    private void writeSnapshot(long number, int taskNumber, List<Personnel> personnel, List<Service> services,
+                               List<Task> tasks) {
+        long started = System.nanoTime();
+        try {
+            lastSnapshotBytes = SnapshotFile.write(snapshotPath(directory, number), number, taskNumber, personnel,
+                    services, tasks);
+            deleteBefore(directory, number);
+            lastSnapshotMillis = (System.nanoTime() - started) / 1_000_000;
+            lastSnapshotError = null;
+            snapshotsWritten++;
+        } catch (IOException | RuntimeException e) {
+            lastSnapshotError = e.getMessage();
+        }
+    }
+
+    private static void deleteBefore(Path directory, long number) throws IOException {
+        for (long older : listNumbered(directory, SNAPSHOT_PREFIX, SNAPSHOT_SUFFIX)) {
+            if (older < number) {
+                Files.deleteIfExists(snapshotPath(directory, older));
+            }
+        }
+        for (long older : listNumbered(directory, SEGMENT_PREFIX, SEGMENT_SUFFIX)) {
+            if (older < number) {
+                Files.deleteIfExists(segmentPath(directory, older));
+            }
+        }
+    }
+
+    private static Path segmentPath(Path directory, long number) {
+        return directory.resolve(SEGMENT_PREFIX + String.format(Locale.ROOT, "%016d", number) + SEGMENT_SUFFIX);
+    }
+
+    private static Path snapshotPath(Path directory, long number) {
+        return directory.resolve(SNAPSHOT_PREFIX + String.format(Locale.ROOT, "%016d", number) + SNAPSHOT_SUFFIX);
+    }
+
+    /**
+     * Returns the numbers of the files named {@code prefix<n>suffix}, ascending.
+     */
+    private static List<Long> listNumbered(Path directory, String prefix, String suffix) throws IOException {
+        List<Long> numbers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, prefix + "*" + suffix)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String digits = name.substring(prefix.length(), name.length() - suffix.length());
+                try {
+                    numbers.add(Long.parseLong(digits));
+                } catch (NumberFormatException e) {
+                    // not one of ours
+                }
+            }
+        }
+        numbers.sort(null);
+        return numbers;
+    }
+
+    private static List<Path> listTemporary(Path directory) throws IOException {
+        List<Path> leftovers = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SNAPSHOT_PREFIX + "*.tmp")) {
+            files.forEach(leftovers::add);
+        }
+        return leftovers;
+    }
+}
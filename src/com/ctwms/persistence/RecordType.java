@@ -0,0 +1,33 @@
+package com.ctwms.persistence;
+
+/**
+ * Type tags stored as the first payload byte of every journal record.
+ */
+final class RecordType {
+    static final int PERSONNEL_INSERT = 1;
+    static final int PERSONNEL_APPEND = 2;
+    static final int PERSONNEL_REMOVE_BY_NAME = 3;
+    static final int PERSONNEL_REMOVE_AT = 4;
+    static final int PERSONNEL_REMOVE_BY_ID = 5;
+    static final int PERSONNEL_SORT = 6;
+    static final int PERSONNEL_RESTORE_ORDER = 7;
+    static final int PERSONNEL_REPLACE_ALL = 8;
+    static final int PERSONNEL_REMOVE_RANGE = 9;
+
+    static final int SERVICE_INSERT = 20;
+    static final int SERVICE_REMOVE = 21;
+    static final int SERVICE_REPLACE = 22;
+    static final int SERVICE_SORT = 23;
+    static final int SERVICE_APPEND = 24;
+    static final int SERVICE_REMOVE_ALL = 25;
+
+    static final int TASK_ADD = 40;
+    static final int TASK_ADD_ALL = 41;
+    static final int TASK_REMOVE = 42;
+    static final int TASK_REMOVE_ALL = 43;
+    static final int TASK_REQUEUE = 44;
+    static final int TASK_REQUEUE_ALL = 45;
+
+    private RecordType() {
+    }
+}
@@ -0,0 +1,231 @@
+package com.ctwms.persistence;
+
+import com.ctwms.manager.PersonnelManager;
+import com.ctwms.manager.ServiceCatalog;
+import com.ctwms.manager.TaskManager;
+import com.ctwms.model.Personnel;
+import com.ctwms.model.Service;
+import com.ctwms.model.Task;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Reads and writes full-state snapshots.
+ * <p>
+ * A snapshot is an 8-byte magic, a version, the number of the first journal segment it does not
+ * cover and the highest {@code TASK-n} number handed out so far (served tasks included), followed
+ * by the personnel in stored order, the services in catalog order and the pending tasks lane by
+ * lane (FIFO within each priority, scheduled tasks last), all in the {@link JournalEncoder}
+ * encoding. A CRC32C of everything before it ends the file. Files are
+ * written under a temporary name and renamed into place once durable, so a snapshot either exists
+ * completely or not at all. Version 1 files, which lack the task number, still load; for them the
+ * number is taken from the pending tasks.
+ */
+final class SnapshotFile {
+    static final byte[] MAGIC = "CTWMSSNP".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 2;
+    static final int HEADER_BYTES = MAGIC.length + Integer.BYTES + Long.BYTES + Integer.BYTES;
+
+    private static final int VERSION_1 = 1;
+    private static final int VERSION_1_HEADER_BYTES = MAGIC.length + Integer.BYTES + Long.BYTES;
+
+    private static final int CHUNK_BYTES = 1024 * 1024;
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * What a load restored: the number of records and the highest {@code TASK-n} number.
+     */
+    static final class Contents {
+        private final long records;
+        private final int highestTaskNumber;
+
+        Contents(long records, int highestTaskNumber) {
+            this.records = records;
+            this.highestTaskNumber = highestTaskNumber;
+        }
+
+        long records() {
+            return records;
+        }
+
+        int highestTaskNumber() {
+            return highestTaskNumber;
+        }
+    }
+
+    /**
+     * Writes the given state to {@code file} and returns the file size.
+     */
+    static long write(Path file, long segment, int highestTaskNumber, List<Personnel> personnel,
+                      List<Service> services, List<Task> tasks) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        long size;
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ChunkWriter out = new ChunkWriter(channel);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.put(MAGIC).putInt(VERSION).putLong(segment).putInt(highestTaskNumber);
+            out.write(header.array(), HEADER_BYTES);
+            JournalEncoder encoder = out.encoder;
+            encoder.putUnsigned(personnel.size());
+            for (Personnel person : personnel) {
+                encoder.putPersonnel(person);
+                out.flushIfFull();
+            }
+            encoder.putUnsigned(services.size());
+            for (Service service : services) {
+                encoder.putService(service);
+                out.flushIfFull();
+            }
+            encoder.putUnsigned(tasks.size());
+            for (Task task : tasks) {
+                encoder.putTask(task);
+                out.flushIfFull();
+            }
+            out.flush();
+            ByteBuffer trailer = ByteBuffer.allocate(Integer.BYTES).putInt((int) out.crc.getValue());
+            trailer.flip();
+            while (trailer.hasRemaining()) {
+                channel.write(trailer);
+            }
+            channel.force(true);
+            size = channel.size();
+        } catch (IOException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+        Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        syncDirectory(file.getParent());
+        return size;
+    }
+
+    /**
+     * Maps {@code file} read-only, verifies it and loads its contents into the managers, which must
+     * be empty and have no mutation listener attached. Nothing is loaded unless the whole file
+     * checks out.
+     */
+    static Contents load(Path file, long expectedSegment, PersonnelManager personnelManager,
+                         ServiceCatalog serviceCatalog, TaskManager taskManager) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < VERSION_1_HEADER_BYTES + Integer.BYTES || size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot " + file + " has an invalid size of " + size + " bytes");
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            int bodyEnd = (int) size - Integer.BYTES;
+            CRC32C crc = new CRC32C();
+            crc.update(mapped.slice(0, bodyEnd));
+            if ((int) crc.getValue() != mapped.getInt(bodyEnd)) {
+                throw new IOException("Snapshot " + file + " failed its checksum");
+            }
+            byte[] magic = new byte[MAGIC.length];
+            mapped.get(0, magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not a CTWMS snapshot: " + file);
+            }
+            int version = mapped.getInt(MAGIC.length);
+            if (version != VERSION && version != VERSION_1) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            int headerBytes = version == VERSION_1 ? VERSION_1_HEADER_BYTES : HEADER_BYTES;
+            int highestTaskNumber = version == VERSION_1 ? 0 : mapped.getInt(VERSION_1_HEADER_BYTES);
+            long segment = mapped.getLong(MAGIC.length + Integer.BYTES);
+            if (segment != expectedSegment) {
+                throw new IOException("Snapshot " + file + " covers segment " + segment
+                        + ", expected " + expectedSegment);
+            }
+
+            JournalDecoder decoder = new JournalDecoder();
+            decoder.wrap(mapped.slice(headerBytes, bodyEnd - headerBytes));
+            int personnelCount = decoder.getUnsignedInt();
+            List<Personnel> personnel = new ArrayList<>(personnelCount);
+            for (int i = 0; i < personnelCount; i++) {
+                personnel.add(decoder.getPersonnel());
+            }
+            int serviceCount = decoder.getUnsignedInt();
+            List<Service> services = new ArrayList<>(serviceCount);
+            for (int i = 0; i < serviceCount; i++) {
+                services.add(decoder.getService());
+            }
+            int taskCount = decoder.getUnsignedInt();
+            List<Task> tasks = new ArrayList<>(taskCount);
+            for (int i = 0; i < taskCount; i++) {
+                Task task = decoder.getTask();
+                if (version == VERSION_1) {
+                    highestTaskNumber = Math.max(highestTaskNumber, Task.generatedNumber(task.getTaskId()));
+                }
+                tasks.add(task);
+            }
+
+            personnelManager.appendAll(personnel);
+            for (Service service : services) {
+                serviceCatalog.addService(service);
+            }
+            taskManager.addAll(tasks);
+            return new Contents((long) personnelCount + serviceCount + taskCount, highestTaskNumber);
+        } catch (RuntimeException e) {
+            throw new IOException("Snapshot " + file + " is malformed", e);
+        }
+    }
+
+    /**
+     * Makes a rename in {@code directory} durable. Some platforms cannot open a directory for
+     * syncing; there the rename is left to the file system.
+     */
+    static void syncDirectory(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // best effort; not supported everywhere
+        }
+    }
+
+    /**
+     * Streams encoder output to the channel in chunks while keeping a running checksum.
+     */
+    private static final class ChunkWriter {
+        private final FileChannel channel;
+        private final JournalEncoder encoder = new JournalEncoder();
+        private final CRC32C crc = new CRC32C();
+
+        ChunkWriter(FileChannel channel) {
+            this.channel = channel;
+        }
+
+        void flushIfFull() throws IOException {
+            if (encoder.length() >= CHUNK_BYTES) {
+                flush();
+            }
+        }
+
+        void flush() throws IOException {
+            write(encoder.array(), encoder.length());
+            encoder.reset();
+        }
+
+        void write(byte[] bytes, int length) throws IOException {
+            crc.update(bytes, 0, length);
+            ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.ctwms.persistence;
+
+/**
+ * How often the write-ahead log forces appended records to stable storage.
+ * <p>
+ * With {@code recordsPerSync == 1} every append waits until it is durable; concurrent appenders
+ * share a single {@code force} (group commit). A larger value forces once that many records are
+ * pending and {@code 0} never forces on count, leaving it to {@code maxDelayMillis}, an explicit
+ * {@code sync()}, a segment rotation or {@code close()}. A full staging buffer is written to the
+ * file but not forced. When {@code maxDelayMillis > 0} a background thread also forces pending
+ * records at least that often, bounding how much a machine crash can lose.
+ */
+public final class SyncPolicy {
+    private final int recordsPerSync;
+    private final long maxDelayMillis;
+
+    public SyncPolicy(int recordsPerSync, long maxDelayMillis) {
+        this.recordsPerSync = Math.max(0, recordsPerSync);
+        this.maxDelayMillis = Math.max(0, maxDelayMillis);
+    }
+
+    public static SyncPolicy everyRecord() {
+        return new SyncPolicy(1, 0);
+    }
+
+    /**
+     * Reads {@code ctwms.wal.syncEvery} (records per sync, default 1) and
+     * {@code ctwms.wal.syncMillis} (maximum delay, default 100).
+     */
+    public static SyncPolicy fromSystemProperties() {
+        return new SyncPolicy(Integer.getInteger("ctwms.wal.syncEvery", 1),
+                Long.getLong("ctwms.wal.syncMillis", 100L));
+    }
+
+    public int recordsPerSync() {
+        return recordsPerSync;
+    }
+
+    public long maxDelayMillis() {
+        return maxDelayMillis;
+    }
+
+    @Override
+    public String toString() {
+        if (recordsPerSync == 1) {
+            return "every record";
+        }
+        String count = recordsPerSync > 1 ? "every " + recordsPerSync + " records" : "on sync or close";
+        return maxDelayMillis > 0 ? count + " or " + maxDelayMillis + " ms" : count;
+    }
+}
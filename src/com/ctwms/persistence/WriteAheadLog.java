@@ -0,0 +1,575 @@
+package com.ctwms.persistence;
+
+import com.ctwms.manager.MutationListener;
+import com.ctwms.model.Personnel;
+import com.ctwms.model.Service;
+import com.ctwms.model.Task;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only binary journal of every manager mutation.
+ * <p>
+ * The file starts with an 8-byte magic and a version; each record is
+ * {@code [int payloadLength][int crc32c][payload]} where the payload is a {@link RecordType} tag
+ * followed by compact varint/UTF-8 fields. Records are staged in a buffer and written to the
+ * channel when it fills or a sync is due; a full buffer is only written, and how often
+ * {@link FileChannel#force(boolean)} runs is set by the {@link SyncPolicy} alone. Appends are thread-safe; I/O failures surface as
+ * {@link UncheckedIOException} from the mutation that triggered them, and a mutation after
+ * {@link #close()} as {@link IllegalStateException}.
+ */
+public class WriteAheadLog implements MutationListener, Closeable {
+    static final byte[] MAGIC = "CTWMSWAL".getBytes(StandardCharsets.US_ASCII);
+    static final int VERSION = 1;
+    static final int FILE_HEADER_BYTES = MAGIC.length + Integer.BYTES;
+    static final int RECORD_HEADER_BYTES = 2 * Integer.BYTES;
+    static final int MAX_RECORD_BYTES = 64 * 1024 * 1024;
+
+    private static final int BUFFER_BYTES = 256 * 1024;
+    private static final int FLUSHER_STOP_SECONDS = 30;
+
+    private FileChannel channel;
+    private final SyncPolicy policy;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private final JournalEncoder encoder = new JournalEncoder();
+    private final CRC32C crc = new CRC32C();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition synced = lock.newCondition();
+    private final ScheduledExecutorService flusher;
+    private long appendedRecords;
+    private int highestTaskNumber;
+    private long syncedRecords;
+    private long syncCount;
+    private boolean syncing;
+    private boolean closed;
+
+    private WriteAheadLog(FileChannel channel, SyncPolicy policy) {
+        this.channel = channel;
+        this.policy = policy;
+        if (policy.recordsPerSync() != 1 && policy.maxDelayMillis() > 0) {
+            flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ctwms-wal-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::syncQuietly, policy.maxDelayMillis(),
+                    policy.maxDelayMillis(), TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    /**
+     * Opens the journal for appending after its first {@code validLength} bytes, discarding any torn
+     * tail beyond them. A missing or empty file is created with a fresh header.
+     */
+    public static WriteAheadLog open(Path file, long validLength, SyncPolicy policy) throws IOException {
+        if (validLength < FILE_HEADER_BYTES) {
+            return new WriteAheadLog(createSegment(file), policy);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() > validLength) {
+                channel.truncate(validLength);
+                channel.force(true);
+            }
+            channel.position(validLength);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        return new WriteAheadLog(channel, policy);
+    }
+
+    /**
+     * Makes every record appended so far durable in the current file, then continues appending to
+     * a new file. Records appended by other threads while rotating may land in either file.
+     */
+    public void rotate(Path next) throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IOException("Journal is closed");
+            }
+            FileChannel fresh = createSegment(next);
+            awaitSynced(appendedRecords);
+            flushBuffer();
+            channel.force(false);
+            channel.close();
+            channel = fresh;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public SyncPolicy policy() {
+        return policy;
+    }
+
+    /**
+     * Highest {@code TASK-n} number among the tasks added through this log, or 0.
+     */
+    public int highestTaskNumber() {
+        lock.lock();
+        try {
+            return highestTaskNumber;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long appendedRecords() {
+        lock.lock();
+        try {
+            return appendedRecords;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long syncCount() {
+        lock.lock();
+        try {
+            return syncCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void personnelInserted(Personnel personnel, int position) {
+        lock.lock();
+        try {
+            begin(RecordType.PERSONNEL_INSERT);
+            encoder.putPersonnel(personnel);
+            encoder.putSigned(position);
+            commit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void personnelAppended(List<Personnel> personnel) {
+        lock.lock();
+        try {
+            begin(RecordType.PERSONNEL_APPEND);
+            putPersonnelList(personnel);
+            commit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void personnelRemovedByName(String name) {
+        appendString(RecordType.PERSONNEL_REMOVE_BY_NAME, name);
+    }
+
+    public void personnelRemovedAt(int index) {
+        lock.lock();
+        try {
+            begin(RecordType.PERSONNEL_REMOVE_AT);
+            encoder.putSigned(index);
+            commit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void personnelRemovedById(String id) {
+        appendString(RecordType.PERSONNEL_REMOVE_BY_ID, id);
+    }
+
+    public void personnelRangeRemoved(int from, int to) {
+        lock.lock();
+        try {
+            begin(RecordType.PERSONNEL_REMOVE_RANGE);
+            encoder.putSigned(from);
+            encoder.putSigned(to);
+            commit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void personnelSorted() {
+        lock.lock();
+        try {
+            begin(RecordType.PERSONNEL_SORT);
+            commit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void personnelOrderRestored(int[] originalPositions) {
+        lock.lock();
+        try {
+            begin(RecordType.PERSONNEL_RESTORE_ORDER);
+            encoder.putIntArray(originalPositions);
+            commit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void personnelReplaced(List<Personnel> orderedPersonnel) {
+        lock.lock();
+        try {
+            begin(RecordType.PERSONNEL_REPLACE_ALL);
+            putPersonnelList(orderedPersonnel);
+            commit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void serviceInserted(Service service, int index) {
+        lock.lock();
+        try {
+            begin(RecordType.SERVICE_INSERT);
+            encoder.putService(service);
+            encoder.putSigned(index);
+            commit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void servicesAppended(List<Service> services) {
+        lock.lock();
+        try {
+            begin(RecordType.SERVICE_APPEND);
+            encoder.putUnsigned(services.size());
+            for (Service service : services) {
+                encoder.putService(service);
+            }
+            commit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void serviceRemoved(String name) {
+        appendString(RecordType.SERVICE_REMOVE, name);
+    }
+
+    public void servicesRemoved(List<String> names) {
+        lock.lock();
+        try {
+            begin(RecordType.SERVICE_REMOVE_ALL);
+            encoder.putUnsigned(names.size());
+            for (String name : names) {
+                encoder.putString(name);
+            }
+            commit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void serviceReplaced(String existingName, Service replacement) {
+        lock.lock();
+        try {
+            begin(RecordType.SERVICE_REPLACE);
+            encoder.putString(existingName);
+            encoder.putService(replacement);
+            commit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void servicesSorted() {
+        lock.lock();
+        try {
+            begin(RecordType.SERVICE_SORT);
+            commit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void taskAdded(Task task) {
+        appendTask(RecordType.TASK_ADD, task);
+    }
+
+    public void tasksAdded(Collection<Task> tasks) {
+        appendTasks(RecordType.TASK_ADD_ALL, tasks);
+    }
+
+    public void taskRemoved(String taskId) {
+        appendString(RecordType.TASK_REMOVE, taskId);
+    }
+
+    public void tasksRemoved(List<Task> tasks) {
+        lock.lock();
+        try {
+            begin(RecordType.TASK_REMOVE_ALL);
+            encoder.putUnsigned(tasks.size());
+            for (Task task : tasks) {
+                encoder.putString(task.getTaskId());
+            }
+            commit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void taskRequeued(Task task) {
+        appendTask(RecordType.TASK_REQUEUE, task);
+    }
+
+    public void tasksRequeued(List<Task> tasks) {
+        appendTasks(RecordType.TASK_REQUEUE_ALL, tasks);
+    }
+
+    /**
+     * Writes out staged records and forces them to disk, whatever the policy.
+     */
+    public void sync() throws IOException {
+        lock.lock();
+        try {
+            awaitSynced(appendedRecords);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Syncs and closes the journal; a later mutation fails with {@link IllegalStateException}
+     * rather than go unrecorded.
+     */
+    public void close() throws IOException {
+        boolean interrupted = false;
+        if (flusher != null) {
+            // shutdownNow would interrupt a force in progress, and an interrupted FileChannel closes
+            // itself, losing the staged tail; let the running sync finish instead.
+            flusher.shutdown();
+            try {
+                flusher.awaitTermination(FLUSHER_STOP_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            awaitSynced(appendedRecords);
+            closed = true;
+            channel.close();
+        } finally {
+            lock.unlock();
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static FileChannel createSegment(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_BYTES);
+            header.put(MAGIC).putInt(VERSION).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            channel.force(true);
+            return channel;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void appendString(int type, String value) {
+        lock.lock();
+        try {
+            begin(type);
+            encoder.putString(value);
+            commit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void appendTask(int type, Task task) {
+        lock.lock();
+        try {
+            begin(type);
+            encoder.putTask(task);
+            commit();
+            if (type == RecordType.TASK_ADD) {
+                highestTaskNumber = Math.max(highestTaskNumber, Task.generatedNumber(task.getTaskId()));
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void appendTasks(int type, Collection<Task> tasks) {
+        lock.lock();
+        try {
+            begin(type);
+            int count = 0;
+            for (Task task : tasks) {
+                if (task != null) {
+                    count++;
+                }
+            }
+            encoder.putUnsigned(count);
+            int highest = highestTaskNumber;
+            for (Task task : tasks) {
+                if (task != null) {
+                    encoder.putTask(task);
+                    highest = Math.max(highest, Task.generatedNumber(task.getTaskId()));
+                }
+            }
+            commit();
+            if (type == RecordType.TASK_ADD_ALL) {
+                highestTaskNumber = highest;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void putPersonnelList(List<Personnel> personnel) {
+        int count = 0;
+        for (Personnel record : personnel) {
+            if (record != null) {
+                count++;
+            }
+        }
+        encoder.putUnsigned(count);
+        for (Personnel record : personnel) {
+            if (record != null) {
+                encoder.putPersonnel(record);
+            }
+        }
+    }
+
+    /**
+     * Starts encoding a record; the caller must hold the lock.
+     */
+    private void begin(int type) {
+        encoder.reset();
+        encoder.putByte(type);
+    }
+
+    /**
+     * Frames the encoded payload into the staging buffer and applies the sync policy; the caller
+     * must hold the lock.
+     */
+    private void commit() {
+        if (closed) {
+            throw new IllegalStateException("Journal is closed; the change was not recorded");
+        }
+        int length = encoder.length();
+        if (length > MAX_RECORD_BYTES) {
+            throw new IllegalArgumentException("Journal record exceeds " + MAX_RECORD_BYTES + " bytes");
+        }
+        crc.reset();
+        crc.update(encoder.array(), 0, length);
+        int checksum = (int) crc.getValue();
+        try {
+            if (buffer.remaining() < RECORD_HEADER_BYTES + length) {
+                flushBuffer();
+            }
+            if (buffer.remaining() >= RECORD_HEADER_BYTES + length) {
+                buffer.putInt(length).putInt(checksum).put(encoder.array(), 0, length);
+            } else {
+                ByteBuffer large = ByteBuffer.allocate(RECORD_HEADER_BYTES + length);
+                large.putInt(length).putInt(checksum).put(encoder.array(), 0, length).flip();
+                writeFully(large);
+            }
+            long sequence = ++appendedRecords;
+            int every = policy.recordsPerSync();
+            if (every == 1) {
+                awaitSynced(sequence);
+            } else if (every > 1 && sequence - syncedRecords >= every && !syncing) {
+                awaitSynced(sequence);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append to the journal", e);
+        }
+    }
+
+    /**
+     * Group commit: the first thread to find {@code sequence} not yet durable writes the staged
+     * buffer and forces the channel with the lock released, so other threads keep appending; any
+     * thread waiting meanwhile is covered by the next force. The caller must hold the lock.
+     */
+    private void awaitSynced(long sequence) throws IOException {
+        while (syncedRecords < sequence && !closed) {
+            if (syncing) {
+                synced.awaitUninterruptibly();
+                continue;
+            }
+            syncing = true;
+            long target = appendedRecords;
+            IOException failure = null;
+            try {
+                flushBuffer();
+                lock.unlock();
+                try {
+                    channel.force(false);
+                } finally {
+                    lock.lock();
+                }
+            } catch (IOException e) {
+                failure = e;
+            }
+            syncing = false;
+            if (failure == null) {
+                syncedRecords = Math.max(syncedRecords, target);
+                syncCount++;
+            }
+            synced.signalAll();
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+
+    private void syncQuietly() {
+        lock.lock();
+        try {
+            if (!closed && appendedRecords > syncedRecords) {
+                awaitSynced(appendedRecords);
+            }
+        } catch (IOException e) {
+            // the next append or close reports the failure
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        buffer.flip();
+        writeFully(buffer);
+        buffer.clear();
+    }
+
+    private void writeFully(ByteBuffer source) throws IOException {
+        while (source.hasRemaining()) {
+            channel.write(source);
+        }
+    }
+}